@@ -0,0 +1,114 @@
+package com.github.daikikanai.moduleanalyzer.benchmarks;
+
+import com.github.daikikanai.moduleanalyzer.index.DependencyResolver;
+import com.github.daikikanai.moduleanalyzer.index.SourceFile;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.index.SourceParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Per-file cost of Tracer.extractDependencies on a generated 10k-class tree
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DependencyExtractionBenchmark {
+    private static final int SAMPLE_SIZE = 20;
+
+    @Param({"10000"})
+    private int classCount;
+
+    private Path root;
+    private Set<String> classNames;
+    private DependencyResolver resolver;
+    private List<SourceFile> sampleFiles;
+    private List<String> sampleContents;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("module-analyzer-bench");
+        new ModularMonolithGenerator(100, classCount / 100, 5).generate(root);
+
+        SourceIndex index = SourceIndex.scan(root);
+        classNames = index.getClassNames();
+        resolver = new DependencyResolver(classNames);
+
+        sampleFiles = new ArrayList<>();
+        sampleContents = new ArrayList<>();
+        List<SourceFile> files = index.getFiles();
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            SourceFile file = files.get(i * files.size() / SAMPLE_SIZE);
+            sampleFiles.add(file);
+            sampleContents.add(new String(Files.readAllBytes(file.getPath())));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ModularMonolithGenerator.delete(root);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE_SIZE)
+    public void regexScanPerClass(Blackhole blackhole) {
+        for (String content : sampleContents) {
+            blackhole.consume(extractDependenciesWithRegex(content));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE_SIZE)
+    public void tokenIndex(Blackhole blackhole) {
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            SourceFile file = sampleFiles.get(i);
+            Set<String> identifiers = SourceParser.extractIdentifiers(sampleContents.get(i));
+            blackhole.consume(resolver.resolve(file.getPackageName(), file.getImports(), identifiers));
+        }
+    }
+
+    // The previous Tracer.extractDependencies: one compiled \bSimpleName\b pattern per known class
+    private Set<String> extractDependenciesWithRegex(String content) {
+        Set<String> dependencies = new HashSet<>();
+
+        Pattern importPattern = Pattern.compile("import\\s+([a-zA-Z0-9_.]+);");
+        Matcher importMatcher = importPattern.matcher(content);
+        while (importMatcher.find()) {
+            String importedClass = importMatcher.group(1);
+            if (classNames.contains(importedClass)) {
+                dependencies.add(importedClass);
+            }
+        }
+
+        String packageName = null;
+        for (String line : content.split("\n")) {
+            line = line.trim();
+            if (line.startsWith("package ")) {
+                packageName = line.substring(8, line.indexOf(';')).trim();
+                break;
+            }
+        }
+
+        for (String className : classNames) {
+            String simpleClassName = className.substring(className.lastIndexOf('.') + 1);
+            Pattern usagePattern = Pattern.compile("\\b" + simpleClassName + "\\b");
+            if (usagePattern.matcher(content).find()) {
+                String classPackage = className.substring(0, className.lastIndexOf('.'));
+                if (content.contains("import " + className + ";") || classPackage.equals(packageName)) {
+                    dependencies.add(className);
+                }
+            }
+        }
+
+        return dependencies;
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.daikikanai.moduleanalyzer.benchmarks;
+
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// A generated modular monolith shared by all benchmarks of a trial, with its index scanned once
+@State(Scope.Benchmark)
+public class GeneratedProject {
+    public static final List<String> SEARCH_PATTERNS = Arrays.asList("client.post", "client.get");
+
+    @Param({"50"})
+    public int modules;
+
+    @Param({"40"})
+    public int classesPerModule;
+
+    @Param({"5"})
+    public int fanOut;
+
+    public Path root;
+    public int fileCount;
+    public SourceIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("module-analyzer-bench");
+        ModularMonolithGenerator generator = new ModularMonolithGenerator(modules, classesPerModule, fanOut);
+        generator.generate(root);
+        fileCount = generator.getFileCount();
+        index = SourceIndex.scan(root, SEARCH_PATTERNS, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ModularMonolithGenerator.delete(root);
+    }
+}
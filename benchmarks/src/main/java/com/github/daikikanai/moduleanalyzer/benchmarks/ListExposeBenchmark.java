@@ -0,0 +1,34 @@
+package com.github.daikikanai.moduleanalyzer.benchmarks;
+
+import com.github.daikikanai.moduleanalyzer.listexpose.ExposeDependencies;
+import com.github.daikikanai.moduleanalyzer.listexpose.ModuleDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// ModuleDataSource.buildDependencies over an already scanned index
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListExposeBenchmark {
+    private ModuleDataSource dataSource;
+    private Set<String> exposeClasses;
+
+    @Setup(Level.Trial)
+    public void setUp(GeneratedProject project) {
+        dataSource = new ModuleDataSource(project.index);
+        exposeClasses = new HashSet<>();
+        for (List<String> classes : dataSource.scanModuleExposeClasses().values()) {
+            exposeClasses.addAll(classes);
+        }
+    }
+
+    @Benchmark
+    public ExposeDependencies buildDependencies() {
+        return dataSource.buildDependencies(exposeClasses);
+    }
+}
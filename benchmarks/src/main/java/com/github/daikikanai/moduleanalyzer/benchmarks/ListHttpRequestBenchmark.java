@@ -0,0 +1,23 @@
+package com.github.daikikanai.moduleanalyzer.benchmarks;
+
+import com.github.daikikanai.moduleanalyzer.listhttprequest.Result;
+import com.github.daikikanai.moduleanalyzer.listhttprequest.Tracer;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Tracer.traceModulesSubDir over an already scanned index, including building the class graph
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListHttpRequestBenchmark {
+
+    @Benchmark
+    public Result traceModulesSubDir(GeneratedProject project) {
+        Tracer tracer = new Tracer(project.index, new SystemStreamLog());
+        return tracer.traceModulesSubDir("application", GeneratedProject.SEARCH_PATTERNS);
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.daikikanai.moduleanalyzer.benchmarks;
+
+import com.github.daikikanai.moduleanalyzer.listtable.TableDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// TableDataSource.scanModuleTables over an already scanned index
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListTableBenchmark {
+
+    @Benchmark
+    public Object scanModuleTables(GeneratedProject project) {
+        return new TableDataSource(project.index).scanModuleTables();
+    }
+}
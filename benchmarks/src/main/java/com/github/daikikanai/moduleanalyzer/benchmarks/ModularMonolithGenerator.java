@@ -0,0 +1,231 @@
+package com.github.daikikanai.moduleanalyzer.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+// Scales the test-project layout to N modules x M classes. Every module has
+//   expose/       M{m}Find{i}Api and a M{m}Dto
+//   application/  M{m}Feature{i}Command using own services and other modules' expose APIs
+//   domain/       M{m}Domain{i}Service using own repositories and services
+//   infra/        Client and M{m}Entity{i}Repository, every other one calling client.post/client.get
+// Each command and service has fanOut dependencies. The same seed always produces the same tree.
+public class ModularMonolithGenerator {
+    private final int modules;
+    private final int classesPerModule;
+    private final int fanOut;
+    private final long seed;
+
+    public ModularMonolithGenerator(int modules, int classesPerModule, int fanOut) {
+        this(modules, classesPerModule, fanOut, 42L);
+    }
+
+    public ModularMonolithGenerator(int modules, int classesPerModule, int fanOut, long seed) {
+        this.modules = modules;
+        this.classesPerModule = classesPerModule;
+        this.fanOut = fanOut;
+        this.seed = seed;
+    }
+
+    private static class Layout {
+        final int apis;
+        final int commands;
+        final int repositories;
+        final int services;
+
+        // Roughly 10% expose, 30% application, 30% infra and the rest domain
+        Layout(int classesPerModule) {
+            int remaining = Math.max(classesPerModule, 5) - 2;  // Dto and Client
+            apis = Math.max(1, remaining / 10);
+            commands = Math.max(1, remaining * 3 / 10);
+            repositories = Math.max(1, remaining * 3 / 10);
+            services = Math.max(1, remaining - apis - commands - repositories);
+        }
+    }
+
+    public Path generate(Path root) throws IOException {
+        Random random = new Random(seed);
+        Layout layout = new Layout(classesPerModule);
+
+        for (int m = 0; m < modules; m++) {
+            for (int i = 0; i < layout.apis; i++) {
+                writeApi(root, m, i);
+            }
+            writeDto(root, m);
+            writeClient(root, m);
+            for (int i = 0; i < layout.repositories; i++) {
+                writeRepository(root, m, i);
+            }
+            for (int i = 0; i < layout.services; i++) {
+                List<String> dependencies = new ArrayList<>();
+                for (int d = 0; d < fanOut; d++) {
+                    // Services use repositories and, less often, other services of their module
+                    dependencies.add(random.nextInt(3) == 0
+                        ? serviceName(m, random.nextInt(layout.services))
+                        : repositoryName(m, random.nextInt(layout.repositories)));
+                }
+                writeDependent(root, m, "domain", serviceSimpleName(m, i), dependencies);
+            }
+            for (int i = 0; i < layout.commands; i++) {
+                List<String> dependencies = new ArrayList<>();
+                for (int d = 0; d < fanOut; d++) {
+                    // Commands mostly use their own services and reach other modules through expose APIs
+                    int kind = random.nextInt(4);
+                    if (kind == 0 && modules > 1) {
+                        int other = (m + 1 + random.nextInt(modules - 1)) % modules;
+                        dependencies.add(apiName(other, random.nextInt(layout.apis)));
+                    } else if (kind == 1) {
+                        dependencies.add(repositoryName(m, random.nextInt(layout.repositories)));
+                    } else {
+                        dependencies.add(serviceName(m, random.nextInt(layout.services)));
+                    }
+                }
+                writeDependent(root, m, "application", commandSimpleName(m, i), dependencies);
+            }
+        }
+
+        return root;
+    }
+
+    public int getFileCount() {
+        Layout layout = new Layout(classesPerModule);
+        return modules * (layout.apis + layout.commands + layout.repositories + layout.services + 2);
+    }
+
+    private void writeApi(Path root, int module, int index) throws IOException {
+        String simpleName = apiSimpleName(module, index);
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName(module, "expose")).append(";\n\n");
+        source.append("public class ").append(simpleName).append(" {\n");
+        source.append("    // Public API of module m").append(module).append("\n");
+        source.append("    public void execute(String input) {\n    }\n}\n");
+        write(root, module, "expose", simpleName, source);
+    }
+
+    private void writeDto(Path root, int module) throws IOException {
+        String simpleName = "M" + module + "Dto";
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName(module, "expose")).append(";\n\n");
+        source.append("public class ").append(simpleName).append(" {\n");
+        source.append("    private String id;\n}\n");
+        write(root, module, "expose", simpleName, source);
+    }
+
+    private void writeClient(Path root, int module) throws IOException {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName(module, "infra")).append(";\n\n");
+        source.append("public class Client {\n");
+        source.append("    public void post(String url, String data) {\n");
+        source.append("        // HTTP POST implementation\n    }\n\n");
+        source.append("    public String get(String url) {\n");
+        source.append("        // HTTP GET implementation\n        return url;\n    }\n}\n");
+        write(root, module, "infra", "Client", source);
+    }
+
+    private void writeRepository(Path root, int module, int index) throws IOException {
+        String simpleName = repositorySimpleName(module, index);
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName(module, "infra")).append(";\n\n");
+        source.append("public class ").append(simpleName).append(" {\n");
+
+        if (index % 2 == 0) {
+            source.append("    private static final String BASE_URL = \"https://m").append(module).append(".example.com\";\n");
+            source.append("    private static final String PATH = \"/api/entity").append(index).append("\";\n");
+            source.append("    private Client client;\n\n");
+            source.append("    public void execute(String input) {\n");
+            source.append("        // Save via HTTP\n");
+            source.append("        client.post(BASE_URL + PATH, input);\n    }\n\n");
+            source.append("    public String find(String id) {\n");
+            source.append("        return client.get(BASE_URL + PATH + \"/\" + id);\n    }\n");
+        } else {
+            source.append("    // Repository for entity").append(index).append(" table\n");
+            source.append("    public void execute(String input) {\n    }\n");
+        }
+
+        source.append("}\n");
+        write(root, module, "infra", simpleName, source);
+    }
+
+    private void writeDependent(Path root, int module, String layer, String simpleName,
+                                List<String> dependencies) throws IOException {
+        String packageName = packageName(module, layer);
+        Set<String> distinct = new LinkedHashSet<>(dependencies);
+        distinct.remove(packageName + "." + simpleName);
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName).append(";\n\n");
+        for (String dependency : distinct) {
+            if (!dependency.startsWith(packageName + ".")) {
+                source.append("import ").append(dependency).append(";\n");
+            }
+        }
+        source.append("\n// Generated class ").append(simpleName).append(" for benchmarking\n");
+        source.append("public class ").append(simpleName).append(" {\n");
+
+        int i = 0;
+        for (String dependency : distinct) {
+            String type = dependency.substring(dependency.lastIndexOf('.') + 1);
+            source.append("    private ").append(type).append(" dependency").append(i++).append(";\n");
+        }
+
+        source.append("\n    public void execute(String input) {\n");
+        source.append("        // Entry point used by callers\n    }\n");
+        for (int d = 0; d < distinct.size(); d++) {
+            source.append("\n    public void handle").append(d).append("(String input) {\n");
+            source.append("        dependency").append(d).append(".execute(input + \"-").append(d).append("\");\n    }\n");
+        }
+        source.append("}\n");
+
+        write(root, module, layer, simpleName, source);
+    }
+
+    private void write(Path root, int module, String layer, String simpleName, StringBuilder source) throws IOException {
+        Path dir = root.resolve("m" + module).resolve(layer);
+        Files.createDirectories(dir);
+        Files.write(dir.resolve(simpleName + ".java"), source.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String apiName(int module, int index) {
+        return packageName(module, "expose") + "." + apiSimpleName(module, index);
+    }
+
+    private String serviceName(int module, int index) {
+        return packageName(module, "domain") + "." + serviceSimpleName(module, index);
+    }
+
+    private String repositoryName(int module, int index) {
+        return packageName(module, "infra") + "." + repositorySimpleName(module, index);
+    }
+
+    private String apiSimpleName(int module, int index) {
+        return "M" + module + "Find" + index + "Api";
+    }
+
+    private String commandSimpleName(int module, int index) {
+        return "M" + module + "Feature" + index + "Command";
+    }
+
+    private String serviceSimpleName(int module, int index) {
+        return "M" + module + "Domain" + index + "Service";
+    }
+
+    private String repositorySimpleName(int module, int index) {
+        return "M" + module + "Entity" + index + "Repository";
+    }
+
+    private String packageName(int module, String layer) {
+        return "com.example.m" + module + "." + layer;
+    }
+
+    public static void delete(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
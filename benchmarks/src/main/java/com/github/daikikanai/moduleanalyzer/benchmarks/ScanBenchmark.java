@@ -0,0 +1,43 @@
+package com.github.daikikanai.moduleanalyzer.benchmarks;
+
+import com.github.daikikanai.moduleanalyzer.index.ParallelScanner;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.index.SourceReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Scan throughput without the analysis cache: reading, parsing and indexing every file
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScanBenchmark {
+
+    // Reported by JMH as files per second next to the scans per second
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Files {
+        public long files;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            files = 0;
+        }
+    }
+
+    @Param({"1", "0"})
+    private int threads;
+
+    @Benchmark
+    public SourceIndex scan(GeneratedProject project, Files counter) throws IOException {
+        SourceIndex index = SourceIndex.scan(project.root, GeneratedProject.SEARCH_PATTERNS, null,
+                                             new ParallelScanner(threads), new SourceReader(StandardCharsets.UTF_8));
+        counter.files += index.getFiles().size();
+        return index;
+    }
+}
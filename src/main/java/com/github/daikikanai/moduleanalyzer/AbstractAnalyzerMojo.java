@@ -0,0 +1,337 @@
+package com.github.daikikanai.moduleanalyzer;
+
+import com.github.daikikanai.moduleanalyzer.bytecode.CompiledClasses;
+import com.github.daikikanai.moduleanalyzer.index.AnalysisCache;
+import com.github.daikikanai.moduleanalyzer.index.ParallelScanner;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.index.SourceReader;
+import com.github.daikikanai.moduleanalyzer.index.SourceTree;
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+import com.github.daikikanai.moduleanalyzer.reactor.SharedAnalysis;
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportFormat;
+import com.github.daikikanai.moduleanalyzer.report.ReportLog;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+public abstract class AbstractAnalyzerMojo extends AbstractMojo {
+
+    // Required by every goal but aggregate, which collects the roots of the whole reactor
+    @Parameter(property = "rootDir")
+    protected String rootDir;
+
+    @Parameter(property = "cache", defaultValue = "true")
+    private boolean cache;
+
+    @Parameter(property = "cacheDir", defaultValue = "${project.build.directory}/module-analyzer")
+    private File cacheDir;
+
+    // 0 uses one worker per available core
+    @Parameter(property = "threads", defaultValue = "0")
+    private int threads;
+
+    // Falls back to UTF-8 when the project does not declare an encoding
+    @Parameter(property = "sourceEncoding", defaultValue = "${project.build.sourceEncoding}")
+    private String sourceEncoding;
+
+    // text (build log), json or ndjson
+    @Parameter(property = "format", defaultValue = "text")
+    private String format;
+
+    // Report destination; without it text goes to the build log and json and ndjson to
+    // target/module-analyzer/<goal>.<format>, since standard output is shared with the build log
+    @Parameter(property = "outputFile")
+    private File outputFile;
+
+    @Parameter(defaultValue = "${project.build.directory}", readonly = true)
+    private File buildDirectory;
+
+    // Print phase times and counters at the end of the run
+    @Parameter(property = "metrics", defaultValue = "false")
+    private boolean metrics;
+
+    // Also write the metrics as JSON; implies metrics
+    @Parameter(property = "metricsFile")
+    private File metricsFile;
+
+    // Globs in .gitignore syntax: without a slash they match a name at any depth, otherwise the path below rootDir.
+    // Excluded directories are not entered at all; empty includes take every .java file.
+    @Parameter(property = "includes")
+    private String includes;
+
+    @Parameter(property = "excludes", defaultValue = ".git,node_modules")
+    private String excludes;
+
+    // Skip what the .gitignore files of rootDir and of the directories up to the repository root ignore
+    @Parameter(property = "useGitignore", defaultValue = "false")
+    private boolean useGitignore;
+
+    // Skip target next to a pom.xml and build next to a build.gradle(.kts) without walking them
+    @Parameter(property = "skipBuildOutput", defaultValue = "true")
+    private boolean skipBuildOutput;
+
+    // source, or bytecode to take each file's facts from its compiled class when it has an up-to-date one
+    @Parameter(property = "analysisSource", defaultValue = "source")
+    private String analysisSource;
+
+    // Class directories and jars read in bytecode mode, comma-separated
+    @Parameter(property = "classesDirectories", defaultValue = "${project.build.outputDirectory}")
+    private String classesDirectories;
+
+    // Reuse an index already scanned in this build (by aggregate or another project) for the same or an enclosing root
+    @Parameter(property = "shareAnalysis", defaultValue = "true")
+    private boolean shareAnalysis;
+
+    @Parameter(defaultValue = "${session}", readonly = true)
+    protected MavenSession session;
+
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
+
+    private AnalysisCache analysisCache;
+    // One pool for every root this execution scans
+    private ParallelScanner scanner;
+    // This execution's pool and those of the shared indexes it used, ended with the execution
+    private final Set<ParallelScanner> usedScanners = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean scannedSources;
+    private boolean metricsStarted;
+
+    protected Path resolveRootDir() throws MojoExecutionException {
+        if (rootDir == null || rootDir.trim().isEmpty()) {
+            throw new MojoExecutionException("The parameter rootDir is required");
+        }
+        Path root = Paths.get(rootDir);
+
+        if (!Files.exists(root) || !Files.isDirectory(root)) {
+            throw new MojoExecutionException("Root directory does not exist: " + rootDir);
+        }
+
+        return root;
+    }
+
+    protected SourceIndex scanIndex(Path root, List<String> searchPatterns) throws IOException, MojoExecutionException {
+        // One run per execution, however many roots it scans
+        if ((metrics || metricsFile != null) && !metricsStarted) {
+            Metrics.start(goalName());
+            metricsStarted = true;
+        }
+        Charset charset = resolveSourceEncoding();
+        SourceTree tree = resolveSourceTree(root);
+        CompiledClasses classes = openCompiledClasses();
+        try {
+            SharedAnalysis shared = sharesAnalysis() && session != null ? SharedAnalysis.of(session) : null;
+            if (shared == null) {
+                SourceIndex index = scanSources(tree, classes, searchPatterns, charset);
+                usedScanners.add(index.getScanner());
+                return index;
+            }
+            scannedSources = false;
+            SourceIndex index = shared.obtain(tree, classes, searchPatterns, () -> {
+                scannedSources = true;
+                return scanSources(tree, classes, searchPatterns, charset);
+            });
+            if (!scannedSources) {
+                getLog().info("Reusing the analysis of " + root + " from this build (" + index.getFiles().size() + " files)");
+            }
+            usedScanners.add(index.getScanner());
+            return index;
+        } finally {
+            // Classes are only read while scanning
+            if (classes != null) {
+                classes.close();
+            }
+        }
+    }
+
+    // Everything that decides which files are scanned and how, for keys of results derived from the scan
+    protected String scanSettings() {
+        return String.join("|", String.valueOf(includes), String.valueOf(excludes), String.valueOf(useGitignore),
+                           String.valueOf(skipBuildOutput),
+                           String.valueOf(sourceEncoding), String.valueOf(analysisSource),
+                           String.valueOf(classesDirectories));
+    }
+
+    // Executions that keep the index to themselves, like the daemon, scan on their own
+    protected boolean sharesAnalysis() {
+        return shareAnalysis;
+    }
+
+    protected SourceTree resolveSourceTree(Path root) throws IOException, MojoExecutionException {
+        try {
+            return new SourceTree(root, splitPatterns(includes), splitPatterns(excludes), useGitignore, skipBuildOutput);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException("Invalid includes or excludes: " + e.getMessage(), e);
+        }
+    }
+
+    private static List<String> splitPatterns(String patterns) {
+        List<String> patternList = new ArrayList<>();
+        if (patterns != null) {
+            for (String pattern : patterns.split(",")) {
+                if (!pattern.trim().isEmpty()) {
+                    patternList.add(pattern.trim());
+                }
+            }
+        }
+        return patternList;
+    }
+
+    // Null in source mode
+    private CompiledClasses openCompiledClasses() throws IOException, MojoExecutionException {
+        String source = analysisSource == null ? "source" : analysisSource.trim().toLowerCase();
+        if (source.equals("source")) {
+            return null;
+        }
+        if (!source.equals("bytecode")) {
+            throw new MojoExecutionException("Unknown analysisSource: " + analysisSource + " (expected source or bytecode)");
+        }
+
+        List<Path> locations = new ArrayList<>();
+        for (String location : splitPatterns(classesDirectories)) {
+            locations.add(Paths.get(location));
+        }
+        CompiledClasses classes = CompiledClasses.open(locations);
+        if (classes.size() == 0) {
+            getLog().warn("No compiled classes found in " + locations + "; analyzing sources");
+        }
+        return classes;
+    }
+
+    private SourceIndex scanSources(SourceTree tree, CompiledClasses classes, List<String> searchPatterns,
+                                    Charset charset) throws IOException {
+        Path root = tree.getRoot();
+        Path cacheFile = resolveCacheFile("index.cache");
+        if (cacheFile != null) {
+            analysisCache = AnalysisCache.load(cacheFile, getPluginVersion(), charset);
+        }
+
+        if (scanner == null) {
+            scanner = new ParallelScanner(threads);
+        }
+        SourceIndex index = SourceIndex.scan(tree, searchPatterns, analysisCache,
+                                             scanner, new SourceReader(charset), classes);
+
+        if (analysisCache != null) {
+            try {
+                analysisCache.save(root);
+            } catch (IOException e) {
+                getLog().warn("Failed to write analysis cache: " + analysisCache.getCacheFile());
+            }
+        }
+
+        return index;
+    }
+
+    protected ReportFormat resolveFormat() throws MojoExecutionException {
+        try {
+            return ReportFormat.parse(format);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+
+    protected RecordWriter openRecordWriter(String goal) throws IOException, MojoExecutionException {
+        ReportFormat format = resolveFormat();
+        Path file = outputFile != null ? outputFile.toPath()
+                    : (buildDirectory != null ? buildDirectory.toPath() : Paths.get("target"))
+                        .resolve("module-analyzer").resolve(goal + "." + format.name().toLowerCase(Locale.ROOT));
+        getLog().info("Writing the " + goal + " report to " + file);
+        return RecordWriter.open(format, goal, file);
+    }
+
+    // The build log for the reports, views and tracer, which are shared with the command line
+    protected AnalyzerLog analyzerLog() {
+        Log log = getLog();
+        return new AnalyzerLog() {
+            @Override
+            public void info(CharSequence content) {
+                log.info(content);
+            }
+
+            @Override
+            public void warn(CharSequence content) {
+                log.warn(content);
+            }
+
+            @Override
+            public void warn(CharSequence content, Throwable error) {
+                log.warn(content, error);
+            }
+        };
+    }
+
+    protected ReportLog openReportLog() throws IOException {
+        return ReportLog.open(analyzerLog(), outputFile != null ? outputFile.toPath() : null);
+    }
+
+    // Null when caching is disabled
+    protected Path resolveCacheFile(String name) {
+        if (!cache || cacheDir == null) {
+            return null;
+        }
+        return cacheDir.toPath().resolve(name);
+    }
+
+    protected String getPluginVersion() {
+        return pluginVersion != null ? pluginVersion : "unknown";
+    }
+
+    private Charset resolveSourceEncoding() throws MojoExecutionException {
+        if (sourceEncoding == null || sourceEncoding.trim().isEmpty()) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            return Charset.forName(sourceEncoding.trim());
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException("Unsupported source encoding: " + sourceEncoding, e);
+        }
+    }
+
+    // Cache hits, and the metrics when they were requested
+    protected void reportStatistics() {
+        if (analysisCache != null) {
+            getLog().info("Analysis cache: " + analysisCache.getHits() + " hits, "
+                          + analysisCache.getMisses() + " misses");
+        }
+
+        Metrics run = Metrics.stop();
+        if (run != null) {
+            run.report(analyzerLog());
+            if (metricsFile != null) {
+                try {
+                    run.writeJson(metricsFile.toPath());
+                } catch (IOException e) {
+                    getLog().warn("Failed to write metrics: " + metricsFile);
+                }
+            }
+        }
+    }
+
+    // Called in a finally of every goal. A shared index keeps its scanner for later executions,
+    // which start a new pool on it if they need one.
+    protected void closeScanners() {
+        for (ParallelScanner usedScanner : usedScanners) {
+            usedScanner.close();
+        }
+        usedScanners.clear();
+    }
+
+    // ListHttpRequestMojo -> list-http-request
+    private String goalName() {
+        String name = getClass().getSimpleName().replaceFirst("Mojo$", "");
+        return name.replaceAll("([a-z])([A-Z])", "$1-$2").toLowerCase();
+    }
+}
@@ -0,0 +1,840 @@
+package com.github.daikikanai.moduleanalyzer.bytecode;
+
+import com.github.daikikanai.moduleanalyzer.index.CallSite;
+import com.github.daikikanai.moduleanalyzer.index.FileFacts;
+import com.github.daikikanai.moduleanalyzer.index.MemberCall;
+
+import java.util.*;
+
+// The facts of one source file taken from its compiled classes (the top-level class and its nested classes).
+// Referenced classes come from the constant pools, so they are exact and never match comments or strings.
+// Method bodies are interpreted over a stack of symbolic values, which ties every call to the field or local
+// variable it is made on and to the string its URL argument evaluates to.
+public class BytecodeFacts {
+    private final List<String> searchPatterns;
+    private final Set<String> referencedClasses = new TreeSet<>();
+    private final Map<String, String> stringLiterals = new HashMap<>();
+    private final Map<String, String> constants = new LinkedHashMap<>();
+    private final Map<String, List<String>> fieldNamesByType = new HashMap<>();
+    private final Map<String, MemberCall> firstCallByReceiver = new HashMap<>();
+    private final Map<String, SortedMap<Integer, CallSite>> callSites = new LinkedHashMap<>();
+
+    private BytecodeFacts(List<String> searchPatterns) {
+        this.searchPatterns = searchPatterns;
+        for (String pattern : searchPatterns) {
+            callSites.put(pattern, new TreeMap<>());
+        }
+    }
+
+    // classes starts with the top-level class
+    public static FileFacts extract(List<ClassFile> classes, List<String> searchPatterns) {
+        BytecodeFacts facts = new BytecodeFacts(searchPatterns);
+        for (ClassFile classFile : classes) {
+            facts.addClass(classFile);
+        }
+
+        String topLevelName = classes.get(0).getName();
+        int lastDot = topLevelName.lastIndexOf('.');
+        String packageName = lastDot == -1 ? null : topLevelName.substring(0, lastDot);
+        facts.referencedClasses.remove(topLevelName);
+
+        Map<String, List<CallSite>> callSites = new LinkedHashMap<>();
+        for (Map.Entry<String, SortedMap<Integer, CallSite>> entry : facts.callSites.entrySet()) {
+            callSites.put(entry.getKey(), new ArrayList<>(entry.getValue().values()));
+        }
+
+        // Referenced classes are exact, so they are handed over as imports and no identifier is needed
+        return new FileFacts(packageName, new ArrayList<>(facts.referencedClasses), new HashSet<>(),
+                             facts.stringLiterals, facts.constants, facts.fieldNamesByType,
+                             facts.firstCallByReceiver, callSites);
+    }
+
+    private void addClass(ClassFile classFile) {
+        for (int i = 1; i < classFile.constantCount(); i++) {
+            switch (classFile.tagAt(i)) {
+                case ClassFile.CONSTANT_CLASS:
+                    String className = classFile.classNameAt(i);
+                    if (className.startsWith("[")) {
+                        addTypes(className.replace('.', '/'));
+                    } else {
+                        addClassName(className);
+                    }
+                    break;
+                case ClassFile.CONSTANT_NAME_AND_TYPE:
+                case ClassFile.CONSTANT_METHOD_TYPE:
+                    addTypes(classFile.descriptorAt(i));
+                    break;
+                default:
+                    break;
+            }
+        }
+        for (String signature : classFile.getSignatures()) {
+            addTypes(signature);
+        }
+
+        Map<String, String> fieldLiterals = new HashMap<>();
+        for (ClassFile.Field field : classFile.getFields()) {
+            addTypes(field.descriptor);
+            if (field.descriptor.startsWith("L")) {
+                String typeName = field.descriptor.substring(1, field.descriptor.length() - 1);
+                String simpleName = typeName.substring(Math.max(typeName.lastIndexOf('/'), typeName.lastIndexOf('$')) + 1);
+                fieldNamesByType.computeIfAbsent(simpleName, k -> new ArrayList<>()).add(field.name);
+            }
+            if (field.constantValue != null) {
+                fieldLiterals.put(field.name, field.constantValue);
+            }
+        }
+
+        // Initializers first, so fields they assign are known when other methods read them
+        List<ClassFile.Method> methods = new ArrayList<>(classFile.getMethods());
+        methods.sort(Comparator.comparingInt(method -> isInitializer(method) ? 0 : 1));
+        for (ClassFile.Method method : methods) {
+            addTypes(method.descriptor);
+            new Interpreter(classFile, method, fieldLiterals).run();
+        }
+
+        for (ClassFile.Field field : classFile.getFields()) {
+            String literal = fieldLiterals.get(field.name);
+            if (literal != null) {
+                stringLiterals.putIfAbsent(field.name, literal);
+                boolean isStatic = (field.access & ClassFile.ACC_STATIC) != 0;
+                if (isStatic && field.descriptor.equals("Ljava/lang/String;")) {
+                    constants.putIfAbsent(field.name, quote(literal));
+                }
+            }
+        }
+    }
+
+    private static boolean isInitializer(ClassFile.Method method) {
+        return method.name.equals("<clinit>") || method.name.equals("<init>");
+    }
+
+    // Class names in a descriptor or generic signature: Lcom/example/Type; and Lcom/example/Box<Lcom/example/Item;>;
+    private void addTypes(String descriptor) {
+        int i = 0;
+        while (i < descriptor.length()) {
+            char c = descriptor.charAt(i);
+            if (c == 'L') {
+                int end = i + 1;
+                while (end < descriptor.length() && ";<.:".indexOf(descriptor.charAt(end)) == -1) {
+                    end++;
+                }
+                addClassName(descriptor.substring(i + 1, end).replace('/', '.'));
+                i = end;
+            } else if (c == 'T') {
+                // Type variable
+                int end = descriptor.indexOf(';', i);
+                i = end == -1 ? descriptor.length() : end + 1;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    // Nested classes count as their top-level class, which is what source files declare
+    private void addClassName(String className) {
+        if (className.isEmpty() || className.startsWith("java.")) {
+            return;
+        }
+        int lastDot = className.lastIndexOf('.');
+        int nested = className.indexOf('$', lastDot + 1);
+        referencedClasses.add(nested > 0 ? className.substring(0, nested) : className);
+    }
+
+    // The name a source file would call the method by: constructors by the class name, lambdas by their enclosing method
+    private static String sourceMethodName(ClassFile classFile, ClassFile.Method method) {
+        if (method.name.equals("<init>")) {
+            return simpleName(classFile.getName());
+        }
+        if (method.name.startsWith("lambda$")) {
+            int end = method.name.indexOf('$', 7);
+            return end == -1 ? null : method.name.substring(7, end);
+        }
+        if (method.name.equals("<clinit>") || (method.access & ClassFile.ACC_SYNTHETIC) != 0) {
+            return null;
+        }
+        return method.name;
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(Math.max(className.lastIndexOf('.'), className.lastIndexOf('$')) + 1);
+    }
+
+    static String quote(String literal) {
+        return "\"" + literal + "\"";
+    }
+
+    // A stack slot: a known string, a named field or variable, a concatenation, or nothing known
+    private static class Value {
+        static final Value UNKNOWN = new Value(null, null, null);
+
+        final String literal;
+        final String name;
+        final String expression;
+        // Parts appended so far when the value is a StringBuilder
+        List<Value> builderParts;
+
+        Value(String literal, String name, String expression) {
+            this.literal = literal;
+            this.name = name;
+            this.expression = expression;
+        }
+
+        static Value literal(String literal) {
+            return new Value(literal, null, null);
+        }
+
+        static Value named(String name, String literal) {
+            return new Value(literal, name, null);
+        }
+
+        // As a URL argument: the string when known, otherwise the expression the URL resolver understands
+        String urlExpression() {
+            if (literal != null) {
+                return quote(literal);
+            }
+            if (name != null) {
+                return name;
+            }
+            return expression;
+        }
+
+        // As written in the source line
+        String sourceText() {
+            if (name != null) {
+                return name;
+            }
+            if (literal != null) {
+                return quote(literal);
+            }
+            return expression != null ? expression : "...";
+        }
+
+        static Value concatenation(List<Value> parts) {
+            StringBuilder literal = new StringBuilder();
+            List<String> expressions = new ArrayList<>();
+            boolean known = true;
+            for (Value part : parts) {
+                String text = part.urlExpression();
+                if (part.literal != null) {
+                    literal.append(part.literal);
+                } else {
+                    known = false;
+                }
+                expressions.add(text != null ? text : "...");
+            }
+            return known ? literal(literal.toString()) : new Value(null, null, String.join(" + ", expressions));
+        }
+    }
+
+    // One pass over the instructions in code order. A jump hands its stack to the jump target, which
+    // continues from it when it cannot be reached by falling through (the else branch of a ?: expression).
+    // Other code after a goto, return or throw starts with an empty stack, handlers with the exception.
+    private class Interpreter {
+        private final ClassFile classFile;
+        private final ClassFile.Method method;
+        private final Map<String, String> fieldLiterals;
+        private final String methodName;
+        private final byte[] code;
+        private Value[] stack = new Value[16];
+        private int size;
+        private final Map<Integer, Value> locals = new HashMap<>();
+        private final Map<Integer, Value[]> jumpStacks = new HashMap<>();
+        private boolean fallsThrough = true;
+
+        Interpreter(ClassFile classFile, ClassFile.Method method, Map<String, String> fieldLiterals) {
+            this.classFile = classFile;
+            this.method = method;
+            this.fieldLiterals = fieldLiterals;
+            this.methodName = sourceMethodName(classFile, method);
+            this.code = method.code;
+        }
+
+        void run() {
+            int pc = 0;
+            while (pc < code.length) {
+                if (Arrays.binarySearch(method.handlerPcs, pc) >= 0) {
+                    size = 0;
+                    push(Value.UNKNOWN);
+                } else if (!fallsThrough) {
+                    Value[] jumpStack = jumpStacks.get(pc);
+                    size = 0;
+                    if (jumpStack != null) {
+                        for (Value value : jumpStack) {
+                            push(value);
+                        }
+                    }
+                }
+                fallsThrough = true;
+                pc = step(pc);
+            }
+        }
+
+        // Executes the instruction at pc and returns the pc of the next one
+        private int step(int pc) {
+            int opcode = code[pc] & 0xFF;
+            switch (opcode) {
+                case 0x12: // ldc
+                    return loadConstant(code[pc + 1] & 0xFF, pc + 2);
+                case 0x13: // ldc_w
+                    return loadConstant(u2(pc + 1), pc + 3);
+                case 0x14: // ldc2_w
+                    push(Value.UNKNOWN, 2);
+                    return pc + 3;
+                case 0x19: // aload
+                    load(code[pc + 1] & 0xFF, pc);
+                    return pc + 2;
+                case 0x2A: case 0x2B: case 0x2C: case 0x2D: // aload_<n>
+                    load(opcode - 0x2A, pc);
+                    return pc + 1;
+                case 0x3A: // astore
+                    store(code[pc + 1] & 0xFF, pc + 2);
+                    return pc + 2;
+                case 0x4B: case 0x4C: case 0x4D: case 0x4E: // astore_<n>
+                    store(opcode - 0x4B, pc + 1);
+                    return pc + 1;
+                case 0x36: case 0x37: case 0x38: case 0x39: // istore, lstore, fstore, dstore
+                    locals.remove(code[pc + 1] & 0xFF);
+                    pop(opcode == 0x37 || opcode == 0x39 ? 2 : 1);
+                    return pc + 2;
+                case 0x59: // dup
+                    Value top = pop();
+                    push(top);
+                    push(top);
+                    return pc + 1;
+                case 0x5A: { // dup_x1
+                    Value v1 = pop();
+                    Value v2 = pop();
+                    push(v1);
+                    push(v2);
+                    push(v1);
+                    return pc + 1;
+                }
+                case 0x5B: { // dup_x2
+                    Value v1 = pop();
+                    Value v2 = pop();
+                    Value v3 = pop();
+                    push(v1);
+                    push(v3);
+                    push(v2);
+                    push(v1);
+                    return pc + 1;
+                }
+                case 0x5C: { // dup2
+                    Value v1 = pop();
+                    Value v2 = pop();
+                    push(v2);
+                    push(v1);
+                    push(v2);
+                    push(v1);
+                    return pc + 1;
+                }
+                case 0x5D: { // dup2_x1
+                    Value v1 = pop();
+                    Value v2 = pop();
+                    Value v3 = pop();
+                    push(v2);
+                    push(v1);
+                    push(v3);
+                    push(v2);
+                    push(v1);
+                    return pc + 1;
+                }
+                case 0x5E: { // dup2_x2
+                    Value v1 = pop();
+                    Value v2 = pop();
+                    Value v3 = pop();
+                    Value v4 = pop();
+                    push(v2);
+                    push(v1);
+                    push(v4);
+                    push(v3);
+                    push(v2);
+                    push(v1);
+                    return pc + 1;
+                }
+                case 0x5F: { // swap
+                    Value v1 = pop();
+                    Value v2 = pop();
+                    push(v1);
+                    push(v2);
+                    return pc + 1;
+                }
+                case 0x84: // iinc
+                    return pc + 3;
+                case 0xA7: // goto
+                    jumpTo(pc + s2(pc + 1));
+                    fallsThrough = false;
+                    return pc + 3;
+                case 0xC8: // goto_w
+                    jumpTo(pc + s4(pc + 1));
+                    fallsThrough = false;
+                    return pc + 5;
+                case 0xA9: // ret
+                    fallsThrough = false;
+                    return pc + 2;
+                case 0xAC: case 0xAD: case 0xAE: case 0xAF: case 0xB0: case 0xB1: // returns
+                case 0xBF: // athrow
+                    fallsThrough = false;
+                    return pc + 1;
+                case 0x01: // aconst_null
+                    push(new Value(null, null, "null"));
+                    return pc + 1;
+                case 0xAA: // tableswitch
+                    return tableSwitch(pc);
+                case 0xAB: // lookupswitch
+                    return lookupSwitch(pc);
+                case 0xB2: // getstatic
+                case 0xB4: // getfield
+                    getField(u2(pc + 1), opcode == 0xB4);
+                    return pc + 3;
+                case 0xB3: // putstatic
+                case 0xB5: // putfield
+                    putField(u2(pc + 1), opcode == 0xB5);
+                    return pc + 3;
+                case 0xB6: // invokevirtual
+                case 0xB7: // invokespecial
+                    invoke(u2(pc + 1), true, pc);
+                    return pc + 3;
+                case 0xB8: // invokestatic
+                    invoke(u2(pc + 1), false, pc);
+                    return pc + 3;
+                case 0xB9: // invokeinterface
+                    invoke(u2(pc + 1), true, pc);
+                    return pc + 5;
+                case 0xBA: // invokedynamic
+                    invokeDynamic(u2(pc + 1));
+                    return pc + 5;
+                case 0xBB: { // new
+                    String className = classFile.classNameAt(u2(pc + 1));
+                    Value object = new Value(null, null, null);
+                    if (className.equals("java.lang.StringBuilder") || className.equals("java.lang.StringBuffer")) {
+                        object.builderParts = new ArrayList<>();
+                    }
+                    push(object);
+                    return pc + 3;
+                }
+                case 0xC0: // checkcast keeps the value
+                    return pc + 3;
+                case 0xC5: // multianewarray
+                    pop(code[pc + 3] & 0xFF);
+                    push(Value.UNKNOWN);
+                    return pc + 4;
+                case 0xC4: // wide
+                    return wide(pc);
+                default:
+                    return simple(opcode, pc);
+            }
+        }
+
+        // Instructions that only pop and push values the analysis does not follow
+        private int simple(int opcode, int pc) {
+            int[] effect = EFFECTS[opcode];
+            if (effect == null) {
+                // Unknown opcode: nothing after it can be trusted
+                return code.length;
+            }
+            pop(effect[0]);
+            push(Value.UNKNOWN, effect[1]);
+            if ((opcode >= 0x99 && opcode <= 0xA6) || opcode == 0xC6 || opcode == 0xC7) {
+                jumpTo(pc + s2(pc + 1));
+            }
+            return pc + effect[2];
+        }
+
+        // The first stack to arrive at a target is the one it continues with
+        private void jumpTo(int target) {
+            jumpStacks.putIfAbsent(target, Arrays.copyOf(stack, size));
+        }
+
+        private int tableSwitch(int pc) {
+            pop(1);
+            int base = pc + 4 - (pc % 4);
+            int low = s4(base + 4);
+            int high = s4(base + 8);
+            jumpTo(pc + s4(base));
+            for (int i = 0; i < high - low + 1; i++) {
+                jumpTo(pc + s4(base + 12 + 4 * i));
+            }
+            fallsThrough = false;
+            return base + 12 + 4 * (high - low + 1);
+        }
+
+        private int lookupSwitch(int pc) {
+            pop(1);
+            int base = pc + 4 - (pc % 4);
+            int pairs = s4(base + 4);
+            jumpTo(pc + s4(base));
+            for (int i = 0; i < pairs; i++) {
+                jumpTo(pc + s4(base + 12 + 8 * i));
+            }
+            fallsThrough = false;
+            return base + 8 + 8 * pairs;
+        }
+
+        private int wide(int pc) {
+            int opcode = code[pc + 1] & 0xFF;
+            int slot = u2(pc + 2);
+            if (opcode == 0x84) {
+                return pc + 6;
+            }
+            if (opcode == 0x19) {
+                load(slot, pc);
+            } else if (opcode == 0x3A) {
+                store(slot, pc + 4);
+            } else if (opcode >= 0x15 && opcode <= 0x18) {
+                push(Value.UNKNOWN, opcode == 0x16 || opcode == 0x18 ? 2 : 1);
+            } else if (opcode >= 0x36 && opcode <= 0x39) {
+                locals.remove(slot);
+                pop(opcode == 0x37 || opcode == 0x39 ? 2 : 1);
+            }
+            return pc + 4;
+        }
+
+        private int loadConstant(int index, int next) {
+            push(classFile.tagAt(index) == ClassFile.CONSTANT_STRING ? Value.literal(classFile.stringAt(index)) : Value.UNKNOWN);
+            return next;
+        }
+
+        private void load(int slot, int pc) {
+            Value stored = locals.get(slot);
+            String name = method.localName(slot, pc);
+            if (slot == 0 && (method.access & ClassFile.ACC_STATIC) == 0) {
+                name = "this";
+            }
+            if (name == null) {
+                push(stored != null ? stored : Value.UNKNOWN);
+            } else {
+                push(stored != null && stored.builderParts != null ? stored
+                     : Value.named(name, stored != null ? stored.literal : null));
+            }
+        }
+
+        // A local's name is known from the instruction after the store, where its scope starts
+        private void store(int slot, int next) {
+            Value value = pop();
+            locals.put(slot, value);
+            String name = method.localName(slot, next);
+            if (name != null && value.literal != null) {
+                stringLiterals.putIfAbsent(name, value.literal);
+            }
+        }
+
+        private void getField(int index, boolean instance) {
+            if (instance) {
+                pop();
+            }
+            String owner = classFile.memberOwnerAt(index);
+            String fieldName = classFile.memberNameAt(index);
+            String descriptor = classFile.memberDescriptorAt(index);
+            if (owner.equals(classFile.getName())) {
+                push(Value.named(fieldName, fieldLiterals.get(fieldName)));
+            } else if (!instance) {
+                // Another class's static field, written as ConstantTable resolves it: Type.NAME
+                push(new Value(null, null, simpleName(owner) + "." + fieldName));
+            } else {
+                push(Value.named(fieldName, null));
+            }
+            if (isWide(descriptor)) {
+                push(Value.UNKNOWN);
+            }
+        }
+
+        private void putField(int index, boolean instance) {
+            String descriptor = classFile.memberDescriptorAt(index);
+            Value value = pop();
+            if (isWide(descriptor)) {
+                pop();
+            }
+            if (instance) {
+                pop();
+            }
+            String fieldName = classFile.memberNameAt(index);
+            if (classFile.memberOwnerAt(index).equals(classFile.getName())) {
+                if (value.literal != null) {
+                    fieldLiterals.putIfAbsent(fieldName, value.literal);
+                } else if (!instance && value.expression != null && descriptor.equals("Ljava/lang/String;")) {
+                    constants.putIfAbsent(fieldName, value.expression);
+                }
+            }
+        }
+
+        private void invoke(int index, boolean hasReceiver, int pc) {
+            String owner = classFile.memberOwnerAt(index);
+            String name = classFile.memberNameAt(index);
+            String descriptor = classFile.memberDescriptorAt(index);
+
+            List<Value> arguments = popArguments(descriptor);
+            Value receiver = hasReceiver ? pop() : null;
+            boolean stringBuilder = owner.equals("java.lang.StringBuilder") || owner.equals("java.lang.StringBuffer");
+
+            if (receiver != null && receiver.builderParts != null && stringBuilder) {
+                if (name.equals("<init>")) {
+                    if (descriptor.startsWith("(Ljava/lang/String;") || descriptor.startsWith("(Ljava/lang/CharSequence;")) {
+                        receiver.builderParts.addAll(arguments);
+                    }
+                    return;
+                }
+                if (name.equals("append") && arguments.size() == 1) {
+                    receiver.builderParts.add(arguments.get(0));
+                    push(receiver);
+                    return;
+                }
+                if (name.equals("toString")) {
+                    push(Value.concatenation(receiver.builderParts));
+                    return;
+                }
+            }
+
+            recordCall(owner, name, receiver, arguments, pc);
+            pushReturn(descriptor);
+        }
+
+        private void invokeDynamic(int index) {
+            String name = classFile.dynamicNameAt(index);
+            String descriptor = classFile.dynamicDescriptorAt(index);
+            List<Value> arguments = popArguments(descriptor);
+
+            if (name.equals("makeConcatWithConstants")) {
+                int[] bootstrapArguments = classFile.dynamicBootstrapArgumentsAt(index);
+                if (bootstrapArguments.length > 0 && classFile.tagAt(bootstrapArguments[0]) == ClassFile.CONSTANT_STRING) {
+                    push(concatenate(classFile.stringAt(bootstrapArguments[0]), arguments, bootstrapArguments));
+                    return;
+                }
+            } else if (name.equals("makeConcat")) {
+                push(Value.concatenation(arguments));
+                return;
+            }
+            pushReturn(descriptor);
+        }
+
+        // \u0001 stands for the next argument, \u0002 for the next bootstrap constant
+        private Value concatenate(String recipe, List<Value> arguments, int[] bootstrapArguments) {
+            List<Value> parts = new ArrayList<>();
+            StringBuilder text = new StringBuilder();
+            int argument = 0;
+            int constant = 1;
+            for (int i = 0; i < recipe.length(); i++) {
+                char c = recipe.charAt(i);
+                if (c == '\u0001' || c == '\u0002') {
+                    if (text.length() > 0) {
+                        parts.add(Value.literal(text.toString()));
+                        text.setLength(0);
+                    }
+                    if (c == '\u0001') {
+                        parts.add(argument < arguments.size() ? arguments.get(argument++) : Value.UNKNOWN);
+                    } else {
+                        int index = constant < bootstrapArguments.length ? bootstrapArguments[constant++] : 0;
+                        parts.add(index != 0 && classFile.tagAt(index) == ClassFile.CONSTANT_STRING
+                                  ? Value.literal(classFile.stringAt(index)) : Value.UNKNOWN);
+                    }
+                } else {
+                    text.append(c);
+                }
+            }
+            if (text.length() > 0) {
+                parts.add(Value.literal(text.toString()));
+            }
+            return Value.concatenation(parts);
+        }
+
+        private void recordCall(String owner, String name, Value receiver, List<Value> arguments, int pc) {
+            if (methodName == null || name.startsWith("<")) {
+                return;
+            }
+            int line = method.lineAt(pc);
+            // Static calls are written Type.method(
+            String receiverName = receiver != null ? receiver.name : simpleName(owner);
+            if (receiverName == null || receiverName.equals("this")) {
+                return;
+            }
+
+            MemberCall first = firstCallByReceiver.get(receiverName);
+            if (first == null || line < first.getLineNumber()) {
+                firstCallByReceiver.put(receiverName, new MemberCall(line, methodName));
+            }
+
+            String call = receiverName + "." + name;
+            for (String pattern : searchPatterns) {
+                if (!pattern.equalsIgnoreCase(call)) {
+                    continue;
+                }
+                // A line with several calls is one call site, as in the source
+                SortedMap<Integer, CallSite> sites = callSites.get(pattern);
+                if (sites.containsKey(line)) {
+                    continue;
+                }
+                List<String> texts = new ArrayList<>();
+                for (Value argument : arguments) {
+                    texts.add(argument.sourceText());
+                }
+                String lineContent = call + "(" + String.join(", ", texts) + ");";
+                String urlExpression = arguments.isEmpty() || arguments.get(0).urlExpression() == null
+                    ? "" : arguments.get(0).urlExpression();
+                sites.put(line, new CallSite(pattern, line, lineContent, methodName, urlExpression));
+            }
+        }
+
+        // One value per argument, in declaration order; long and double arguments take two slots
+        private List<Value> popArguments(String descriptor) {
+            List<Boolean> wide = new ArrayList<>();
+            int i = 1;
+            while (descriptor.charAt(i) != ')') {
+                char c = descriptor.charAt(i);
+                wide.add(c == 'J' || c == 'D');
+                while (descriptor.charAt(i) == '[') {
+                    i++;
+                }
+                if (descriptor.charAt(i) == 'L') {
+                    i = descriptor.indexOf(';', i);
+                }
+                i++;
+            }
+            Value[] arguments = new Value[wide.size()];
+            for (int a = arguments.length - 1; a >= 0; a--) {
+                if (wide.get(a)) {
+                    pop();
+                }
+                arguments[a] = pop();
+            }
+            return Arrays.asList(arguments);
+        }
+
+        private void pushReturn(String descriptor) {
+            char returnType = descriptor.charAt(descriptor.indexOf(')') + 1);
+            if (returnType != 'V') {
+                push(Value.UNKNOWN, returnType == 'J' || returnType == 'D' ? 2 : 1);
+            }
+        }
+
+        private boolean isWide(String descriptor) {
+            return descriptor.equals("J") || descriptor.equals("D");
+        }
+
+        private void push(Value value) {
+            if (size == stack.length) {
+                stack = Arrays.copyOf(stack, size * 2);
+            }
+            stack[size++] = value;
+        }
+
+        private void push(Value value, int count) {
+            for (int i = 0; i < count; i++) {
+                push(value);
+            }
+        }
+
+        // An empty stack yields unknown values: code reached by a jump may expect values left by the jump source
+        private Value pop() {
+            return size > 0 ? stack[--size] : Value.UNKNOWN;
+        }
+
+        private void pop(int count) {
+            for (int i = 0; i < count; i++) {
+                pop();
+            }
+        }
+
+        private int u2(int offset) {
+            return ((code[offset] & 0xFF) << 8) | (code[offset + 1] & 0xFF);
+        }
+
+        private int s2(int offset) {
+            return (short) u2(offset);
+        }
+
+        private int s4(int offset) {
+            return ((code[offset] & 0xFF) << 24) | ((code[offset + 1] & 0xFF) << 16)
+                   | ((code[offset + 2] & 0xFF) << 8) | (code[offset + 3] & 0xFF);
+        }
+    }
+
+    // Slots popped, slots pushed and instruction length of every instruction without special handling
+    private static final int[][] EFFECTS = new int[256][];
+
+    static {
+        effect(0x00, 0, 0, 1);                      // nop
+        range(0x02, 0x08, 0, 1, 1);                 // iconst_<i>
+        range(0x09, 0x0A, 0, 2, 1);                 // lconst_<l>
+        range(0x0B, 0x0D, 0, 1, 1);                 // fconst_<f>
+        range(0x0E, 0x0F, 0, 2, 1);                 // dconst_<d>
+        effect(0x10, 0, 1, 2);                      // bipush
+        effect(0x11, 0, 1, 3);                      // sipush
+        effect(0x15, 0, 1, 2);                      // iload
+        effect(0x16, 0, 2, 2);                      // lload
+        effect(0x17, 0, 1, 2);                      // fload
+        effect(0x18, 0, 2, 2);                      // dload
+        range(0x1A, 0x1D, 0, 1, 1);                 // iload_<n>
+        range(0x1E, 0x21, 0, 2, 1);                 // lload_<n>
+        range(0x22, 0x25, 0, 1, 1);                 // fload_<n>
+        range(0x26, 0x29, 0, 2, 1);                 // dload_<n>
+        effect(0x2E, 2, 1, 1);                      // iaload
+        effect(0x2F, 2, 2, 1);                      // laload
+        effect(0x30, 2, 1, 1);                      // faload
+        effect(0x31, 2, 2, 1);                      // daload
+        range(0x32, 0x35, 2, 1, 1);                 // aaload, baload, caload, saload
+        range(0x3B, 0x3E, 1, 0, 1);                 // istore_<n>
+        range(0x3F, 0x42, 2, 0, 1);                 // lstore_<n>
+        range(0x43, 0x46, 1, 0, 1);                 // fstore_<n>
+        range(0x47, 0x4A, 2, 0, 1);                 // dstore_<n>
+        effect(0x4F, 3, 0, 1);                      // iastore
+        effect(0x50, 4, 0, 1);                      // lastore
+        effect(0x51, 3, 0, 1);                      // fastore
+        effect(0x52, 4, 0, 1);                      // dastore
+        range(0x53, 0x56, 3, 0, 1);                 // aastore, bastore, castore, sastore
+        effect(0x57, 1, 0, 1);                      // pop
+        effect(0x58, 2, 0, 1);                      // pop2
+        for (int op = 0x60; op <= 0x73; op++) {      // add, sub, mul, div, rem
+            boolean wide = (op - 0x60) % 2 == 1;
+            effect(op, wide ? 4 : 2, wide ? 2 : 1, 1);
+        }
+        effect(0x74, 1, 1, 1);                      // ineg
+        effect(0x75, 2, 2, 1);                      // lneg
+        effect(0x76, 1, 1, 1);                      // fneg
+        effect(0x77, 2, 2, 1);                      // dneg
+        for (int op = 0x78; op <= 0x7D; op++) {      // shifts
+            boolean wide = (op - 0x78) % 2 == 1;
+            effect(op, wide ? 3 : 2, wide ? 2 : 1, 1);
+        }
+        for (int op = 0x7E; op <= 0x83; op++) {      // and, or, xor
+            boolean wide = (op - 0x7E) % 2 == 1;
+            effect(op, wide ? 4 : 2, wide ? 2 : 1, 1);
+        }
+        effect(0x85, 1, 2, 1);                      // i2l
+        effect(0x86, 1, 1, 1);                      // i2f
+        effect(0x87, 1, 2, 1);                      // i2d
+        effect(0x88, 2, 1, 1);                      // l2i
+        effect(0x89, 2, 1, 1);                      // l2f
+        effect(0x8A, 2, 2, 1);                      // l2d
+        effect(0x8B, 1, 1, 1);                      // f2i
+        effect(0x8C, 1, 2, 1);                      // f2l
+        effect(0x8D, 1, 2, 1);                      // f2d
+        effect(0x8E, 2, 1, 1);                      // d2i
+        effect(0x8F, 2, 2, 1);                      // d2l
+        effect(0x90, 2, 1, 1);                      // d2f
+        range(0x91, 0x93, 1, 1, 1);                 // i2b, i2c, i2s
+        effect(0x94, 4, 1, 1);                      // lcmp
+        range(0x95, 0x96, 2, 1, 1);                 // fcmpl, fcmpg
+        range(0x97, 0x98, 4, 1, 1);                 // dcmpl, dcmpg
+        range(0x99, 0x9E, 1, 0, 3);                 // if<cond>
+        range(0x9F, 0xA6, 2, 0, 3);                 // if_icmp<cond>, if_acmp<cond>
+        effect(0xA8, 0, 1, 3);                      // jsr
+        effect(0xBC, 1, 1, 2);                      // newarray
+        effect(0xBD, 1, 1, 3);                      // anewarray
+        effect(0xBE, 1, 1, 1);                      // arraylength
+        effect(0xC1, 1, 1, 3);                      // instanceof
+        range(0xC2, 0xC3, 1, 0, 1);                 // monitorenter, monitorexit
+        range(0xC6, 0xC7, 1, 0, 3);                 // ifnull, ifnonnull
+        effect(0xC9, 0, 1, 5);                      // jsr_w
+    }
+
+    private static void effect(int opcode, int pops, int pushes, int length) {
+        EFFECTS[opcode] = new int[] {pops, pushes, length};
+    }
+
+    private static void range(int first, int last, int pops, int pushes, int length) {
+        for (int opcode = first; opcode <= last; opcode++) {
+            effect(opcode, pops, pushes, length);
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.github.daikikanai.moduleanalyzer.bytecode;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// The parts of a class file that analysis needs: constant pool, fields with their constant values and
+// the code, line numbers and local variable names of every method. Everything else is skipped by length.
+public class ClassFile {
+    static final int CONSTANT_UTF8 = 1;
+    static final int CONSTANT_INTEGER = 3;
+    static final int CONSTANT_FLOAT = 4;
+    static final int CONSTANT_LONG = 5;
+    static final int CONSTANT_DOUBLE = 6;
+    static final int CONSTANT_CLASS = 7;
+    static final int CONSTANT_STRING = 8;
+    static final int CONSTANT_FIELDREF = 9;
+    static final int CONSTANT_METHODREF = 10;
+    static final int CONSTANT_INTERFACE_METHODREF = 11;
+    static final int CONSTANT_NAME_AND_TYPE = 12;
+    static final int CONSTANT_METHOD_HANDLE = 15;
+    static final int CONSTANT_METHOD_TYPE = 16;
+    static final int CONSTANT_DYNAMIC = 17;
+    static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    static final int CONSTANT_MODULE = 19;
+    static final int CONSTANT_PACKAGE = 20;
+
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_SYNTHETIC = 0x1000;
+
+    public static class Field {
+        final int access;
+        final String name;
+        final String descriptor;
+        // Strings only; other constant values do not matter for analysis
+        final String constantValue;
+
+        Field(int access, String name, String descriptor, String constantValue) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.constantValue = constantValue;
+        }
+    }
+
+    public static class Method {
+        final int access;
+        final String name;
+        final String descriptor;
+        final byte[] code;
+        final int[] handlerPcs;
+        // Sorted by start pc
+        final int[] lineStartPcs;
+        final int[] lines;
+        final List<LocalVariable> localVariables;
+
+        Method(int access, String name, String descriptor, byte[] code, int[] handlerPcs,
+               int[] lineStartPcs, int[] lines, List<LocalVariable> localVariables) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.code = code;
+            this.handlerPcs = handlerPcs;
+            this.lineStartPcs = lineStartPcs;
+            this.lines = lines;
+            this.localVariables = localVariables;
+        }
+
+        // 0 when the class was compiled without line numbers
+        int lineAt(int pc) {
+            int index = Arrays.binarySearch(lineStartPcs, pc);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            return index >= 0 ? lines[index] : 0;
+        }
+
+        // Null when the class was compiled without local variable names
+        String localName(int slot, int pc) {
+            for (LocalVariable variable : localVariables) {
+                if (variable.slot == slot && pc >= variable.startPc && pc <= variable.startPc + variable.length) {
+                    return variable.name;
+                }
+            }
+            return null;
+        }
+    }
+
+    static class LocalVariable {
+        final int startPc;
+        final int length;
+        final String name;
+        final int slot;
+
+        LocalVariable(int startPc, int length, String name, int slot) {
+            this.startPc = startPc;
+            this.length = length;
+            this.name = name;
+            this.slot = slot;
+        }
+    }
+
+    private final int[] tags;
+    // Constant pool entries: offsets of each entry's payload in the class bytes
+    private final int[] offsets;
+    private final String[] utf8;
+    private final byte[] bytes;
+    private final String name;
+    private final String superName;
+    private final List<Field> fields;
+    private final List<Method> methods;
+    private final List<String> signatures;
+    // Bootstrap method arguments (constant pool indexes) by bootstrap index
+    private final int[][] bootstrapArguments;
+
+    private ClassFile(byte[] bytes, int[] tags, int[] offsets, String[] utf8, String name, String superName,
+                      List<Field> fields, List<Method> methods, List<String> signatures, int[][] bootstrapArguments) {
+        this.bytes = bytes;
+        this.tags = tags;
+        this.offsets = offsets;
+        this.utf8 = utf8;
+        this.name = name;
+        this.superName = superName;
+        this.fields = fields;
+        this.methods = methods;
+        this.signatures = signatures;
+        this.bootstrapArguments = bootstrapArguments;
+    }
+
+    public static ClassFile read(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (in.getInt() != 0xCAFEBABE) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+        in.getShort();
+        in.getShort();
+
+        int count = in.getShort() & 0xFFFF;
+        int[] tags = new int[count];
+        int[] offsets = new int[count];
+        String[] utf8 = new String[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.get() & 0xFF;
+            tags[i] = tag;
+            offsets[i] = in.position();
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    int length = in.getShort() & 0xFFFF;
+                    utf8[i] = decodeUtf8(bytes, in.position(), length);
+                    in.position(in.position() + length);
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    in.position(in.position() + 8);
+                    // Eight-byte constants take two entries
+                    i++;
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    in.position(in.position() + 4);
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    in.position(in.position() + 3);
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    in.position(in.position() + 2);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        in.getShort();
+        int thisClass = in.getShort() & 0xFFFF;
+        int superClass = in.getShort() & 0xFFFF;
+        int interfaceCount = in.getShort() & 0xFFFF;
+        in.position(in.position() + 2 * interfaceCount);
+
+        ClassFile partial = new ClassFile(bytes, tags, offsets, utf8, null, null, null, null, null, null);
+        List<String> signatures = new ArrayList<>();
+
+        List<Field> fields = new ArrayList<>();
+        int fieldCount = in.getShort() & 0xFFFF;
+        for (int f = 0; f < fieldCount; f++) {
+            int access = in.getShort() & 0xFFFF;
+            String fieldName = utf8[in.getShort() & 0xFFFF];
+            String descriptor = utf8[in.getShort() & 0xFFFF];
+            String constantValue = null;
+            int attributeCount = in.getShort() & 0xFFFF;
+            for (int a = 0; a < attributeCount; a++) {
+                String attribute = utf8[in.getShort() & 0xFFFF];
+                int length = in.getInt();
+                int end = in.position() + length;
+                if (attribute.equals("ConstantValue")) {
+                    int index = in.getShort() & 0xFFFF;
+                    if (tags[index] == CONSTANT_STRING) {
+                        constantValue = partial.stringAt(index);
+                    }
+                } else if (attribute.equals("Signature")) {
+                    signatures.add(utf8[in.getShort() & 0xFFFF]);
+                }
+                in.position(end);
+            }
+            fields.add(new Field(access, fieldName, descriptor, constantValue));
+        }
+
+        List<Method> methods = new ArrayList<>();
+        int methodCount = in.getShort() & 0xFFFF;
+        for (int m = 0; m < methodCount; m++) {
+            methods.add(readMethod(in, utf8, signatures));
+        }
+
+        int[][] bootstrapArguments = new int[0][];
+        int attributeCount = in.getShort() & 0xFFFF;
+        for (int a = 0; a < attributeCount; a++) {
+            String attribute = utf8[in.getShort() & 0xFFFF];
+            int length = in.getInt();
+            int end = in.position() + length;
+            if (attribute.equals("BootstrapMethods")) {
+                bootstrapArguments = new int[in.getShort() & 0xFFFF][];
+                for (int b = 0; b < bootstrapArguments.length; b++) {
+                    in.getShort();
+                    int[] arguments = new int[in.getShort() & 0xFFFF];
+                    for (int i = 0; i < arguments.length; i++) {
+                        arguments[i] = in.getShort() & 0xFFFF;
+                    }
+                    bootstrapArguments[b] = arguments;
+                }
+            } else if (attribute.equals("Signature")) {
+                signatures.add(utf8[in.getShort() & 0xFFFF]);
+            }
+            in.position(end);
+        }
+
+        String name = partial.classNameAt(thisClass);
+        String superName = superClass == 0 ? null : partial.classNameAt(superClass);
+        return new ClassFile(bytes, tags, offsets, utf8, name, superName, fields, methods, signatures, bootstrapArguments);
+    }
+
+    private static Method readMethod(ByteBuffer in, String[] utf8, List<String> signatures) {
+        int access = in.getShort() & 0xFFFF;
+        String methodName = utf8[in.getShort() & 0xFFFF];
+        String descriptor = utf8[in.getShort() & 0xFFFF];
+        byte[] code = new byte[0];
+        int[] handlerPcs = new int[0];
+        int[] lineStartPcs = new int[0];
+        int[] lines = new int[0];
+        List<LocalVariable> localVariables = new ArrayList<>();
+
+        int attributeCount = in.getShort() & 0xFFFF;
+        for (int a = 0; a < attributeCount; a++) {
+            String attribute = utf8[in.getShort() & 0xFFFF];
+            int length = in.getInt();
+            int end = in.position() + length;
+            if (attribute.equals("Code")) {
+                in.getShort();
+                in.getShort();
+                code = new byte[in.getInt()];
+                in.get(code);
+                handlerPcs = new int[in.getShort() & 0xFFFF];
+                for (int h = 0; h < handlerPcs.length; h++) {
+                    in.getShort();
+                    in.getShort();
+                    handlerPcs[h] = in.getShort() & 0xFFFF;
+                    in.getShort();
+                }
+                Arrays.sort(handlerPcs);
+
+                int codeAttributeCount = in.getShort() & 0xFFFF;
+                for (int c = 0; c < codeAttributeCount; c++) {
+                    String codeAttribute = utf8[in.getShort() & 0xFFFF];
+                    int codeAttributeLength = in.getInt();
+                    int codeAttributeEnd = in.position() + codeAttributeLength;
+                    if (codeAttribute.equals("LineNumberTable")) {
+                        int entries = in.getShort() & 0xFFFF;
+                        int[][] pairs = new int[entries][];
+                        for (int e = 0; e < entries; e++) {
+                            pairs[e] = new int[] {in.getShort() & 0xFFFF, in.getShort() & 0xFFFF};
+                        }
+                        // Merge the tables of repeated attributes, keeping them sorted by pc
+                        int[][] merged = new int[lineStartPcs.length + entries][];
+                        for (int e = 0; e < lineStartPcs.length; e++) {
+                            merged[e] = new int[] {lineStartPcs[e], lines[e]};
+                        }
+                        System.arraycopy(pairs, 0, merged, lineStartPcs.length, entries);
+                        Arrays.sort(merged, Comparator.comparingInt(pair -> pair[0]));
+                        lineStartPcs = new int[merged.length];
+                        lines = new int[merged.length];
+                        for (int e = 0; e < merged.length; e++) {
+                            lineStartPcs[e] = merged[e][0];
+                            lines[e] = merged[e][1];
+                        }
+                    } else if (codeAttribute.equals("LocalVariableTable")) {
+                        int entries = in.getShort() & 0xFFFF;
+                        for (int e = 0; e < entries; e++) {
+                            int startPc = in.getShort() & 0xFFFF;
+                            int variableLength = in.getShort() & 0xFFFF;
+                            String variableName = utf8[in.getShort() & 0xFFFF];
+                            in.getShort();
+                            int slot = in.getShort() & 0xFFFF;
+                            localVariables.add(new LocalVariable(startPc, variableLength, variableName, slot));
+                        }
+                    }
+                    in.position(codeAttributeEnd);
+                }
+            } else if (attribute.equals("Signature")) {
+                signatures.add(utf8[in.getShort() & 0xFFFF]);
+            }
+            in.position(end);
+        }
+
+        return new Method(access, methodName, descriptor, code, handlerPcs, lineStartPcs, lines, localVariables);
+    }
+
+    // Modified UTF-8 as stored in class files; plain ASCII is by far the most common case
+    private static String decodeUtf8(byte[] bytes, int start, int length) {
+        boolean ascii = true;
+        for (int i = start; i < start + length && ascii; i++) {
+            ascii = bytes[i] > 0;
+        }
+        if (ascii) {
+            return new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+        }
+
+        char[] chars = new char[length];
+        int count = 0;
+        int i = start;
+        while (i < start + length) {
+            int b = bytes[i++] & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (bytes[i++] & 0x3F));
+            } else {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((bytes[i++] & 0x3F) << 6) | (bytes[i++] & 0x3F));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    // Binary names use dots: com.example.Outer$Inner
+    public String getName() {
+        return name;
+    }
+
+    public String getSuperName() {
+        return superName;
+    }
+
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    public List<Method> getMethods() {
+        return methods;
+    }
+
+    // Generic signatures of the class, its fields and methods; they name types erased from descriptors
+    List<String> getSignatures() {
+        return signatures;
+    }
+
+    int constantCount() {
+        return tags.length;
+    }
+
+    int tagAt(int index) {
+        return tags[index];
+    }
+
+    String utf8At(int index) {
+        return utf8[index];
+    }
+
+    private int u2(int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    // Internal names of arrays stay in descriptor form: [Lcom/example/Type;
+    String classNameAt(int index) {
+        return utf8[u2(offsets[index])].replace('/', '.');
+    }
+
+    String stringAt(int index) {
+        return utf8[u2(offsets[index])];
+    }
+
+    // Field and method references: owner class, name and descriptor
+    String memberOwnerAt(int index) {
+        return classNameAt(u2(offsets[index]));
+    }
+
+    String memberNameAt(int index) {
+        int nameAndType = u2(offsets[index] + 2);
+        return utf8[u2(offsets[nameAndType])];
+    }
+
+    String memberDescriptorAt(int index) {
+        int nameAndType = u2(offsets[index] + 2);
+        return utf8[u2(offsets[nameAndType] + 2)];
+    }
+
+    // Name and descriptor of an invokedynamic call site
+    String dynamicNameAt(int index) {
+        int nameAndType = u2(offsets[index] + 2);
+        return utf8[u2(offsets[nameAndType])];
+    }
+
+    String dynamicDescriptorAt(int index) {
+        int nameAndType = u2(offsets[index] + 2);
+        return utf8[u2(offsets[nameAndType] + 2)];
+    }
+
+    int[] dynamicBootstrapArgumentsAt(int index) {
+        int bootstrap = u2(offsets[index]);
+        return bootstrap < bootstrapArguments.length ? bootstrapArguments[bootstrap] : new int[0];
+    }
+
+    // Descriptor of a NameAndType or MethodType entry
+    String descriptorAt(int index) {
+        if (tags[index] == CONSTANT_NAME_AND_TYPE) {
+            return utf8[u2(offsets[index] + 2)];
+        }
+        return utf8[u2(offsets[index])];
+    }
+}
@@ -0,0 +1,237 @@
+package com.github.daikikanai.moduleanalyzer.bytecode;
+
+import com.github.daikikanai.moduleanalyzer.index.FileFacts;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Class files of class directories (target/classes) and jars, grouped by top-level class. Source files are
+// matched to their class by name and by the package that best fits their directory, so the module and layer
+// still come from where the source sits while the facts come from the bytecode.
+// Jars are opened when their classes are first read and stay open until close(); reading again after
+// close() reopens them, so an index kept for later rescans can still use its classes.
+public class CompiledClasses implements Closeable {
+    private final List<Path> locations;
+    // Top-level class name -> class files of it and its nested classes, the top-level one first
+    private final Map<String, List<ClassEntry>> classes = new HashMap<>();
+    private final Map<String, List<String>> classNamesBySimpleName = new HashMap<>();
+    private final Map<Path, ZipFile> openJars = new HashMap<>();
+
+    private static class ClassEntry {
+        final String className;
+        final Path file;
+        final Path jarFile;
+        final String entryName;
+        final long lastModified;
+
+        ClassEntry(String className, Path file, Path jarFile, String entryName, long lastModified) {
+            this.className = className;
+            this.file = file;
+            this.jarFile = jarFile;
+            this.entryName = entryName;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private CompiledClasses(List<Path> locations) {
+        this.locations = locations;
+    }
+
+    // Locations that do not exist are skipped; earlier locations win for classes found in several
+    public static CompiledClasses open(List<Path> locations) throws IOException {
+        CompiledClasses compiled = new CompiledClasses(new ArrayList<>(locations));
+        for (Path location : locations) {
+            if (Files.isDirectory(location)) {
+                compiled.addDirectory(location);
+            } else if (Files.isRegularFile(location)) {
+                compiled.addJar(location);
+            }
+        }
+        for (List<ClassEntry> entries : compiled.classes.values()) {
+            entries.sort(Comparator.comparing(entry -> entry.className.length()));
+        }
+        return compiled;
+    }
+
+    private void addDirectory(Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String relative = directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                if (relative.endsWith(".class")) {
+                    add(relative, new ClassEntry(className(relative), file, null, null, attrs.lastModifiedTime().toMillis()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void addJar(Path jarFile) throws IOException {
+        long lastModified = Files.getLastModifiedTime(jarFile).toMillis();
+        try (ZipFile jar = new ZipFile(jarFile.toFile())) {
+            Enumeration<? extends ZipEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.endsWith(".class") && !name.startsWith("META-INF/")) {
+                    add(name, new ClassEntry(className(name), null, jarFile, name, lastModified));
+                }
+            }
+        }
+    }
+
+    private byte[] read(ClassEntry entry) throws IOException {
+        if (entry.file != null) {
+            return Files.readAllBytes(entry.file);
+        }
+        ZipFile jar = openJar(entry.jarFile);
+        ZipEntry zipEntry = jar.getEntry(entry.entryName);
+        if (zipEntry == null) {
+            throw new IOException("Class " + entry.entryName + " is no longer in " + entry.jarFile);
+        }
+        try (InputStream in = jar.getInputStream(zipEntry)) {
+            return in.readAllBytes();
+        }
+    }
+
+    // Files are parsed on several threads at once
+    private synchronized ZipFile openJar(Path jarFile) throws IOException {
+        ZipFile jar = openJars.get(jarFile);
+        if (jar == null) {
+            jar = new ZipFile(jarFile.toFile());
+            openJars.put(jarFile, jar);
+        }
+        return jar;
+    }
+
+    // Closes the jars read so far
+    @Override
+    public synchronized void close() throws IOException {
+        IOException error = null;
+        for (ZipFile jar : openJars.values()) {
+            try {
+                jar.close();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        openJars.clear();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void add(String relative, ClassEntry entry) {
+        if (relative.endsWith("module-info.class") || relative.endsWith("package-info.class")) {
+            return;
+        }
+        String className = entry.className;
+        int lastDot = className.lastIndexOf('.');
+        int nested = className.indexOf('$', lastDot + 1);
+        String topLevel = nested > 0 ? className.substring(0, nested) : className;
+
+        List<ClassEntry> entries = classes.computeIfAbsent(topLevel, k -> {
+            String simpleName = topLevel.substring(topLevel.lastIndexOf('.') + 1);
+            classNamesBySimpleName.computeIfAbsent(simpleName, s -> new ArrayList<>()).add(topLevel);
+            return new ArrayList<>();
+        });
+        for (ClassEntry existing : entries) {
+            if (existing.className.equals(className)) {
+                return;
+            }
+        }
+        entries.add(entry);
+    }
+
+    private static String className(String relative) {
+        return relative.substring(0, relative.length() - ".class".length()).replace('/', '.');
+    }
+
+    public List<Path> getLocations() {
+        return locations;
+    }
+
+    public int size() {
+        return classes.size();
+    }
+
+    // The top-level class compiled from the source file: of the classes with its name, the one whose package
+    // ends in the most directories of the source path. Null when no package ends in the source's directory
+    // or the choice is a tie.
+    public String findClass(Path javaFile) {
+        String simpleName = javaFile.getFileName().toString().replaceFirst("\\.java$", "");
+        List<String> candidates = classNamesBySimpleName.get(simpleName);
+        if (candidates == null) {
+            return null;
+        }
+
+        String best = null;
+        int bestScore = -1;
+        boolean tie = false;
+        Path directory = javaFile.toAbsolutePath().normalize().getParent();
+        for (String candidate : candidates) {
+            int score = commonTrailingNames(candidate, directory);
+            if (score > bestScore) {
+                best = candidate;
+                bestScore = score;
+                tie = false;
+            } else if (score == bestScore) {
+                tie = true;
+            }
+        }
+        return tie || bestScore == 0 ? null : best;
+    }
+
+    private static int commonTrailingNames(String className, Path directory) {
+        String[] packageNames = className.split("\\.");
+        int score = 0;
+        int p = packageNames.length - 2;
+        for (int d = directory.getNameCount() - 1; d >= 0 && p >= 0; d--, p--) {
+            if (!directory.getName(d).toString().equals(packageNames[p])) {
+                break;
+            }
+            score++;
+        }
+        return score;
+    }
+
+    // Facts of the class compiled from the source file, or null when there is no such class or the source
+    // changed after it was compiled; those files are analyzed from their source
+    public FileFacts facts(Path javaFile, List<String> searchPatterns) throws IOException {
+        String className = findClass(javaFile);
+        if (className == null) {
+            return null;
+        }
+        List<ClassEntry> entries = classes.get(className);
+        if (Files.getLastModifiedTime(javaFile).toMillis() > entries.get(0).lastModified) {
+            return null;
+        }
+
+        // Classes this reader cannot follow are analyzed from their source instead
+        try {
+            List<ClassFile> classFiles = new ArrayList<>();
+            for (ClassEntry entry : entries) {
+                classFiles.add(ClassFile.read(read(entry)));
+            }
+            return BytecodeFacts.extract(classFiles, searchPatterns);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Same class locations, so indexes built from them hold the same facts
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof CompiledClasses && locations.equals(((CompiledClasses) other).locations);
+    }
+
+    @Override
+    public int hashCode() {
+        return locations.hashCode();
+    }
+}
@@ -0,0 +1,206 @@
+package com.github.daikikanai.moduleanalyzer.checkboundaries;
+
+import com.github.daikikanai.moduleanalyzer.graph.ClassGraph;
+import com.github.daikikanai.moduleanalyzer.graph.SymbolTable;
+import com.github.daikikanai.moduleanalyzer.index.SourceFile;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.index.SourceText;
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Pattern;
+
+// The rules compiled against one index: every class has a module id, an expose flag and a layer index, and the
+// allowed dependencies are bit rows over module ids, so checking an edge of the class graph is a few array reads.
+public class BoundaryChecker {
+    private static final int EXPOSE = SourceIndex.LAYERS.indexOf("expose");
+
+    private final SourceIndex index;
+    private final ClassGraph graph;
+    private final SymbolTable modules;
+    // -1 for classes outside any module or layer
+    private final int[] moduleOfClass;
+    private final int[] layerOfClass;
+    // Null rows for modules that may use any module
+    private final BitSet[] allowedDependencies;
+    private final BitSet forbiddenLayers;
+    private final int maxFanIn;
+
+    private BoundaryChecker(SourceIndex index, ClassGraph graph, SymbolTable modules, int[] moduleOfClass,
+                            int[] layerOfClass, BitSet[] allowedDependencies, BitSet forbiddenLayers, int maxFanIn) {
+        this.index = index;
+        this.graph = graph;
+        this.modules = modules;
+        this.moduleOfClass = moduleOfClass;
+        this.layerOfClass = layerOfClass;
+        this.allowedDependencies = allowedDependencies;
+        this.forbiddenLayers = forbiddenLayers;
+        this.maxFanIn = maxFanIn;
+    }
+
+    public static BoundaryChecker compile(SourceIndex index, BoundaryRules rules) {
+        ClassGraph graph = ClassGraph.build(index);
+        Set<String> moduleNames = new HashSet<>(index.getModules());
+        moduleNames.addAll(rules.getModules());
+        SymbolTable modules = SymbolTable.sorted(moduleNames);
+
+        int[] moduleOfClass = new int[graph.size()];
+        int[] layerOfClass = new int[graph.size()];
+        for (int classId = 0; classId < graph.size(); classId++) {
+            SourceFile file = index.findByClassName(graph.nameOf(classId));
+            moduleOfClass[classId] = file.getModule() != null ? modules.idOf(file.getModule()) : -1;
+            layerOfClass[classId] = file.getLayer() != null ? SourceIndex.LAYERS.indexOf(file.getLayer()) : -1;
+        }
+
+        BitSet[] allowedDependencies = new BitSet[modules.size()];
+        for (int module = 0; module < modules.size(); module++) {
+            Set<String> allowed = rules.allowedDependenciesOf(modules.nameOf(module));
+            if (allowed != null) {
+                allowedDependencies[module] = new BitSet(modules.size());
+                for (String target : allowed) {
+                    allowedDependencies[module].set(modules.idOf(target));
+                }
+            }
+        }
+
+        BitSet forbiddenLayers = new BitSet(SourceIndex.LAYERS.size());
+        for (int layer = 0; layer < SourceIndex.LAYERS.size(); layer++) {
+            if (rules.isForbiddenLayer(SourceIndex.LAYERS.get(layer))) {
+                forbiddenLayers.set(layer);
+            }
+        }
+
+        return new BoundaryChecker(index, graph, modules, moduleOfClass, layerOfClass,
+                                   allowedDependencies, forbiddenLayers, rules.getMaxFanIn());
+    }
+
+    // Violations by file and line, then the modules over the fan-in limit
+    public List<BoundaryViolation> check() throws IOException {
+        Metrics.Phase phase = Metrics.phase("boundaries");
+        try {
+            List<Integer> classIds = new ArrayList<>(graph.size());
+            for (int classId = 0; classId < graph.size(); classId++) {
+                classIds.add(classId);
+            }
+            List<BoundaryViolation> violations = new ArrayList<>();
+            for (List<BoundaryViolation> classViolations : index.getScanner().mapUnchecked(classIds, this::checkClass)) {
+                violations.addAll(classViolations);
+            }
+
+            violations = locate(violations);
+            violations.sort(Comparator.comparing((BoundaryViolation violation) -> violation.file)
+                                      .thenComparingInt(violation -> violation.line));
+            violations.addAll(checkFanIn());
+            return violations;
+        } finally {
+            phase.end();
+        }
+    }
+
+    private List<BoundaryViolation> checkClass(int from) {
+        int fromModule = moduleOfClass[from];
+        if (fromModule == -1) {
+            return Collections.emptyList();
+        }
+
+        List<BoundaryViolation> violations = new ArrayList<>();
+        for (int edge = graph.edgeStart(from); edge < graph.edgeEnd(from); edge++) {
+            int to = graph.edgeTarget(edge);
+            int toModule = moduleOfClass[to];
+            if (toModule == -1 || toModule == fromModule) {
+                continue;
+            }
+            if (layerOfClass[to] != EXPOSE) {
+                violations.add(violation(BoundaryViolation.Rule.NON_EXPOSE, from, to,
+                                         "uses " + graph.nameOf(to) + ", which is not exposed by " + modules.nameOf(toModule)));
+            }
+            if (layerOfClass[from] != -1 && forbiddenLayers.get(layerOfClass[from])) {
+                violations.add(violation(BoundaryViolation.Rule.FORBIDDEN_LAYER, from, to,
+                                         "uses module " + modules.nameOf(toModule) + " from the "
+                                         + SourceIndex.LAYERS.get(layerOfClass[from]) + " layer"));
+            }
+            BitSet allowed = allowedDependencies[fromModule];
+            if (allowed != null && !allowed.get(toModule)) {
+                violations.add(violation(BoundaryViolation.Rule.UNDECLARED_DEPENDENCY, from, to,
+                                         "uses module " + modules.nameOf(toModule) + ", which "
+                                         + modules.nameOf(fromModule) + " may not depend on"));
+            }
+        }
+        return violations;
+    }
+
+    private BoundaryViolation violation(BoundaryViolation.Rule rule, int from, int to, String message) {
+        String fromClass = graph.nameOf(from);
+        return new BoundaryViolation(rule, modules.nameOf(moduleOfClass[from]), fromClass,
+                                     modules.nameOf(moduleOfClass[to]), graph.nameOf(to),
+                                     index.findByClassName(fromClass).getPath(), 0, message);
+    }
+
+    // Lines are only looked up for the violations found, so a clean build reads no file again
+    private List<BoundaryViolation> locate(List<BoundaryViolation> violations) throws IOException {
+        Map<Path, List<BoundaryViolation>> violationsByFile = new LinkedHashMap<>();
+        for (BoundaryViolation violation : violations) {
+            violationsByFile.computeIfAbsent(violation.file, k -> new ArrayList<>()).add(violation);
+        }
+
+        List<BoundaryViolation> located = new ArrayList<>(violations.size());
+        for (Map.Entry<Path, List<BoundaryViolation>> file : violationsByFile.entrySet()) {
+            SourceText text = index.getReader().text(index.getReader().read(file.getKey()));
+            for (BoundaryViolation violation : file.getValue()) {
+                located.add(violation.atLine(firstMention(text, violation.toClass)));
+            }
+        }
+        return located;
+    }
+
+    // Usually the import of the class; 0 when it is never named
+    private static int firstMention(SourceText text, String className) {
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        Pattern mention = Pattern.compile("\\b" + Pattern.quote(simpleName) + "\\b");
+        for (int line = 0; line < text.getLineCount(); line++) {
+            if (mention.matcher(text.line(line)).find()) {
+                return line + 1;
+            }
+        }
+        return 0;
+    }
+
+    private List<BoundaryViolation> checkFanIn() {
+        List<BoundaryViolation> violations = new ArrayList<>();
+        if (maxFanIn == 0) {
+            return violations;
+        }
+
+        BitSet[] dependents = new BitSet[modules.size()];
+        for (int module = 0; module < modules.size(); module++) {
+            dependents[module] = new BitSet(modules.size());
+        }
+        for (int from = 0; from < graph.size(); from++) {
+            int fromModule = moduleOfClass[from];
+            for (int edge = graph.edgeStart(from); edge < graph.edgeEnd(from); edge++) {
+                int toModule = moduleOfClass[graph.edgeTarget(edge)];
+                if (fromModule != -1 && toModule != -1 && toModule != fromModule) {
+                    dependents[toModule].set(fromModule);
+                }
+            }
+        }
+
+        for (int module = 0; module < modules.size(); module++) {
+            int fanIn = dependents[module].cardinality();
+            if (fanIn > maxFanIn) {
+                List<String> names = new ArrayList<>();
+                for (int dependent = dependents[module].nextSetBit(0); dependent >= 0;
+                     dependent = dependents[module].nextSetBit(dependent + 1)) {
+                    names.add(modules.nameOf(dependent));
+                }
+                violations.add(new BoundaryViolation(BoundaryViolation.Rule.MAX_FAN_IN, null, null,
+                                                     modules.nameOf(module), null, null, 0,
+                                                     "used by " + fanIn + " modules (" + String.join(", ", names)
+                                                     + "), more than " + maxFanIn));
+            }
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.daikikanai.moduleanalyzer.checkboundaries;
+
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportRecord;
+
+import java.io.IOException;
+import java.util.*;
+
+// The check-boundaries report over a scanned index
+public class BoundaryReport {
+    private final List<BoundaryViolation> violations;
+
+    public BoundaryReport(SourceIndex index, BoundaryRules rules) throws IOException {
+        this.violations = BoundaryChecker.compile(index, rules).check();
+    }
+
+    public List<BoundaryViolation> getViolations() {
+        return violations;
+    }
+
+    public void displayText(AnalyzerLog log) {
+        BoundaryView view = new BoundaryView(log);
+        view.displayViolations(violations);
+    }
+
+    public void writeRecords(RecordWriter writer) {
+        for (BoundaryViolation violation : violations) {
+            ReportRecord record = new ReportRecord("boundaryViolation").put("rule", violation.rule.getId());
+            if (violation.file != null) {
+                record.put("file", violation.file.toString())
+                      .put("line", violation.line)
+                      .put("fromModule", violation.fromModule)
+                      .put("fromClass", violation.fromClass)
+                      .put("toClass", violation.toClass);
+            }
+            writer.write(record.put("toModule", violation.toModule).put("message", violation.message));
+        }
+    }
+}
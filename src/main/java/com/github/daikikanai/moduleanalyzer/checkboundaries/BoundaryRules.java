@@ -0,0 +1,85 @@
+package com.github.daikikanai.moduleanalyzer.checkboundaries;
+
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+
+import java.util.*;
+
+// Rules on top of the one that always holds, that other modules are used through their expose layer only.
+// allowedDependencies "order->user,product;payment->product": a listed module may use only the modules after
+// its arrow, modules not listed are unrestricted. forbiddenLayers "domain": classes of these layers may not use
+// other modules at all. maxFanIn: how many other modules may use one module, 0 for no limit.
+public class BoundaryRules {
+    private final Map<String, Set<String>> allowedDependencies;
+    private final Set<String> forbiddenLayers;
+    private final int maxFanIn;
+
+    private BoundaryRules(Map<String, Set<String>> allowedDependencies, Set<String> forbiddenLayers, int maxFanIn) {
+        this.allowedDependencies = allowedDependencies;
+        this.forbiddenLayers = forbiddenLayers;
+        this.maxFanIn = maxFanIn;
+    }
+
+    public static BoundaryRules parse(String allowedDependencies, String forbiddenLayers, int maxFanIn) {
+        Map<String, Set<String>> allowed = new HashMap<>();
+        if (allowedDependencies != null) {
+            for (String rule : allowedDependencies.split(";")) {
+                if (rule.trim().isEmpty()) {
+                    continue;
+                }
+                int arrow = rule.indexOf("->");
+                String from = arrow == -1 ? "" : rule.substring(0, arrow).trim();
+                if (from.isEmpty()) {
+                    throw new IllegalArgumentException("Expected module->modules in allowedDependencies: " + rule.trim());
+                }
+                Set<String> targets = allowed.computeIfAbsent(from, k -> new HashSet<>());
+                for (String to : rule.substring(arrow + 2).split(",")) {
+                    if (!to.trim().isEmpty()) {
+                        targets.add(to.trim());
+                    }
+                }
+            }
+        }
+
+        Set<String> layers = new HashSet<>();
+        if (forbiddenLayers != null) {
+            for (String layer : forbiddenLayers.split(",")) {
+                String trimmed = layer.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                if (!SourceIndex.LAYERS.contains(trimmed)) {
+                    throw new IllegalArgumentException("Unknown layer in forbiddenLayers: " + trimmed
+                                                       + " (expected one of " + String.join(", ", SourceIndex.LAYERS) + ")");
+                }
+                layers.add(trimmed);
+            }
+        }
+
+        if (maxFanIn < 0) {
+            throw new IllegalArgumentException("maxFanIn must not be negative: " + maxFanIn);
+        }
+        return new BoundaryRules(allowed, layers, maxFanIn);
+    }
+
+    // Modules named in allowedDependencies
+    public Set<String> getModules() {
+        Set<String> modules = new HashSet<>(allowedDependencies.keySet());
+        for (Set<String> targets : allowedDependencies.values()) {
+            modules.addAll(targets);
+        }
+        return modules;
+    }
+
+    // Null when the module may use any module
+    public Set<String> allowedDependenciesOf(String module) {
+        return allowedDependencies.get(module);
+    }
+
+    public boolean isForbiddenLayer(String layer) {
+        return forbiddenLayers.contains(layer);
+    }
+
+    public int getMaxFanIn() {
+        return maxFanIn;
+    }
+}
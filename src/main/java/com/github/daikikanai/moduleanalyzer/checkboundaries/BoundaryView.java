@@ -0,0 +1,48 @@
+package com.github.daikikanai.moduleanalyzer.checkboundaries;
+
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+
+import java.util.*;
+
+public class BoundaryView {
+    private final AnalyzerLog log;
+
+    public BoundaryView(AnalyzerLog log) {
+        this.log = log;
+    }
+
+    // Class violations under the module that breaks the rule, fan-in violations under the module that is used
+    public void displayViolations(List<BoundaryViolation> violations) {
+        log.info("");
+        if (violations.isEmpty()) {
+            log.info("Boundary violations: none");
+            log.info("");
+            return;
+        }
+        log.info("Boundary violations: " + violations.size());
+
+        Map<String, List<BoundaryViolation>> violationsByModule = new TreeMap<>();
+        for (BoundaryViolation violation : violations) {
+            String module = violation.fromModule != null ? violation.fromModule : violation.toModule;
+            violationsByModule.computeIfAbsent(module, k -> new ArrayList<>()).add(violation);
+        }
+
+        for (Map.Entry<String, List<BoundaryViolation>> module : violationsByModule.entrySet()) {
+            log.info("");
+            log.info("[Module: " + module.getKey() + "]");
+            for (BoundaryViolation violation : module.getValue()) {
+                displayViolation(violation);
+            }
+        }
+        log.info("");
+    }
+
+    private void displayViolation(BoundaryViolation violation) {
+        if (violation.file == null) {
+            log.info("  - [" + violation.rule.getId() + "] " + violation.message);
+            return;
+        }
+        String location = violation.line > 0 ? violation.file + ":" + violation.line : violation.file.toString();
+        log.info("  - " + location + " [" + violation.rule.getId() + "] " + violation.message);
+    }
+}
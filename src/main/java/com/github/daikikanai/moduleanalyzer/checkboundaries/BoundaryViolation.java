@@ -0,0 +1,50 @@
+package com.github.daikikanai.moduleanalyzer.checkboundaries;
+
+import java.nio.file.Path;
+
+// One broken rule. Class rules name the using class, its file and the line of the first mention of the used
+// class; max-fan-in is about a whole module and has neither class nor file.
+public class BoundaryViolation {
+    public enum Rule {
+        NON_EXPOSE("non-expose"),
+        FORBIDDEN_LAYER("forbidden-layer"),
+        UNDECLARED_DEPENDENCY("undeclared-dependency"),
+        MAX_FAN_IN("max-fan-in");
+
+        private final String id;
+
+        Rule(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+
+    public final Rule rule;
+    public final String fromModule;
+    public final String fromClass;
+    public final String toModule;
+    public final String toClass;
+    public final Path file;
+    // 0 when the file does not mention the used class by name
+    public final int line;
+    public final String message;
+
+    public BoundaryViolation(Rule rule, String fromModule, String fromClass, String toModule, String toClass,
+                             Path file, int line, String message) {
+        this.rule = rule;
+        this.fromModule = fromModule;
+        this.fromClass = fromClass;
+        this.toModule = toModule;
+        this.toClass = toClass;
+        this.file = file;
+        this.line = line;
+        this.message = message;
+    }
+
+    public BoundaryViolation atLine(int line) {
+        return new BoundaryViolation(rule, fromModule, fromClass, toModule, toClass, file, line, message);
+    }
+}
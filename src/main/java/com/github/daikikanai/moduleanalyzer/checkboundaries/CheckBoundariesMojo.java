@@ -0,0 +1,81 @@
+package com.github.daikikanai.moduleanalyzer.checkboundaries;
+
+import com.github.daikikanai.moduleanalyzer.AbstractAnalyzerMojo;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportFormat;
+import com.github.daikikanai.moduleanalyzer.report.ReportLog;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+// Bound to validate, so declaring the plugin with this goal checks every build
+@Mojo(name = "check-boundaries", defaultPhase = LifecyclePhase.VALIDATE, threadSafe = true)
+public class CheckBoundariesMojo extends AbstractAnalyzerMojo {
+
+    // Allowed module dependencies: "order->user,product;payment->product"; modules not listed are unrestricted
+    @Parameter(property = "allowedDependencies")
+    private String allowedDependencies;
+
+    // Layers whose classes may not use other modules at all, comma-separated
+    @Parameter(property = "forbiddenLayers")
+    private String forbiddenLayers;
+
+    // Most modules that may use one module; 0 for no limit
+    @Parameter(property = "maxFanIn", defaultValue = "0")
+    private int maxFanIn;
+
+    @Parameter(property = "failOnViolation", defaultValue = "true")
+    private boolean failOnViolation;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        BoundaryReport report;
+        try {
+            Path root = resolveRootDir();
+            ReportFormat format = resolveFormat();
+            BoundaryRules rules = parseRules();
+
+            SourceIndex index = scanIndex(root, Collections.emptyList());
+            for (String module : rules.getModules()) {
+                if (!index.getModules().contains(module)) {
+                    getLog().warn("Module in allowedDependencies not found: " + module);
+                }
+            }
+            report = new BoundaryReport(index, rules);
+
+            if (format == ReportFormat.TEXT) {
+                try (ReportLog reportLog = openReportLog()) {
+                    report.displayText(reportLog);
+                }
+            } else {
+                try (RecordWriter writer = openRecordWriter("check-boundaries")) {
+                    report.writeRecords(writer);
+                }
+            }
+            reportStatistics();
+
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error scanning modules", e);
+        } finally {
+            closeScanners();
+        }
+
+        if (failOnViolation && !report.getViolations().isEmpty()) {
+            throw new MojoFailureException("Boundary check failed: " + report.getViolations().size() + " violation(s)");
+        }
+    }
+
+    private BoundaryRules parseRules() throws MojoExecutionException {
+        try {
+            return BoundaryRules.parse(allowedDependencies, forbiddenLayers, maxFanIn);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+}
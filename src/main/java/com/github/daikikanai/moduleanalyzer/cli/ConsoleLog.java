@@ -0,0 +1,32 @@
+package com.github.daikikanai.moduleanalyzer.cli;
+
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+
+import java.io.PrintStream;
+
+// Report lines to standard output, warnings to standard error so they never mix into a report
+public class ConsoleLog implements AnalyzerLog {
+    private final PrintStream out;
+    private final PrintStream err;
+
+    public ConsoleLog(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    @Override
+    public void info(CharSequence content) {
+        out.println(content);
+    }
+
+    @Override
+    public void warn(CharSequence content) {
+        err.println("[WARNING] " + content);
+    }
+
+    @Override
+    public void warn(CharSequence content, Throwable error) {
+        warn(content);
+        error.printStackTrace(err);
+    }
+}
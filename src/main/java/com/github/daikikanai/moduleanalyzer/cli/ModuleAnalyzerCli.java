@@ -0,0 +1,414 @@
+package com.github.daikikanai.moduleanalyzer.cli;
+
+import com.github.daikikanai.moduleanalyzer.bytecode.CompiledClasses;
+import com.github.daikikanai.moduleanalyzer.checkboundaries.BoundaryReport;
+import com.github.daikikanai.moduleanalyzer.checkboundaries.BoundaryRules;
+import com.github.daikikanai.moduleanalyzer.index.AnalysisCache;
+import com.github.daikikanai.moduleanalyzer.index.ParallelScanner;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.index.SourceReader;
+import com.github.daikikanai.moduleanalyzer.index.SourceTree;
+import com.github.daikikanai.moduleanalyzer.listexpose.ExposeReport;
+import com.github.daikikanai.moduleanalyzer.listhttprequest.HttpRequestReport;
+import com.github.daikikanai.moduleanalyzer.listhttprequest.Tracer;
+import com.github.daikikanai.moduleanalyzer.listtable.TableAccessReport;
+import com.github.daikikanai.moduleanalyzer.listtable.TableReport;
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+import com.github.daikikanai.moduleanalyzer.modulegraph.ModuleGraphReport;
+import com.github.daikikanai.moduleanalyzer.modulegraph.ModuleLayers;
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportFormat;
+import com.github.daikikanai.moduleanalyzer.report.ReportLog;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+// Runs a goal without Maven, for pre-commit hooks and other places where starting a build takes longer
+// than the analysis: java -jar module-analyzer-cli.jar list-expose --rootDir=modules
+// Options have the names and defaults of the goal parameters; -Dname=value is accepted as well.
+public class ModuleAnalyzerCli {
+    static final int OK = 0;
+    static final int FAILED = 1;
+    static final int USAGE = 2;
+
+    private static final List<String> GOALS = Arrays.asList("list-expose", "list-table", "list-table-access",
+                                                                   "list-http-request", "module-graph", "check-boundaries");
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("rootDir", null);
+        DEFAULTS.put("format", "text");
+        DEFAULTS.put("outputFile", null);
+        DEFAULTS.put("threads", "0");
+        DEFAULTS.put("sourceEncoding", "UTF-8");
+        DEFAULTS.put("includes", "");
+        DEFAULTS.put("excludes", ".git,node_modules");
+        DEFAULTS.put("useGitignore", "false");
+        DEFAULTS.put("skipBuildOutput", "true");
+        DEFAULTS.put("analysisSource", "source");
+        DEFAULTS.put("classesDirectories", "target/classes");
+        // No analysis cache unless a directory is given
+        DEFAULTS.put("cacheDir", null);
+        DEFAULTS.put("metrics", "false");
+        DEFAULTS.put("metricsFile", null);
+        DEFAULTS.put("showDependency", "false");
+        DEFAULTS.put("searchPatterns", HttpRequestReport.DEFAULT_SEARCH_PATTERNS);
+        DEFAULTS.put("layers", null);
+        DEFAULTS.put("failOnCycle", "true");
+        DEFAULTS.put("failOnLayerViolation", "true");
+        DEFAULTS.put("allowedDependencies", null);
+        DEFAULTS.put("forbiddenLayers", null);
+        DEFAULTS.put("maxFanIn", "0");
+        DEFAULTS.put("failOnViolation", "true");
+    }
+
+    private final String goal;
+    private final Map<String, String> options;
+    private final PrintStream err;
+    // Reports go to standard output, so warnings and statistics go to standard error
+    private final AnalyzerLog log;
+    private final AnalyzerLog statusLog;
+    private AnalysisCache analysisCache;
+    private ParallelScanner scanner;
+
+    private ModuleAnalyzerCli(String goal, Map<String, String> options, PrintStream out, PrintStream err) {
+        this.goal = goal;
+        this.options = options;
+        this.err = err;
+        this.log = new ConsoleLog(out, err);
+        this.statusLog = new ConsoleLog(err, err);
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    // The exit status: 0, 1 when the analysis failed or a check found problems, 2 for invalid arguments
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        if (args.length == 0 || args[0].equals("--help") || args[0].equals("-h")) {
+            printUsage(args.length == 0 ? err : out);
+            return args.length == 0 ? USAGE : OK;
+        }
+
+        try {
+            String goal = args[0];
+            if (!GOALS.contains(goal)) {
+                throw new IllegalArgumentException("Unknown goal: " + goal);
+            }
+            ModuleAnalyzerCli cli = new ModuleAnalyzerCli(goal, parseOptions(Arrays.copyOfRange(args, 1, args.length)), out, err);
+            try {
+                return cli.execute();
+            } finally {
+                cli.close();
+            }
+        } catch (IllegalArgumentException e) {
+            err.println("[ERROR] " + e.getMessage());
+            err.println("Run with --help for the goals and options");
+            return USAGE;
+        } catch (IOException e) {
+            err.println("[ERROR] Error scanning modules: " + e);
+            return FAILED;
+        } finally {
+            out.flush();
+        }
+    }
+
+    // --name=value, --name for true, or -Dname=value
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") && !arg.startsWith("-D")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            String option = arg.substring(2);
+            int equals = option.indexOf('=');
+            String name = equals == -1 ? option : option.substring(0, equals);
+            String value = equals == -1 ? "true" : option.substring(equals + 1);
+            if (!DEFAULTS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option: " + name);
+            }
+            options.put(name, value);
+        }
+        return options;
+    }
+
+    private int execute() throws IOException {
+        ReportFormat format = ReportFormat.parse(option("format"));
+        switch (goal) {
+            case "list-expose": {
+                ExposeReport report = new ExposeReport(scanIndex(Collections.emptyList()), flag("showDependency"));
+                if (format == ReportFormat.TEXT) {
+                    try (ReportLog reportLog = openReportLog()) {
+                        report.displayText(reportLog);
+                    }
+                } else {
+                    try (RecordWriter writer = openRecordWriter(format)) {
+                        report.writeRecords(writer);
+                    }
+                }
+                break;
+            }
+            case "list-table": {
+                TableReport report = new TableReport(scanIndex(Collections.emptyList()));
+                if (format == ReportFormat.TEXT) {
+                    try (ReportLog reportLog = openReportLog()) {
+                        report.displayText(reportLog);
+                    }
+                } else {
+                    try (RecordWriter writer = openRecordWriter(format)) {
+                        report.writeRecords(writer);
+                    }
+                }
+                break;
+            }
+            case "list-table-access": {
+                TableAccessReport report = new TableAccessReport(scanIndex(Collections.emptyList()));
+                if (format == ReportFormat.TEXT) {
+                    try (ReportLog reportLog = openReportLog()) {
+                        report.displayText(reportLog);
+                    }
+                } else {
+                    try (RecordWriter writer = openRecordWriter(format)) {
+                        report.writeRecords(writer);
+                    }
+                }
+                break;
+            }
+            case "list-http-request": {
+                List<String> patternList = HttpRequestReport.parseSearchPatterns(option("searchPatterns"));
+                SourceIndex index = scanIndex(patternList);
+                HttpRequestReport report = new HttpRequestReport(new Tracer(index, log), patternList, Collections.emptyMap());
+                if (format == ReportFormat.TEXT) {
+                    try (ReportLog reportLog = openReportLog()) {
+                        HttpRequestReport.displayHeader(reportLog, option("rootDir"), patternList);
+                        report.displayText(reportLog);
+                    }
+                } else {
+                    try (RecordWriter writer = openRecordWriter(format)) {
+                        report.writeRecords(writer);
+                    }
+                }
+                break;
+            }
+            case "module-graph":
+                return executeModuleGraph(format);
+            case "check-boundaries":
+                return executeCheckBoundaries(format);
+            default:
+                throw new IllegalArgumentException("Unknown goal: " + goal);
+        }
+        reportStatistics();
+        return OK;
+    }
+
+    private int executeModuleGraph(ReportFormat format) throws IOException {
+        ModuleLayers moduleLayers = ModuleLayers.parse(option("layers"));
+        SourceIndex index = scanIndex(Collections.emptyList());
+        for (String module : moduleLayers.getModules()) {
+            if (!index.getModules().contains(module)) {
+                log.warn("Module in layers not found: " + module);
+            }
+        }
+        ModuleGraphReport report = new ModuleGraphReport(index, moduleLayers);
+        if (format == ReportFormat.TEXT) {
+            try (ReportLog reportLog = openReportLog()) {
+                report.displayText(reportLog);
+            }
+        } else {
+            try (RecordWriter writer = openRecordWriter(format)) {
+                report.writeRecords(writer);
+            }
+        }
+        reportStatistics();
+
+        List<String> failures = new ArrayList<>();
+        if (flag("failOnCycle") && !report.getCycles().isEmpty()) {
+            failures.add(report.getCycles().size() + " module dependency cycle(s)");
+        }
+        if (flag("failOnLayerViolation") && !report.getLayerViolations().isEmpty()) {
+            failures.add(report.getLayerViolations().size() + " layer violation(s)");
+        }
+        if (!failures.isEmpty()) {
+            err.println("[ERROR] Module graph check failed: " + String.join(", ", failures));
+            return FAILED;
+        }
+        return OK;
+    }
+
+    private int executeCheckBoundaries(ReportFormat format) throws IOException {
+        BoundaryRules rules = BoundaryRules.parse(option("allowedDependencies"), option("forbiddenLayers"),
+                                                  Integer.parseInt(option("maxFanIn").trim()));
+        SourceIndex index = scanIndex(Collections.emptyList());
+        for (String module : rules.getModules()) {
+            if (!index.getModules().contains(module)) {
+                log.warn("Module in allowedDependencies not found: " + module);
+            }
+        }
+        BoundaryReport report = new BoundaryReport(index, rules);
+        if (format == ReportFormat.TEXT) {
+            try (ReportLog reportLog = openReportLog()) {
+                report.displayText(reportLog);
+            }
+        } else {
+            try (RecordWriter writer = openRecordWriter(format)) {
+                report.writeRecords(writer);
+            }
+        }
+        reportStatistics();
+
+        if (flag("failOnViolation") && !report.getViolations().isEmpty()) {
+            err.println("[ERROR] Boundary check failed: " + report.getViolations().size() + " violation(s)");
+            return FAILED;
+        }
+        return OK;
+    }
+
+    private SourceIndex scanIndex(List<String> searchPatterns) throws IOException {
+        if (flag("metrics") || option("metricsFile") != null) {
+            Metrics.start(goal);
+        }
+        Path root = resolveRootDir();
+        Charset charset = Charset.forName(option("sourceEncoding").trim());
+        SourceTree tree = new SourceTree(root, splitPatterns(option("includes")), splitPatterns(option("excludes")),
+                                         flag("useGitignore"), flag("skipBuildOutput"));
+
+        String cacheDir = option("cacheDir");
+        if (cacheDir != null) {
+            analysisCache = AnalysisCache.load(Paths.get(cacheDir).resolve("index.cache"), getVersion(), charset);
+        }
+
+        scanner = new ParallelScanner(Integer.parseInt(option("threads").trim()));
+        SourceIndex index;
+        CompiledClasses classes = openCompiledClasses();
+        try {
+            index = SourceIndex.scan(tree, searchPatterns, analysisCache, scanner, new SourceReader(charset), classes);
+        } finally {
+            if (classes != null) {
+                classes.close();
+            }
+        }
+
+        if (analysisCache != null) {
+            try {
+                analysisCache.save(root);
+            } catch (IOException e) {
+                log.warn("Failed to write analysis cache: " + analysisCache.getCacheFile());
+            }
+        }
+        return index;
+    }
+
+    // Stops the scan workers, so a caller running several goals in one JVM does not keep them
+    private void close() {
+        if (scanner != null) {
+            scanner.close();
+        }
+    }
+
+    private Path resolveRootDir() {
+        String rootDir = option("rootDir");
+        if (rootDir == null || rootDir.trim().isEmpty()) {
+            throw new IllegalArgumentException("The option rootDir is required");
+        }
+        Path root = Paths.get(rootDir);
+        if (!Files.isDirectory(root)) {
+            throw new IllegalArgumentException("Root directory does not exist: " + rootDir);
+        }
+        return root;
+    }
+
+    // Null in source mode
+    private CompiledClasses openCompiledClasses() throws IOException {
+        String source = option("analysisSource").trim().toLowerCase();
+        if (source.equals("source")) {
+            return null;
+        }
+        if (!source.equals("bytecode")) {
+            throw new IllegalArgumentException("Unknown analysisSource: " + source + " (expected source or bytecode)");
+        }
+
+        List<Path> locations = new ArrayList<>();
+        for (String location : splitPatterns(option("classesDirectories"))) {
+            locations.add(Paths.get(location));
+        }
+        CompiledClasses classes = CompiledClasses.open(locations);
+        if (classes.size() == 0) {
+            log.warn("No compiled classes found in " + locations + "; analyzing sources");
+        }
+        return classes;
+    }
+
+    private ReportLog openReportLog() throws IOException {
+        String outputFile = option("outputFile");
+        return ReportLog.open(log, outputFile != null ? Paths.get(outputFile) : null);
+    }
+
+    private RecordWriter openRecordWriter(ReportFormat format) throws IOException {
+        String outputFile = option("outputFile");
+        return RecordWriter.open(format, goal, outputFile != null ? Paths.get(outputFile) : null);
+    }
+
+    // Cache hits, and the metrics when they were requested
+    private void reportStatistics() {
+        if (analysisCache != null) {
+            statusLog.info("Analysis cache: " + analysisCache.getHits() + " hits, "
+                           + analysisCache.getMisses() + " misses");
+        }
+
+        Metrics run = Metrics.stop();
+        if (run != null) {
+            run.report(statusLog);
+            String metricsFile = option("metricsFile");
+            if (metricsFile != null) {
+                try {
+                    run.writeJson(Paths.get(metricsFile));
+                } catch (IOException e) {
+                    log.warn("Failed to write metrics: " + metricsFile);
+                }
+            }
+        }
+    }
+
+    private String option(String name) {
+        return options.containsKey(name) ? options.get(name) : DEFAULTS.get(name);
+    }
+
+    private boolean flag(String name) {
+        return Boolean.parseBoolean(option(name).trim());
+    }
+
+    private static List<String> splitPatterns(String patterns) {
+        List<String> patternList = new ArrayList<>();
+        if (patterns != null) {
+            for (String pattern : patterns.split(",")) {
+                if (!pattern.trim().isEmpty()) {
+                    patternList.add(pattern.trim());
+                }
+            }
+        }
+        return patternList;
+    }
+
+    // The analysis cache is only reused by the version that wrote it
+    private static String getVersion() {
+        String version = ModuleAnalyzerCli.class.getPackage().getImplementationVersion();
+        return version != null ? version : "unknown";
+    }
+
+    private static void printUsage(PrintStream out) {
+        out.println("Usage: java -jar module-analyzer-cli.jar <goal> --rootDir=<dir> [--<option>=<value> ...]");
+        out.println();
+        out.println("Goals: " + String.join(", ", GOALS));
+        out.println();
+        out.println("Options (default):");
+        for (Map.Entry<String, String> option : DEFAULTS.entrySet()) {
+            out.println("  --" + option.getKey() + (option.getValue() != null ? " (" + option.getValue() + ")" : ""));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.github.daikikanai.moduleanalyzer.daemon;
+
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.listexpose.ExposeReport;
+import com.github.daikikanai.moduleanalyzer.listhttprequest.HttpRequestReport;
+import com.github.daikikanai.moduleanalyzer.listhttprequest.Tracer;
+import com.github.daikikanai.moduleanalyzer.listtable.TableReport;
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportFormat;
+import com.github.daikikanai.moduleanalyzer.report.ReportLog;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+// Keeps a scanned index in memory and answers one request per connection.
+// A request is a single line: a goal name followed by key=value options, e.g.
+//   list-expose showDependency=true format=json
+// The answer is the report exactly as the goal would write it, then the connection is closed.
+public class AnalysisDaemon {
+    private final String rootDir;
+    private final AnalyzerLog log;
+    private volatile SourceIndex index;
+
+    // Answers for the index they were computed from; any update invalidates them
+    private SourceIndex answeredIndex;
+    private Tracer tracer;
+    private final Map<String, String> answers = new HashMap<>();
+
+    public AnalysisDaemon(String rootDir, SourceIndex index, AnalyzerLog log) {
+        this.rootDir = rootDir;
+        this.index = index;
+        this.log = log;
+    }
+
+    // Called from the watcher thread; requests keep using the previous index until the new one is ready
+    public void update(Set<Path> changedPaths) {
+        try {
+            long start = System.nanoTime();
+            SourceIndex updated;
+            try {
+                updated = index.update(changedPaths);
+            } finally {
+                // Jars reopened for the rescan are not kept open while the daemon waits
+                if (index.getCompiledClasses() != null) {
+                    index.getCompiledClasses().close();
+                }
+            }
+            index = updated;
+            log.info("Index updated: " + changedPaths.size() + " changed paths, "
+                     + updated.getFiles().size() + " files (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to update index: " + e.getMessage());
+        }
+    }
+
+    // Serves requests one at a time until a stop request arrives or the socket is closed
+    public void serve(ServerSocket server) throws IOException {
+        while (!server.isClosed()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (SocketException e) {
+                return;
+            }
+            try (Socket connection = socket) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8));
+                String request = in.readLine();
+                if (request == null) {
+                    continue;
+                }
+                if (request.trim().equals("stop")) {
+                    out.write("Stopping\n");
+                    out.flush();
+                    server.close();
+                    return;
+                }
+                out.write(answer(request));
+                out.flush();
+            } catch (IOException e) {
+                log.warn("Failed to answer request: " + e.getMessage());
+            }
+        }
+    }
+
+    public String answer(String request) {
+        SourceIndex current = index;
+        if (current != answeredIndex) {
+            answers.clear();
+            tracer = null;
+            answeredIndex = current;
+        }
+
+        String key = request.trim();
+        String answer = answers.get(key);
+        if (answer == null) {
+            try {
+                answer = compute(current, key);
+                answers.put(key, answer);
+            } catch (IllegalArgumentException e) {
+                return "Error: " + e.getMessage() + "\n";
+            } catch (IOException | RuntimeException e) {
+                log.warn("Request failed: " + key, e);
+                return "Error: " + e + "\n";
+            }
+        }
+        return answer;
+    }
+
+    private String compute(SourceIndex current, String request) throws IOException {
+        String[] tokens = request.isEmpty() ? new String[] {""} : request.split("\\s+");
+        String goal = tokens[0];
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < tokens.length; i++) {
+            int eq = tokens[i].indexOf('=');
+            if (eq == -1) {
+                throw new IllegalArgumentException("Expected key=value: " + tokens[i]);
+            }
+            options.put(tokens[i].substring(0, eq), tokens[i].substring(eq + 1));
+        }
+        ReportFormat format = ReportFormat.parse(options.getOrDefault("format", "text"));
+
+        StringWriter out = new StringWriter();
+        switch (goal) {
+            case "status":
+                out.write("Root: " + rootDir + "\n");
+                out.write("Modules: " + current.getModules().size() + "\n");
+                out.write("Files: " + current.getFiles().size() + "\n");
+                out.write("Search patterns: " + String.join(", ", current.getSearchPatterns()) + "\n");
+                break;
+            case "list-expose": {
+                ExposeReport report = new ExposeReport(current, Boolean.parseBoolean(options.get("showDependency")));
+                if (format == ReportFormat.TEXT) {
+                    try (ReportLog reportLog = ReportLog.to(log, out)) {
+                        report.displayText(reportLog);
+                    }
+                } else {
+                    try (RecordWriter writer = RecordWriter.open(format, goal, out, true)) {
+                        report.writeRecords(writer);
+                    }
+                }
+                break;
+            }
+            case "list-table": {
+                TableReport report = new TableReport(current);
+                if (format == ReportFormat.TEXT) {
+                    try (ReportLog reportLog = ReportLog.to(log, out)) {
+                        report.displayText(reportLog);
+                    }
+                } else {
+                    try (RecordWriter writer = RecordWriter.open(format, goal, out, true)) {
+                        report.writeRecords(writer);
+                    }
+                }
+                break;
+            }
+            case "list-http-request": {
+                // Call sites were extracted for the daemon's search patterns only
+                if (tracer == null) {
+                    tracer = new Tracer(current, log);
+                }
+                HttpRequestReport report = new HttpRequestReport(tracer, current.getSearchPatterns(), Collections.emptyMap());
+                if (format == ReportFormat.TEXT) {
+                    try (ReportLog reportLog = ReportLog.to(log, out)) {
+                        HttpRequestReport.displayHeader(reportLog, rootDir, current.getSearchPatterns());
+                        report.displayText(reportLog);
+                    }
+                } else {
+                    try (RecordWriter writer = RecordWriter.open(format, goal, out, true)) {
+                        report.writeRecords(writer);
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown request: " + goal
+                                                   + " (expected list-expose, list-table, list-http-request, status or stop)");
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.daikikanai.moduleanalyzer.daemon;
+
+import com.github.daikikanai.moduleanalyzer.AbstractAnalyzerMojo;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.listhttprequest.HttpRequestReport;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+@Mojo(name = "daemon")
+public class DaemonMojo extends AbstractAnalyzerMojo {
+
+    // Patterns list-http-request requests are answered for; call sites are extracted for these only
+    @Parameter(property = "searchPatterns", defaultValue = HttpRequestReport.DEFAULT_SEARCH_PATTERNS)
+    private String searchPatterns;
+
+    // Port on the loopback interface; 0 picks a free one, written to daemon.port in the cache directory
+    @Parameter(property = "port", defaultValue = "0")
+    private int port;
+
+    // The daemon updates its index as files change, so it never shares it with other executions
+    @Override
+    protected boolean sharesAnalysis() {
+        return false;
+    }
+
+    public void execute() throws MojoExecutionException {
+        try {
+            Path root = resolveRootDir();
+            List<String> patternList = HttpRequestReport.parseSearchPatterns(searchPatterns);
+
+            SourceIndex index = scanIndex(root, patternList);
+            reportStatistics();
+            AnalysisDaemon daemon = new AnalysisDaemon(rootDir, index, analyzerLog());
+
+            // Rescans run on the scanner of the first scan, which is closed when the daemon stops
+            try (SourceWatcher watcher = new SourceWatcher(resolveSourceTree(root));
+                 ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+                Thread watching = new Thread(() -> watcher.run(daemon::update), "module-analyzer-watch");
+                watching.setDaemon(true);
+                watching.start();
+
+                Path portFile = resolveCacheFile("daemon.port");
+                if (portFile != null) {
+                    Files.createDirectories(portFile.getParent());
+                    Files.write(portFile, String.valueOf(server.getLocalPort()).getBytes(StandardCharsets.UTF_8));
+                }
+                getLog().info("Module analyzer daemon listening on " + server.getInetAddress().getHostAddress()
+                              + ":" + server.getLocalPort() + " (" + index.getFiles().size() + " files indexed)");
+
+                try {
+                    daemon.serve(server);
+                } finally {
+                    if (portFile != null) {
+                        Files.deleteIfExists(portFile);
+                    }
+                }
+            }
+            getLog().info("Module analyzer daemon stopped");
+
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error running daemon", e);
+        } finally {
+            closeScanners();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.daikikanai.moduleanalyzer.daemon;
+
+import com.github.daikikanai.moduleanalyzer.index.SourceTree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+// Watches every directory of the source tree that the scan does not skip and reports changed paths in batches. Events arriving within
+// QUIET_PERIOD_MILLIS of each other form one batch, so saving many files causes a single update.
+public class SourceWatcher implements Closeable {
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    public interface ChangeListener {
+        void onChange(Set<Path> changedPaths);
+    }
+
+    private final Path root;
+    private final SourceTree tree;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    public SourceWatcher(SourceTree tree) throws IOException {
+        this.root = tree.getRoot();
+        this.tree = tree;
+        this.watchService = root.getFileSystem().newWatchService();
+        registerAll(root);
+    }
+
+    // Blocks until the watcher is closed
+    public void run(ChangeListener listener) {
+        try {
+            while (true) {
+                Set<Path> changed = new TreeSet<>();
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    collect(key, changed);
+                    key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (!changed.isEmpty()) {
+                    listener.onChange(changed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed by the daemon on shutdown
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path directory = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // Events were lost; everything has to be read again
+            if (event.kind() == OVERFLOW || directory == null) {
+                changed.add(root);
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            changed.add(path);
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    registerAll(path);
+                } catch (IOException e) {
+                    changed.add(root);
+                }
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    private void registerAll(Path start) throws IOException {
+        tree.walk(start, new SourceTree.Visitor() {
+            @Override
+            public void directory(Path dir) throws IOException {
+                directories.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+            }
+
+            @Override
+            public void javaFile(Path file) {
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.daikikanai.moduleanalyzer.graph;
+
+import com.github.daikikanai.moduleanalyzer.index.DependencyResolver;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
+import java.util.*;
+
+// Class dependency graph over dense integer ids, assigned in class name order
+public class ClassGraph {
+    private final SymbolTable classes;
+    private final Digraph digraph;
+
+    private ClassGraph(SymbolTable classes, Digraph digraph) {
+        this.classes = classes;
+        this.digraph = digraph;
+    }
+
+    public static ClassGraph build(SourceIndex index) {
+        Metrics.Phase phase = Metrics.phase("graph");
+        try {
+            return buildGraph(index);
+        } finally {
+            phase.end();
+        }
+    }
+
+    private static ClassGraph buildGraph(SourceIndex index) {
+        SymbolTable classes = SymbolTable.sorted(index.getClassNames());
+
+        DependencyResolver resolver = new DependencyResolver(classes.names());
+        List<int[]> successors = index.getScanner().mapUnchecked(classes.names(), className -> {
+            int self = classes.idOf(className);
+            // A class always mentions its own name; self edges carry no information
+            return Arrays.stream(resolver.resolveIds(index.findByClassName(className)))
+                         .filter(dependency -> dependency != self)
+                         .toArray();
+        });
+
+        return new ClassGraph(classes, new Digraph(successors.toArray(new int[0][])));
+    }
+
+    public int size() {
+        return classes.size();
+    }
+
+    public int idOf(String className) {
+        return classes.idOf(className);
+    }
+
+    public String nameOf(int id) {
+        return classes.nameOf(id);
+    }
+
+    public int edgeStart(int id) {
+        return digraph.edgeStart(id);
+    }
+
+    public int edgeEnd(int id) {
+        return digraph.edgeEnd(id);
+    }
+
+    public int edgeTarget(int edge) {
+        return digraph.edgeTarget(edge);
+    }
+
+    public int outDegree(int id) {
+        return digraph.outDegree(id);
+    }
+
+    public Digraph getDigraph() {
+        return digraph;
+    }
+
+    public Reachability reachability(BitSet targets) {
+        return new Reachability(digraph, targets);
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.daikikanai.moduleanalyzer.graph;
+
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
+import java.util.*;
+
+// Compressed sparse rows: the successors of node n are targets[offsets[n]] .. targets[offsets[n + 1] - 1],
+// sorted and without duplicates
+public class Digraph {
+    private final int[] offsets;
+    private final int[] targets;
+
+    private Digraph(int[] offsets, int[] targets) {
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    // Each row must already be sorted and free of duplicates
+    public Digraph(int[][] successors) {
+        this.offsets = new int[successors.length + 1];
+        for (int node = 0; node < successors.length; node++) {
+            offsets[node + 1] = offsets[node] + successors[node].length;
+        }
+        this.targets = new int[offsets[successors.length]];
+        for (int node = 0; node < successors.length; node++) {
+            System.arraycopy(successors[node], 0, targets, offsets[node], successors[node].length);
+        }
+    }
+
+    // Collects edges in any order, then packs them into rows
+    public static class Builder {
+        private int[] sources = new int[16];
+        private int[] destinations = new int[16];
+        private int edgeCount;
+
+        public void addEdge(int from, int to) {
+            if (edgeCount == sources.length) {
+                sources = Arrays.copyOf(sources, edgeCount * 2);
+                destinations = Arrays.copyOf(destinations, edgeCount * 2);
+            }
+            sources[edgeCount] = from;
+            destinations[edgeCount] = to;
+            edgeCount++;
+        }
+
+        public Digraph build(int nodeCount) {
+            int[] offsets = new int[nodeCount + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                offsets[sources[i] + 1]++;
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                offsets[node + 1] += offsets[node];
+            }
+
+            int[] filled = Arrays.copyOf(offsets, nodeCount);
+            int[] targets = new int[edgeCount];
+            for (int i = 0; i < edgeCount; i++) {
+                targets[filled[sources[i]]++] = destinations[i];
+            }
+
+            // Sort every row and squeeze out repeated edges
+            int[] packedOffsets = new int[nodeCount + 1];
+            int size = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                Arrays.sort(targets, offsets[node], offsets[node + 1]);
+                for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                    if (i == offsets[node] || targets[i] != targets[i - 1]) {
+                        targets[size++] = targets[i];
+                    }
+                }
+                packedOffsets[node + 1] = size;
+            }
+
+            return new Digraph(packedOffsets, Arrays.copyOf(targets, size));
+        }
+    }
+
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    // Edges are numbered so that those leaving a node form the range edgeStart(node) .. edgeEnd(node) - 1
+    public int edgeStart(int node) {
+        return offsets[node];
+    }
+
+    public int edgeEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    public int edgeTarget(int edge) {
+        return targets[edge];
+    }
+
+    public int outDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    public Digraph reverse() {
+        int n = size();
+        int[] reverseOffsets = new int[n + 1];
+        for (int target : targets) {
+            reverseOffsets[target + 1]++;
+        }
+        for (int node = 0; node < n; node++) {
+            reverseOffsets[node + 1] += reverseOffsets[node];
+        }
+
+        // Sources are visited in order, so predecessor rows come out sorted
+        int[] filled = Arrays.copyOf(reverseOffsets, n);
+        int[] sources = new int[targets.length];
+        for (int node = 0; node < n; node++) {
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                sources[filled[targets[edge]]++] = node;
+            }
+        }
+
+        return new Digraph(reverseOffsets, sources);
+    }
+
+    // Every node reachable from the start nodes, including the start nodes themselves
+    public BitSet reachableFrom(BitSet start) {
+        BitSet visited = (BitSet) start.clone();
+        int[] stack = new int[size()];
+        int stackSize = 0;
+        for (int node = start.nextSetBit(0); node >= 0; node = start.nextSetBit(node + 1)) {
+            stack[stackSize++] = node;
+        }
+
+        long edges = 0;
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                int next = targets[edge];
+                edges++;
+                if (!visited.get(next)) {
+                    visited.set(next);
+                    stack[stackSize++] = next;
+                }
+            }
+        }
+
+        Metrics.count(Metrics.Counter.GRAPH_NODES_VISITED, visited.cardinality());
+        Metrics.count(Metrics.Counter.GRAPH_EDGES_VISITED, edges);
+        return visited;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.daikikanai.moduleanalyzer.graph;
+
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
+import java.util.*;
+
+// Paths from one node to many targets of a Reachability out of a single depth-first search that records
+// the parent of every node it reaches. Successors are taken in edge order and nodes that reach none of the
+// wanted targets are skipped, so each target gets the path a search for it alone would find.
+// The scratch arrays are kept between searches and only the entries a search touched are reset;
+// a finder is used by one thread at a time.
+public class PathFinder {
+    private final Digraph graph;
+    private final Reachability reachability;
+    private final int[] parents;
+    private final BitSet visited;
+    private final int[] stack;
+    private final int[] positions;
+    private final int[] touched;
+    private int touchedCount;
+    private int source = -1;
+
+    public PathFinder(Digraph graph, Reachability reachability) {
+        this.graph = graph;
+        this.reachability = reachability;
+        this.parents = new int[graph.size()];
+        this.visited = new BitSet(graph.size());
+        // A node is on the stack and touched at most once, so all of them fit in the node count
+        this.stack = new int[graph.size()];
+        this.positions = new int[graph.size()];
+        this.touched = new int[graph.size()];
+    }
+
+    // Searches from node until every wanted target (by target index) is found or nothing is left to visit
+    public void search(int node, BitSet wantedTargets) {
+        for (int i = 0; i < touchedCount; i++) {
+            visited.clear(touched[i]);
+        }
+        touchedCount = 0;
+        source = node;
+
+        int remaining = wantedTargets.cardinality() - visit(node, -1, wantedTargets);
+        int depth = 0;
+        long edges = 0;
+        stack[depth] = node;
+        positions[depth++] = graph.edgeStart(node);
+
+        while (depth > 0 && remaining > 0) {
+            int current = stack[depth - 1];
+            int position = positions[depth - 1];
+            int end = graph.edgeEnd(current);
+            while (position < end
+                   && (visited.get(graph.edgeTarget(position))
+                       || !reachability.reachableTargets(graph.edgeTarget(position)).intersects(wantedTargets))) {
+                position++;
+                edges++;
+            }
+
+            if (position < end) {
+                edges++;
+                int next = graph.edgeTarget(position);
+                positions[depth - 1] = position + 1;
+                remaining -= visit(next, current, wantedTargets);
+                stack[depth] = next;
+                positions[depth++] = graph.edgeStart(next);
+            } else {
+                depth--;
+            }
+        }
+
+        Metrics.count(Metrics.Counter.GRAPH_NODES_VISITED, touchedCount);
+        Metrics.count(Metrics.Counter.GRAPH_EDGES_VISITED, edges);
+    }
+
+    // 1 when the node is one of the wanted targets
+    private int visit(int node, int parent, BitSet wantedTargets) {
+        visited.set(node);
+        parents[node] = parent;
+        touched[touchedCount++] = node;
+        int targetIndex = reachability.indexOfTarget(node);
+        return targetIndex >= 0 && wantedTargets.get(targetIndex) ? 1 : 0;
+    }
+
+    // The path from the node of the last search to the target; empty when the search did not reach it
+    public int[] pathTo(int targetIndex) {
+        int target = reachability.targetAt(targetIndex);
+        if (source == -1 || !visited.get(target)) {
+            return new int[0];
+        }
+        int length = 0;
+        for (int node = target; node != -1; node = parents[node]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int node = target; node != -1; node = parents[node]) {
+            path[--length] = node;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.daikikanai.moduleanalyzer.graph;
+
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
+import java.util.*;
+
+// For every node, the set of target nodes reachable from it (itself included).
+// Sets are computed once per strongly connected component, sinks first, and
+// shared between components whose reachable targets are identical.
+// Target sets are indexed densely by target position, not by node id.
+public class Reachability {
+    private final StronglyConnectedComponents components;
+    private final int[] targetNodes;
+    private final int[] targetIndexByNode;
+    private final BitSet[] reachableByComponent;
+
+    public Reachability(Digraph graph, BitSet targets) {
+        this.components = new StronglyConnectedComponents(graph);
+        this.targetNodes = targets.stream().toArray();
+        this.targetIndexByNode = new int[graph.size()];
+        Arrays.fill(targetIndexByNode, -1);
+        for (int i = 0; i < targetNodes.length; i++) {
+            targetIndexByNode[targetNodes[i]] = i;
+        }
+
+        int componentCount = components.count();
+        List<List<Integer>> members = components.components();
+        this.reachableByComponent = new BitSet[componentCount];
+        BitSet empty = new BitSet();
+        long edges = 0;
+
+        for (int c = 0; c < componentCount; c++) {
+            BitSet own = new BitSet();
+            Set<BitSet> successorSets = Collections.newSetFromMap(new IdentityHashMap<>());
+
+            for (int node : members.get(c)) {
+                if (targetIndexByNode[node] >= 0) {
+                    own.set(targetIndexByNode[node]);
+                }
+                for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                    int successor = graph.edgeTarget(edge);
+                    edges++;
+                    int successorComponent = components.componentOf(successor);
+                    if (successorComponent != c && !reachableByComponent[successorComponent].isEmpty()) {
+                        successorSets.add(reachableByComponent[successorComponent]);
+                    }
+                }
+            }
+
+            if (own.isEmpty() && successorSets.isEmpty()) {
+                reachableByComponent[c] = empty;
+            } else if (own.isEmpty() && successorSets.size() == 1) {
+                reachableByComponent[c] = successorSets.iterator().next();
+            } else {
+                for (BitSet successorSet : successorSets) {
+                    own.or(successorSet);
+                }
+                reachableByComponent[c] = own;
+            }
+        }
+        Metrics.count(Metrics.Counter.GRAPH_NODES_VISITED, graph.size());
+        Metrics.count(Metrics.Counter.GRAPH_EDGES_VISITED, edges);
+    }
+
+    // The returned set is shared and must not be modified
+    public BitSet reachableTargets(int node) {
+        return reachableByComponent[components.componentOf(node)];
+    }
+
+    public boolean canReach(int node, int targetIndex) {
+        return reachableTargets(node).get(targetIndex);
+    }
+
+    public int indexOfTarget(int node) {
+        return targetIndexByNode[node];
+    }
+
+    public int targetAt(int targetIndex) {
+        return targetNodes[targetIndex];
+    }
+}
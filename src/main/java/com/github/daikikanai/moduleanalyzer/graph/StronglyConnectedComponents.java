@@ -0,0 +1,95 @@
+package com.github.daikikanai.moduleanalyzer.graph;
+
+import java.util.*;
+
+// Iterative Tarjan. Components are numbered in completion order, so every edge
+// between two components points from a higher number to a lower one.
+public class StronglyConnectedComponents {
+    private final int[] component;
+    private final int count;
+
+    public StronglyConnectedComponents(Digraph graph) {
+        int n = graph.size();
+        component = new int[n];
+
+        int[] index = new int[n];
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        int[] edgePosition = new int[n];
+        Arrays.fill(index, -1);
+
+        int nextIndex = 0;
+        int stackSize = 0;
+        int componentCount = 0;
+
+        for (int start = 0; start < n; start++) {
+            if (index[start] != -1) {
+                continue;
+            }
+
+            index[start] = low[start] = nextIndex++;
+            stack[stackSize++] = start;
+            onStack[start] = true;
+            callStack[0] = start;
+            edgePosition[0] = graph.edgeStart(start);
+            int depth = 1;
+
+            while (depth > 0) {
+                int node = callStack[depth - 1];
+
+                if (edgePosition[depth - 1] < graph.edgeEnd(node)) {
+                    int next = graph.edgeTarget(edgePosition[depth - 1]++);
+                    if (index[next] == -1) {
+                        index[next] = low[next] = nextIndex++;
+                        stack[stackSize++] = next;
+                        onStack[next] = true;
+                        callStack[depth] = next;
+                        edgePosition[depth] = graph.edgeStart(next);
+                        depth++;
+                    } else if (onStack[next]) {
+                        low[node] = Math.min(low[node], index[next]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                if (low[node] == index[node]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        component[member] = componentCount;
+                    } while (member != node);
+                    componentCount++;
+                }
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+            }
+        }
+
+        this.count = componentCount;
+    }
+
+    public int componentOf(int node) {
+        return component[node];
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public List<List<Integer>> components() {
+        List<List<Integer>> components = new ArrayList<>();
+        for (int c = 0; c < count; c++) {
+            components.add(new ArrayList<>());
+        }
+        for (int node = 0; node < component.length; node++) {
+            components.get(component[node]).add(node);
+        }
+        return components;
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.daikikanai.moduleanalyzer.graph;
+
+import java.util.*;
+
+// Interns names (class names, module names) to dense integer ids, in the order they are first seen.
+// Graphs and sets are kept over the ids; names are only looked up again for display.
+public class SymbolTable {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    // Ids assigned in name order, so id order is name order
+    public static SymbolTable sorted(Collection<String> names) {
+        List<String> sortedNames = new ArrayList<>(names);
+        Collections.sort(sortedNames);
+        SymbolTable symbols = new SymbolTable();
+        for (String name : sortedNames) {
+            symbols.intern(name);
+        }
+        return symbols;
+    }
+
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    public String nameOf(int id) {
+        return names.get(id);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public List<String> names() {
+        return Collections.unmodifiableList(names);
+    }
+}
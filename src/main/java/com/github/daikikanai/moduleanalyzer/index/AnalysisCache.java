@@ -0,0 +1,297 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Safe to share between scanning threads
+public class AnalysisCache {
+    // Bump whenever FileFacts or the file layout changes
+    private static final int FORMAT_VERSION = 3;
+    private static final int MAGIC = 0x4d414331;
+
+    private final Path cacheFile;
+    private final String pluginVersion;
+    private final String charset;
+    private final Map<String, Entry> entries;
+    private final Set<String> touched;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private AnalysisCache(Path cacheFile, String pluginVersion, String charset, Map<String, Entry> entries) {
+        this.cacheFile = cacheFile;
+        this.pluginVersion = pluginVersion;
+        this.charset = charset;
+        this.entries = entries;
+        this.touched = ConcurrentHashMap.newKeySet();
+    }
+
+    private static class Entry {
+        final long lastModified;
+        final long size;
+        final byte[] hash;
+        final FileFacts facts;
+
+        Entry(long lastModified, long size, byte[] hash, FileFacts facts) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.hash = hash;
+            this.facts = facts;
+        }
+    }
+
+    public static AnalysisCache load(Path cacheFile, String pluginVersion, Charset charset) {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+        if (Files.isRegularFile(cacheFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+                // Entries written by another plugin version or for another source encoding are evicted by starting empty
+                if (in.readInt() == MAGIC && in.readInt() == FORMAT_VERSION
+                    && pluginVersion.equals(in.readUTF()) && charset.name().equals(in.readUTF())) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        String path = readString(in);
+                        long lastModified = in.readLong();
+                        long size = in.readLong();
+                        byte[] hash = new byte[in.readInt()];
+                        in.readFully(hash);
+                        entries.put(path, new Entry(lastModified, size, hash, readFacts(in)));
+                    }
+                }
+            } catch (IOException e) {
+                // A truncated or corrupt cache is simply rebuilt
+                entries.clear();
+            }
+        }
+
+        return new AnalysisCache(cacheFile, pluginVersion, charset.name(), entries);
+    }
+
+    public FileFacts load(Path file, List<String> searchPatterns, SourceReader reader,
+                          Function<ByteBuffer, FileFacts> parser) throws IOException {
+        String key = file.toAbsolutePath().normalize().toString();
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        touched.add(key);
+
+        Entry entry = entries.get(key);
+        boolean usable = entry != null && entry.facts.hasCallSitesFor(searchPatterns);
+        if (usable && entry.lastModified == lastModified && entry.size == size) {
+            hits.incrementAndGet();
+            Metrics.count(Metrics.Counter.CACHE_HITS, 1);
+            return entry.facts;
+        }
+
+        ByteBuffer bytes = reader.read(file);
+        byte[] hash = hash(bytes.duplicate());
+
+        // Touched but unchanged files (e.g. after a fresh checkout) keep their facts
+        if (usable && Arrays.equals(entry.hash, hash)) {
+            hits.incrementAndGet();
+            Metrics.count(Metrics.Counter.CACHE_HITS, 1);
+            entries.put(key, new Entry(lastModified, size, hash, entry.facts));
+            return entry.facts;
+        }
+
+        misses.incrementAndGet();
+        Metrics.count(Metrics.Counter.CACHE_MISSES, 1);
+        FileFacts facts = parser.apply(bytes);
+        entries.put(key, new Entry(lastModified, size, hash, facts));
+        return facts;
+    }
+
+    public void save(Path root) throws IOException {
+        // Drop entries for files under root that no longer exist
+        String rootPrefix = root.toAbsolutePath().normalize().toString() + File.separator;
+        entries.keySet().removeIf(key -> key.startsWith(rootPrefix) && !touched.contains(key));
+
+        Files.createDirectories(cacheFile.getParent());
+        Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(pluginVersion);
+            out.writeUTF(charset);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                writeString(out, e.getKey());
+                out.writeLong(entry.lastModified);
+                out.writeLong(entry.size);
+                out.writeInt(entry.hash.length);
+                out.write(entry.hash);
+                writeFacts(out, entry.facts);
+            }
+        }
+
+        Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public Path getCacheFile() {
+        return cacheFile;
+    }
+
+    private static byte[] hash(ByteBuffer bytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(bytes);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void writeFacts(DataOutputStream out, FileFacts facts) throws IOException {
+        writeNullableString(out, facts.getPackageName());
+        writeStrings(out, facts.getImports());
+        writeStrings(out, facts.getIdentifiers());
+
+        out.writeInt(facts.getStringLiterals().size());
+        for (Map.Entry<String, String> literal : facts.getStringLiterals().entrySet()) {
+            writeString(out, literal.getKey());
+            writeString(out, literal.getValue());
+        }
+
+        out.writeInt(facts.getConstants().size());
+        for (Map.Entry<String, String> constant : facts.getConstants().entrySet()) {
+            writeString(out, constant.getKey());
+            writeString(out, constant.getValue());
+        }
+
+        out.writeInt(facts.getFieldNamesByType().size());
+        for (Map.Entry<String, List<String>> field : facts.getFieldNamesByType().entrySet()) {
+            writeString(out, field.getKey());
+            writeStrings(out, field.getValue());
+        }
+
+        out.writeInt(facts.getFirstCallByReceiver().size());
+        for (Map.Entry<String, MemberCall> call : facts.getFirstCallByReceiver().entrySet()) {
+            writeString(out, call.getKey());
+            out.writeInt(call.getValue().getLineNumber());
+            writeString(out, call.getValue().getMethodName());
+        }
+
+        out.writeInt(facts.getCallSites().size());
+        for (Map.Entry<String, List<CallSite>> pattern : facts.getCallSites().entrySet()) {
+            writeString(out, pattern.getKey());
+            out.writeInt(pattern.getValue().size());
+            for (CallSite callSite : pattern.getValue()) {
+                out.writeInt(callSite.getLineNumber());
+                writeString(out, callSite.getLineContent());
+                writeString(out, callSite.getMethodName());
+                writeString(out, callSite.getUrlExpression());
+            }
+        }
+    }
+
+    private static FileFacts readFacts(DataInputStream in) throws IOException {
+        String packageName = readNullableString(in);
+        List<String> imports = readStrings(in, new ArrayList<>());
+        Set<String> identifiers = readStrings(in, new HashSet<>());
+
+        Map<String, String> stringLiterals = new HashMap<>();
+        int literalCount = in.readInt();
+        for (int i = 0; i < literalCount; i++) {
+            stringLiterals.put(readString(in), readString(in));
+        }
+
+        Map<String, String> constants = new LinkedHashMap<>();
+        int constantCount = in.readInt();
+        for (int i = 0; i < constantCount; i++) {
+            constants.put(readString(in), readString(in));
+        }
+
+        Map<String, List<String>> fieldNamesByType = new HashMap<>();
+        int fieldCount = in.readInt();
+        for (int i = 0; i < fieldCount; i++) {
+            fieldNamesByType.put(readString(in), readStrings(in, new ArrayList<>()));
+        }
+
+        Map<String, MemberCall> firstCallByReceiver = new HashMap<>();
+        int callCount = in.readInt();
+        for (int i = 0; i < callCount; i++) {
+            String receiver = readString(in);
+            firstCallByReceiver.put(receiver, new MemberCall(in.readInt(), readString(in)));
+        }
+
+        Map<String, List<CallSite>> callSites = new LinkedHashMap<>();
+        int patternCount = in.readInt();
+        for (int i = 0; i < patternCount; i++) {
+            String pattern = readString(in);
+            int siteCount = in.readInt();
+            List<CallSite> sites = new ArrayList<>(siteCount);
+            for (int j = 0; j < siteCount; j++) {
+                int lineNumber = in.readInt();
+                String lineContent = readString(in);
+                String methodName = readString(in);
+                sites.add(new CallSite(pattern, lineNumber, lineContent, methodName, readString(in)));
+            }
+            callSites.put(pattern, sites);
+        }
+
+        return new FileFacts(packageName, imports, identifiers, stringLiterals, constants,
+                             fieldNamesByType, firstCallByReceiver, callSites);
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static <C extends Collection<String>> C readStrings(DataInputStream in, C values) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    // writeUTF is limited to 64KB, which long source lines can exceed
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+public class CallSite {
+    private final String pattern;
+    private final int lineNumber;
+    private final String lineContent;
+    private final String methodName;
+    private final String urlExpression;
+
+    public CallSite(String pattern, int lineNumber, String lineContent, String methodName, String urlExpression) {
+        this.pattern = pattern;
+        this.lineNumber = lineNumber;
+        this.lineContent = lineContent;
+        this.methodName = methodName;
+        this.urlExpression = urlExpression;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getLineContent() {
+        return lineContent;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getUrlExpression() {
+        return urlExpression;
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+// Real paths of the files changed since a base revision
+public class ChangedFiles {
+    private final Set<Path> paths;
+
+    private ChangedFiles(Set<Path> paths) {
+        this.paths = paths;
+    }
+
+    // Committed, staged and unstaged changes against baseRef, plus untracked files
+    public static ChangedFiles fromGit(Path workingDir, String baseRef) throws IOException {
+        Path topLevel = Paths.get(git(workingDir, "rev-parse", "--show-toplevel").get(0)).toRealPath();
+
+        Set<Path> paths = new TreeSet<>();
+        for (String name : git(workingDir, "diff", "--name-only", baseRef, "--")) {
+            paths.add(resolve(topLevel, name));
+        }
+        for (String name : git(workingDir, "ls-files", "--others", "--exclude-standard", "--full-name")) {
+            paths.add(resolve(topLevel, name));
+        }
+
+        return new ChangedFiles(paths);
+    }
+
+    // One path per line; relative paths are resolved against baseDir, blank lines and # comments are ignored
+    public static ChangedFiles fromFile(Path listFile, Path baseDir) throws IOException {
+        Path realBaseDir = baseDir.toRealPath();
+        Set<Path> paths = new TreeSet<>();
+        for (String line : Files.readAllLines(listFile, StandardCharsets.UTF_8)) {
+            String name = line.trim();
+            if (!name.isEmpty() && !name.startsWith("#")) {
+                paths.add(resolve(realBaseDir, name));
+            }
+        }
+        return new ChangedFiles(paths);
+    }
+
+    public Set<Path> getPaths() {
+        return paths;
+    }
+
+    // Changed paths below dir, relative to it; deleted files are included
+    public Set<Path> relativeTo(Path dir) throws IOException {
+        Path realDir = dir.toRealPath();
+        Set<Path> relative = new TreeSet<>();
+        for (Path path : paths) {
+            if (path.startsWith(realDir)) {
+                relative.add(realDir.relativize(path));
+            }
+        }
+        return relative;
+    }
+
+    public int size() {
+        return paths.size();
+    }
+
+    private static Path resolve(Path baseDir, String name) {
+        return baseDir.toAbsolutePath().resolve(name.replace('/', File.separatorChar)).normalize();
+    }
+
+    private static List<String> git(Path workingDir, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        // Keep non-ASCII file names unescaped
+        command.add("-c");
+        command.add("core.quotePath=false");
+        command.addAll(Arrays.asList(args));
+
+        Process process = new ProcessBuilder(command)
+            .directory(workingDir.toFile())
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+
+        String output;
+        try (InputStream in = process.getInputStream()) {
+            output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        try {
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException("git " + String.join(" ", args) + " failed with exit code " + exitCode);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running git", e);
+        }
+
+        List<String> lines = new ArrayList<>();
+        for (String line : output.split("\n")) {
+            if (!line.trim().isEmpty()) {
+                lines.add(line.trim());
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Project-wide static final String constants keyed by declaring class and field name.
+// Values are resolved on first use, following qualified references and concatenations into other files.
+public class ConstantTable {
+    private static final Pattern LITERAL_PATTERN = Pattern.compile("^[\"']([^\"']*)[\"']$");
+
+    private final Map<String, SourceFile> filesByClassName;
+    // Unresolvable constants are memoized as empty so they are not attempted again. Threads tracing at the
+    // same time share the memo; each follows its own chain of references.
+    private final Map<String, Optional<String>> resolved = new ConcurrentHashMap<>();
+    private final ThreadLocal<Set<String>> resolving = ThreadLocal.withInitial(HashSet::new);
+
+    private ConstantTable(Map<String, SourceFile> filesByClassName) {
+        this.filesByClassName = filesByClassName;
+    }
+
+    public static ConstantTable build(SourceIndex index) {
+        Map<String, SourceFile> filesByClassName = new HashMap<>();
+        for (SourceFile file : index.getFiles()) {
+            if (!file.getFacts().getConstants().isEmpty()) {
+                filesByClassName.putIfAbsent(declaringClass(file), file);
+            }
+        }
+        return new ConstantTable(filesByClassName);
+    }
+
+    // Value of a constant, or null when it is unknown or depends on something that is not a constant
+    public String valueOf(String className, String fieldName) {
+        String key = className + "#" + fieldName;
+        Optional<String> known = resolved.get(key);
+        if (known != null) {
+            return known.orElse(null);
+        }
+
+        SourceFile file = filesByClassName.get(className);
+        String expression = file == null ? null : file.getFacts().getConstants().get(fieldName);
+        // A constant that refers back to itself is unresolvable
+        if (expression == null || !resolving.get().add(key)) {
+            return null;
+        }
+        String value;
+        try {
+            value = evaluate(file, expression);
+        } finally {
+            resolving.get().remove(key);
+        }
+
+        resolved.put(key, Optional.ofNullable(value));
+        return value;
+    }
+
+    // Resolves a reference as written in the given file: NAME, Type.NAME or com.example.Type.NAME
+    public String resolve(SourceFile file, String reference) {
+        reference = reference.trim();
+        int dot = reference.lastIndexOf('.');
+        if (dot == -1) {
+            return valueOf(declaringClass(file), reference);
+        }
+
+        String fieldName = reference.substring(dot + 1);
+        for (String candidate : candidateClasses(file, reference.substring(0, dot))) {
+            if (filesByClassName.containsKey(candidate)) {
+                return valueOf(candidate, fieldName);
+            }
+        }
+        return null;
+    }
+
+    // Value of a literal or a + concatenation of literals and constants; null if any part is unknown
+    public String evaluate(SourceFile file, String expression) {
+        StringBuilder value = new StringBuilder();
+        for (String part : splitConcatenation(expression)) {
+            Metrics.count(Metrics.Counter.REGEX_EVALUATIONS, 1);
+            Matcher literal = LITERAL_PATTERN.matcher(part);
+            String partValue = literal.matches() ? literal.group(1) : resolve(file, part);
+            if (partValue == null) {
+                return null;
+            }
+            value.append(partValue);
+        }
+        return value.toString();
+    }
+
+    // Splits on + outside string literals; parentheses around the whole expression are dropped
+    public static List<String> splitConcatenation(String expression) {
+        expression = expression.trim();
+        while (expression.startsWith("(") && expression.endsWith(")")) {
+            expression = expression.substring(1, expression.length() - 1).trim();
+        }
+
+        List<String> parts = new ArrayList<>();
+        boolean inLiteral = false;
+        int start = 0;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (inLiteral && c == '\\') {
+                i++;
+            } else if (c == '"') {
+                inLiteral = !inLiteral;
+            } else if (c == '+' && !inLiteral) {
+                parts.add(expression.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        parts.add(expression.substring(start).trim());
+        return parts;
+    }
+
+    // Fully qualified names the qualifier may stand for, most specific first
+    private static List<String> candidateClasses(SourceFile file, String qualifier) {
+        List<String> candidates = new ArrayList<>();
+        if (qualifier.contains(".")) {
+            candidates.add(qualifier);
+            return candidates;
+        }
+
+        List<String> imports = file.getFacts().getImports();
+        for (String imported : imports) {
+            if (imported.endsWith("." + qualifier)) {
+                candidates.add(imported);
+            }
+        }
+        String packageName = file.getPackageName();
+        candidates.add(packageName == null ? qualifier : packageName + "." + qualifier);
+        for (String imported : imports) {
+            if (imported.endsWith(".*")) {
+                candidates.add(imported.substring(0, imported.length() - 1) + qualifier);
+            }
+        }
+        return candidates;
+    }
+
+    private static String declaringClass(SourceFile file) {
+        return file.getFullClassName() != null ? file.getFullClassName() : file.getClassName();
+    }
+}
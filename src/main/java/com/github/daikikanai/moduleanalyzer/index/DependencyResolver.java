@@ -0,0 +1,98 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import java.util.*;
+
+// Class ids are positions in the class names the resolver was created with
+public class DependencyResolver {
+    private final List<String> classNames;
+    private final Map<String, Integer> ids;
+    private final Map<String, int[]> idsBySimpleName;
+
+    public DependencyResolver(Collection<String> classNames) {
+        this.classNames = new ArrayList<>(classNames);
+        this.ids = new HashMap<>();
+        Map<String, List<Integer>> bySimpleName = new HashMap<>();
+        for (int id = 0; id < this.classNames.size(); id++) {
+            String className = this.classNames.get(id);
+            ids.put(className, id);
+            String simpleClassName = className.substring(className.lastIndexOf('.') + 1);
+            bySimpleName.computeIfAbsent(simpleClassName, k -> new ArrayList<>()).add(id);
+        }
+        this.idsBySimpleName = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : bySimpleName.entrySet()) {
+            idsBySimpleName.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    public Set<String> resolve(SourceFile file) {
+        return resolve(file.getPackageName(), file.getImports(), file.getIdentifiers());
+    }
+
+    public Set<String> resolve(String packageName, List<String> imports, Set<String> identifiers) {
+        Set<String> dependencies = new HashSet<>();
+        for (int id : resolveIds(packageName, imports, identifiers)) {
+            dependencies.add(classNames.get(id));
+        }
+        return dependencies;
+    }
+
+    public int[] resolveIds(SourceFile file) {
+        return resolveIds(file.getPackageName(), file.getImports(), file.getIdentifiers());
+    }
+
+    // Sorted ids of the known classes the file depends on
+    public int[] resolveIds(String packageName, List<String> imports, Set<String> identifiers) {
+        int[] dependencies = new int[8];
+        int count = 0;
+        Set<String> importedClasses = new HashSet<>();
+        Set<String> wildcardPackages = new HashSet<>();
+
+        // Extract from import statements
+        for (String importedClass : imports) {
+            if (importedClass.endsWith(".*")) {
+                wildcardPackages.add(importedClass.substring(0, importedClass.length() - 2));
+            } else {
+                importedClasses.add(importedClass);
+                Integer id = ids.get(importedClass);
+                if (id != null) {
+                    dependencies = append(dependencies, count++, id);
+                }
+            }
+        }
+
+        // Extract from field declarations and method calls: every identifier that names a known class
+        for (String identifier : identifiers) {
+            int[] candidates = idsBySimpleName.get(identifier);
+            if (candidates == null) {
+                continue;
+            }
+            for (int id : candidates) {
+                // Verify it's imported or in the same package
+                String className = classNames.get(id);
+                String classPackage = className.substring(0, className.lastIndexOf('.'));
+                if (importedClasses.contains(className) ||
+                    classPackage.equals(packageName) ||
+                    wildcardPackages.contains(classPackage)) {
+                    dependencies = append(dependencies, count++, id);
+                }
+            }
+        }
+
+        Arrays.sort(dependencies, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || dependencies[i] != dependencies[i - 1]) {
+                dependencies[unique++] = dependencies[i];
+            }
+        }
+        return Arrays.copyOf(dependencies, unique);
+    }
+
+    private static int[] append(int[] values, int size, int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        return values;
+    }
+}
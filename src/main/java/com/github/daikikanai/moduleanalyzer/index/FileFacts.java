@@ -0,0 +1,71 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import java.util.*;
+
+public class FileFacts {
+    private final String packageName;
+    private final List<String> imports;
+    private final Set<String> identifiers;
+    private final Map<String, String> stringLiterals;
+    private final Map<String, String> constants;
+    private final Map<String, List<String>> fieldNamesByType;
+    private final Map<String, MemberCall> firstCallByReceiver;
+    private final Map<String, List<CallSite>> callSites;
+
+    public FileFacts(String packageName, List<String> imports, Set<String> identifiers,
+                     Map<String, String> stringLiterals, Map<String, String> constants,
+                     Map<String, List<String>> fieldNamesByType,
+                     Map<String, MemberCall> firstCallByReceiver, Map<String, List<CallSite>> callSites) {
+        this.packageName = packageName;
+        this.imports = imports;
+        this.identifiers = identifiers;
+        this.stringLiterals = stringLiterals;
+        this.constants = constants;
+        this.fieldNamesByType = fieldNamesByType;
+        this.firstCallByReceiver = firstCallByReceiver;
+        this.callSites = callSites;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public List<String> getImports() {
+        return imports;
+    }
+
+    public Set<String> getIdentifiers() {
+        return identifiers;
+    }
+
+    // First String literal assigned to each name, e.g. BASE_URL -> https://api.example.com
+    public Map<String, String> getStringLiterals() {
+        return stringLiterals;
+    }
+
+    // Initializer of each static final String field, e.g. ORDERS -> BASE + "/orders"
+    public Map<String, String> getConstants() {
+        return constants;
+    }
+
+    public Map<String, List<String>> getFieldNamesByType() {
+        return fieldNamesByType;
+    }
+
+    // First line where receiver.method( is called inside a known method
+    public Map<String, MemberCall> getFirstCallByReceiver() {
+        return firstCallByReceiver;
+    }
+
+    public Map<String, List<CallSite>> getCallSites() {
+        return callSites;
+    }
+
+    public List<CallSite> getCallSites(String pattern) {
+        return callSites.getOrDefault(pattern, Collections.emptyList());
+    }
+
+    public boolean hasCallSitesFor(List<String> patterns) {
+        return callSites.keySet().containsAll(patterns);
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+// Byte-level checks for the shapes the parser's line regexes need. Each one is necessary for its regex
+// (whose \w and \s are ASCII only), so a line failing it is skipped without being decoded.
+final class LineShape {
+    private LineShape() {
+    }
+
+    // name( or name ( as in a method declaration
+    static boolean wordBeforeParenthesis(SourceText text, int line) {
+        int length = text.rawLength(line);
+        for (int i = 0; i < length; i++) {
+            if (text.rawCharAt(line, i) == '(') {
+                int before = skipSpaceBackward(text, line, i - 1);
+                if (before >= 0 && isWordChar(text.rawCharAt(line, before))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Type name; as in a field declaration
+    static boolean typeAndNameBeforeSemicolon(SourceText text, int line) {
+        int length = text.rawLength(line);
+        for (int i = 0; i < length; i++) {
+            if (text.rawCharAt(line, i) != ';') {
+                continue;
+            }
+            int nameEnd = skipSpaceBackward(text, line, i - 1);
+            int nameStart = skipWordBackward(text, line, nameEnd);
+            if (nameStart == nameEnd) {
+                continue;
+            }
+            int typeEnd = skipSpaceBackward(text, line, nameStart);
+            if (typeEnd < nameStart && typeEnd >= 0 && isWordChar(text.rawCharAt(line, typeEnd))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // receiver.method( as in a member call
+    static boolean memberCall(SourceText text, int line) {
+        int length = text.rawLength(line);
+        for (int i = 1; i < length - 1; i++) {
+            if (text.rawCharAt(line, i) != '.' || !isWordChar(text.rawCharAt(line, i - 1))) {
+                continue;
+            }
+            int j = i + 1;
+            while (j < length && isWordChar(text.rawCharAt(line, j))) {
+                j++;
+            }
+            if (j == i + 1) {
+                continue;
+            }
+            while (j < length && isSpace(text.rawCharAt(line, j))) {
+                j++;
+            }
+            if (j < length && text.rawCharAt(line, j) == '(') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Position of the last non-space at or before from, or -1
+    private static int skipSpaceBackward(SourceText text, int line, int from) {
+        int i = from;
+        while (i >= 0 && isSpace(text.rawCharAt(line, i))) {
+            i--;
+        }
+        return i;
+    }
+
+    // Position before the run of word characters ending at from
+    private static int skipWordBackward(SourceText text, int line, int from) {
+        int i = from;
+        while (i >= 0 && isWordChar(text.rawCharAt(line, i))) {
+            i--;
+        }
+        return i;
+    }
+
+    // The regex \w without UNICODE_CHARACTER_CLASS
+    private static boolean isWordChar(char c) {
+        return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    // The regex \s without UNICODE_CHARACTER_CLASS
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0b || c == '\f' || c == '\r';
+    }
+}
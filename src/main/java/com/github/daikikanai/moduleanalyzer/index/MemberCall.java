@@ -0,0 +1,19 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+public class MemberCall {
+    private final int lineNumber;
+    private final String methodName;
+
+    public MemberCall(int lineNumber, String methodName) {
+        this.lineNumber = lineNumber;
+        this.methodName = methodName;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+}
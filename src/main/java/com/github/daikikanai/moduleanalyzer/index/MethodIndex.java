@@ -0,0 +1,75 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Method declarations of one file, found in a single forward pass. A method's span runs from its
+// declaration line to the line before the next declaration, so the enclosing method of any line
+// is a binary search for the last declaration at or above it.
+public class MethodIndex {
+    // Example: public void createOrder(
+    // Example: private static String getName(
+    private static final Pattern METHOD_PATTERN = Pattern.compile("(?:public|private|protected)\\s+(?:static\\s+)?(?:void|\\w+(?:<[^>]+>)?)\\s+(\\w+)\\s*\\(");
+    // Methods without a visibility modifier
+    private static final Pattern SIMPLE_METHOD_PATTERN = Pattern.compile("^\\s*(?:void|\\w+)\\s+(\\w+)\\s*\\(");
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList("if", "while", "for", "switch", "catch"));
+
+    private final int[] declarationLines;
+    private final String[] methodNames;
+
+    private MethodIndex(int[] declarationLines, String[] methodNames) {
+        this.declarationLines = declarationLines;
+        this.methodNames = methodNames;
+    }
+
+    public static MethodIndex build(SourceText text) {
+        int[] lines = new int[16];
+        List<String> names = new ArrayList<>();
+        Matcher methodMatcher = METHOD_PATTERN.matcher("");
+        Matcher simpleMatcher = SIMPLE_METHOD_PATTERN.matcher("");
+        int evaluations = 0;
+
+        for (int i = 0; i < text.getLineCount(); i++) {
+            // Both patterns need a name before an opening parenthesis; other lines are not decoded
+            if (!LineShape.wordBeforeParenthesis(text, i)) {
+                continue;
+            }
+            CharSequence line = text.line(i);
+
+            String methodName = null;
+            evaluations++;
+            if (methodMatcher.reset(line).find()) {
+                methodName = methodMatcher.group(1);
+            } else if (simpleMatcher.reset(line).find() && !KEYWORDS.contains(simpleMatcher.group(1))) {
+                methodName = simpleMatcher.group(1);
+            }
+
+            if (methodName != null) {
+                if (names.size() == lines.length) {
+                    lines = Arrays.copyOf(lines, lines.length * 2);
+                }
+                lines[names.size()] = i + 1;
+                names.add(methodName);
+            }
+        }
+
+        Metrics.count(Metrics.Counter.REGEX_EVALUATIONS, evaluations);
+        return new MethodIndex(Arrays.copyOf(lines, names.size()), names.toArray(new String[0]));
+    }
+
+    // Name of the method whose span contains the 1-based line, or "unknown" above the first declaration
+    public String methodAt(int lineNumber) {
+        int index = Arrays.binarySearch(declarationLines, lineNumber);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index >= 0 ? methodNames[index] : "unknown";
+    }
+
+    public int size() {
+        return methodNames.length;
+    }
+}
@@ -0,0 +1,184 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+// Splits work into contiguous chunks, runs them on a bounded pool and returns
+// the per-chunk results in input order, so merged output stays deterministic.
+// The pool is started on first use and kept for every later call; its idle threads
+// end on their own, so a scanner kept with a shared index holds none between scans.
+// close() ends the pool once its tasks are done, and a later call starts a new pool.
+public class ParallelScanner implements Closeable {
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final long IDLE_SECONDS = 10;
+
+    private final int threads;
+    private ThreadPoolExecutor executor;
+    // Set on the pool's own threads: a task that maps again runs that inline instead of waiting on the full pool
+    private final ThreadLocal<Boolean> worker = ThreadLocal.withInitial(() -> false);
+
+    public ParallelScanner(int threads) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    public static ParallelScanner sequential() {
+        return new ParallelScanner(1);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public interface ChunkTask<T, R> {
+        R apply(List<T> chunk) throws IOException;
+    }
+
+    public interface ItemTask<T, R> {
+        R apply(T item) throws IOException;
+    }
+
+    public <T, R> List<R> mapChunks(List<T> items, ChunkTask<T, R> task) throws IOException {
+        if (threads == 1 || items.size() < 2 || worker.get()) {
+            return Collections.singletonList(task.apply(items));
+        }
+
+        int chunkCount = Math.min(items.size(), threads * CHUNKS_PER_THREAD);
+        int chunkSize = (items.size() + chunkCount - 1) / chunkCount;
+
+        List<Callable<R>> chunkTasks = new ArrayList<>();
+        for (int start = 0; start < items.size(); start += chunkSize) {
+            List<T> chunk = items.subList(start, Math.min(start + chunkSize, items.size()));
+            chunkTasks.add(() -> task.apply(chunk));
+        }
+        List<Future<R>> futures = submit(chunkTasks);
+        try {
+            List<R> results = new ArrayList<>(futures.size());
+            for (Future<R> future : futures) {
+                results.add(await(future));
+            }
+            return results;
+        } finally {
+            // Chunks still queued after a failure would only occupy the pool for the next call
+            for (Future<R> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    // Submitted under the lock, so a concurrent close() never ends the pool between creating and using it
+    private synchronized <R> List<Future<R>> submit(List<Callable<R>> tasks) {
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(threads, threads, IDLE_SECONDS, TimeUnit.SECONDS,
+                                              new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(() -> {
+                    worker.set(true);
+                    runnable.run();
+                }, "module-analyzer-scan");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+        }
+        List<Future<R>> futures = new ArrayList<>(tasks.size());
+        for (Callable<R> task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        return futures;
+    }
+
+    // Tasks already submitted still complete; the threads end once they have
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    public <T, R> List<R> map(List<T> items, ItemTask<T, R> task) throws IOException {
+        List<R> results = new ArrayList<>(items.size());
+        for (List<R> chunk : mapChunks(items, chunk -> {
+            List<R> chunkResults = new ArrayList<>(chunk.size());
+            for (T item : chunk) {
+                chunkResults.add(task.apply(item));
+            }
+            return chunkResults;
+        })) {
+            results.addAll(chunk);
+        }
+        return results;
+    }
+
+    // Hands each item's result to the consumer, on the calling thread and in input order, as soon as that item
+    // and every earlier one are done, so results can be written while later items are still running
+    public <T, R> void forEachInOrder(List<T> items, ItemTask<T, R> task, Consumer<R> consumer) throws IOException {
+        if (threads == 1 || items.size() < 2 || worker.get()) {
+            for (T item : items) {
+                consumer.accept(task.apply(item));
+            }
+            return;
+        }
+
+        List<Callable<R>> itemTasks = new ArrayList<>(items.size());
+        for (T item : items) {
+            itemTasks.add(() -> task.apply(item));
+        }
+        List<Future<R>> futures = submit(itemTasks);
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                consumer.accept(await(futures.get(i)));
+                // A consumed result is not kept until the last item is done
+                futures.set(i, null);
+            }
+        } finally {
+            for (Future<R> future : futures) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    // For callers whose tasks cannot fail with an IOException
+    public <T, R> void forEachInOrderUnchecked(List<T> items, ItemTask<T, R> task, Consumer<R> consumer) {
+        try {
+            forEachInOrder(items, task, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // For callers whose tasks cannot fail with an IOException
+    public <T, R> List<R> mapUnchecked(List<T> items, ItemTask<T, R> task) {
+        try {
+            return map(items, task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <R> R await(Future<R> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scanning", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.*;
+
+// One pattern in .gitignore syntax. Without a slash it matches a file or directory name at any depth,
+// otherwise the path below its base directory. A trailing slash matches directories only, a leading ! re-includes.
+final class PathRule {
+    private final Path base;
+    private final boolean negated;
+    private final boolean directoryOnly;
+    private final boolean anyDepth;
+    private final List<PathMatcher> matchers;
+
+    private PathRule(Path base, boolean negated, boolean directoryOnly, boolean anyDepth, List<PathMatcher> matchers) {
+        this.base = base;
+        this.negated = negated;
+        this.directoryOnly = directoryOnly;
+        this.anyDepth = anyDepth;
+        this.matchers = matchers;
+    }
+
+    // Null for blank lines and comments
+    static PathRule parse(Path base, String line) {
+        String pattern = stripTrailingSpaces(line);
+        if (pattern.isEmpty() || pattern.startsWith("#")) {
+            return null;
+        }
+
+        boolean negated = pattern.startsWith("!");
+        if (negated) {
+            pattern = pattern.substring(1);
+        } else if (pattern.startsWith("\\#") || pattern.startsWith("\\!")) {
+            pattern = pattern.substring(1);
+        }
+        boolean directoryOnly = pattern.endsWith("/");
+        if (directoryOnly) {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+        if (pattern.startsWith("**/") && pattern.indexOf('/', 3) == -1) {
+            pattern = pattern.substring(3);
+        }
+        boolean anchored = pattern.startsWith("/");
+        if (anchored) {
+            pattern = pattern.substring(1);
+        }
+        if (pattern.isEmpty()) {
+            return null;
+        }
+        boolean anyDepth = !anchored && pattern.indexOf('/') == -1;
+
+        // Java globs need at least one directory for "**/", gitignore also accepts none
+        Set<String> globs = new LinkedHashSet<>();
+        String glob = toGlob(pattern);
+        globs.add(glob);
+        globs.add(glob.replace("/**/", "/"));
+        if (glob.startsWith("**/")) {
+            globs.add(glob.substring(3));
+        }
+        List<PathMatcher> matchers = new ArrayList<>();
+        for (String each : globs) {
+            matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + each));
+        }
+
+        return new PathRule(base, negated, directoryOnly, anyDepth, matchers);
+    }
+
+    static List<PathRule> parseAll(Path base, Collection<String> patterns) {
+        List<PathRule> rules = new ArrayList<>();
+        for (String pattern : patterns) {
+            PathRule rule = parse(base, pattern);
+            if (rule != null) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+
+    boolean isNegated() {
+        return negated;
+    }
+
+    // path must lie below the base and be written in the same form (relative or absolute)
+    boolean matches(Path path, boolean directory) {
+        if (directoryOnly && !directory) {
+            return false;
+        }
+        Path target = anyDepth ? path.getFileName() : base.relativize(path);
+        if (target == null) {
+            return false;
+        }
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // gitignore braces are literal, Java glob braces are groups
+    private static String toGlob(String pattern) {
+        return pattern.replace("{", "\\{").replace("}", "\\}");
+    }
+
+    private static String stripTrailingSpaces(String line) {
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) == ' ' && (end < 2 || line.charAt(end - 2) != '\\')) {
+            end--;
+        }
+        return line.substring(0, end);
+    }
+}
@@ -0,0 +1,200 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import java.util.*;
+
+// Finds all search patterns in one pass over a file, ignoring ASCII case. The patterns are compiled
+// once into an Aho-Corasick automaton with a full transition table over the 128 ASCII characters.
+// Patterns with other characters, or empty ones, are matched line by line instead.
+public class PatternMatcher {
+    private static final int ALPHABET = 128;
+
+    public interface MatchListener {
+        // Line and column are 1-based; the column counts bytes for byte-level text
+        void onMatch(int pattern, int lineNumber, int column);
+    }
+
+    private final List<String> patterns;
+    private final int[] transitions;
+    // Patterns ending in each state, including those reached through failure links
+    private final int[][] outputs;
+    private final List<Integer> linePatterns;
+
+    private PatternMatcher(List<String> patterns, int[] transitions, int[][] outputs, List<Integer> linePatterns) {
+        this.patterns = patterns;
+        this.transitions = transitions;
+        this.outputs = outputs;
+        this.linePatterns = linePatterns;
+    }
+
+    // Duplicates are dropped; pattern indexes refer to getPatterns()
+    public static PatternMatcher compile(Collection<String> searchPatterns) {
+        List<String> patterns = new ArrayList<>(new LinkedHashSet<>(searchPatterns));
+        List<Integer> linePatterns = new ArrayList<>();
+
+        // Trie over the lower-cased patterns
+        List<int[]> children = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        children.add(newState());
+        ends.add(new ArrayList<>());
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p).toLowerCase();
+            if (pattern.isEmpty() || !isAscii(pattern)) {
+                linePatterns.add(p);
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int c = pattern.charAt(i);
+                if (children.get(state)[c] == -1) {
+                    children.get(state)[c] = children.size();
+                    children.add(newState());
+                    ends.add(new ArrayList<>());
+                }
+                state = children.get(state)[c];
+            }
+            ends.get(state).add(p);
+        }
+
+        // Breadth-first, so each failure link points to an already completed state
+        int stateCount = children.size();
+        int[] transitions = new int[stateCount * ALPHABET];
+        int[] failure = new int[stateCount];
+        int[][] outputs = new int[stateCount][];
+        outputs[0] = toArray(ends.get(0));
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int child = children.get(0)[c];
+            if (child == -1) {
+                transitions[c] = 0;
+            } else {
+                transitions[c] = child;
+                failure[child] = 0;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            List<Integer> output = new ArrayList<>(ends.get(state));
+            for (int p : outputs[failure[state]]) {
+                output.add(p);
+            }
+            outputs[state] = toArray(output);
+
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = children.get(state)[c];
+                int fallback = transitions[failure[state] * ALPHABET + c];
+                if (child == -1) {
+                    transitions[state * ALPHABET + c] = fallback;
+                } else {
+                    transitions[state * ALPHABET + c] = child;
+                    failure[child] = fallback;
+                    queue.add(child);
+                }
+            }
+        }
+
+        return new PatternMatcher(patterns, transitions, outputs, linePatterns);
+    }
+
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    // Reports every occurrence; for each pattern, in the order they appear in the text
+    public void match(SourceText text, MatchListener listener) {
+        if (text.isByteLevel()) {
+            matchBytes(text, listener);
+        } else {
+            matchChars(text.getContent(), listener);
+        }
+        for (int p : linePatterns) {
+            matchLines(text, p, listener);
+        }
+    }
+
+    private void matchBytes(SourceText text, MatchListener listener) {
+        int state = 0;
+        int lineNumber = 1;
+        int lineStart = text.byteStart();
+        int end = text.byteEnd();
+        for (int i = lineStart; i < end; i++) {
+            byte b = text.byteAt(i);
+            if (b == '\n') {
+                lineNumber++;
+                lineStart = i + 1;
+                state = 0;
+            } else if (b < 0) {
+                // Part of a non-ASCII character, which no compiled pattern contains
+                state = 0;
+            } else {
+                state = transitions[state * ALPHABET + toLowerCase(b)];
+                report(state, lineNumber, i - lineStart, listener);
+            }
+        }
+    }
+
+    private void matchChars(String content, MatchListener listener) {
+        int state = 0;
+        int lineNumber = 1;
+        int lineStart = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c == '\n') {
+                lineNumber++;
+                lineStart = i + 1;
+                state = 0;
+            } else if (c >= ALPHABET) {
+                state = 0;
+            } else {
+                state = transitions[state * ALPHABET + toLowerCase(c)];
+                report(state, lineNumber, i - lineStart, listener);
+            }
+        }
+    }
+
+    private void report(int state, int lineNumber, int lastColumn, MatchListener listener) {
+        for (int p : outputs[state]) {
+            listener.onMatch(p, lineNumber, lastColumn - patterns.get(p).length() + 2);
+        }
+    }
+
+    private void matchLines(SourceText text, int p, MatchListener listener) {
+        String lowerPattern = patterns.get(p).toLowerCase();
+        if (!text.containsIgnoreCase(lowerPattern)) {
+            return;
+        }
+        for (int i = 0; i < text.getLineCount(); i++) {
+            if (text.lineContainsIgnoreCase(i, lowerPattern)) {
+                int column = text.line(i).toString().toLowerCase().indexOf(lowerPattern);
+                listener.onMatch(p, i + 1, Math.max(column, 0) + 1);
+            }
+        }
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    private static int toLowerCase(int c) {
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= ALPHABET) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
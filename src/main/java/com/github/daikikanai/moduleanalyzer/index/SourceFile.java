@@ -0,0 +1,72 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import java.nio.file.Path;
+import java.util.*;
+
+public class SourceFile {
+    private final Path path;
+    private final String module;
+    private final String layer;
+    private final Path layerDir;
+    private final String className;
+    private final String fullClassName;
+    private final FileFacts facts;
+
+    public SourceFile(Path path, String module, String layer, Path layerDir, FileFacts facts) {
+        this.path = path;
+        this.module = module;
+        this.layer = layer;
+        this.layerDir = layerDir;
+        this.className = path.getFileName().toString().replace(".java", "");
+        this.fullClassName = facts.getPackageName() == null ? null : facts.getPackageName() + "." + className;
+        this.facts = facts;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getFileName() {
+        return path.getFileName().toString();
+    }
+
+    public String getModule() {
+        return module;
+    }
+
+    public String getLayer() {
+        return layer;
+    }
+
+    public Path getLayerDir() {
+        return layerDir;
+    }
+
+    public boolean isInLayer(String layerName) {
+        return layerName.equals(layer);
+    }
+
+    public String getPackageName() {
+        return facts.getPackageName();
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getFullClassName() {
+        return fullClassName;
+    }
+
+    public List<String> getImports() {
+        return facts.getImports();
+    }
+
+    public Set<String> getIdentifiers() {
+        return facts.getIdentifiers();
+    }
+
+    public FileFacts getFacts() {
+        return facts;
+    }
+}
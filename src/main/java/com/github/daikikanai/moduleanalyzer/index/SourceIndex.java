@@ -0,0 +1,243 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import com.github.daikikanai.moduleanalyzer.bytecode.CompiledClasses;
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class SourceIndex {
+    public static final List<String> LAYERS = Arrays.asList("expose", "application", "infra", "domain");
+
+    private final Path root;
+    private final SourceTree tree;
+    private final Set<String> modules;
+    private final List<SourceFile> files;
+    private final Map<String, SourceFile> filesByClassName;
+    private final Map<String, List<SourceFile>> filesByLayer;
+    private final ParallelScanner scanner;
+    // How the files were read and parsed, so update() re-reads changed files the same way
+    private final List<String> searchPatterns;
+    private final PatternMatcher matcher;
+    private final AnalysisCache cache;
+    private final SourceReader reader;
+    // Null when facts come from the sources only
+    private final CompiledClasses classes;
+
+    private SourceIndex(SourceTree tree, Set<String> modules, List<SourceFile> files, ParallelScanner scanner,
+                        List<String> searchPatterns, PatternMatcher matcher, AnalysisCache cache, SourceReader reader,
+                        CompiledClasses classes) {
+        this.root = tree.getRoot();
+        this.tree = tree;
+        this.modules = modules;
+        this.files = files;
+        this.scanner = scanner;
+        this.searchPatterns = searchPatterns;
+        this.matcher = matcher;
+        this.cache = cache;
+        this.reader = reader;
+        this.classes = classes;
+        this.filesByClassName = new HashMap<>();
+        // Every layer lookup reads from the one walk instead of filtering all files again
+        this.filesByLayer = new HashMap<>();
+        for (SourceFile file : files) {
+            String fullClassName = file.getFullClassName();
+            if (fullClassName != null) {
+                filesByClassName.put(fullClassName, file);
+            }
+            if (file.getLayer() != null) {
+                filesByLayer.computeIfAbsent(file.getLayer(), k -> new ArrayList<>()).add(file);
+            }
+        }
+    }
+
+    public static SourceIndex scan(Path root) throws IOException {
+        return scan(root, Collections.emptyList(), null);
+    }
+
+    public static SourceIndex scan(Path root, List<String> searchPatterns, AnalysisCache cache) throws IOException {
+        return scan(root, searchPatterns, cache, ParallelScanner.sequential(), new SourceReader(StandardCharsets.UTF_8));
+    }
+
+    public static SourceIndex scan(Path root, List<String> searchPatterns, AnalysisCache cache,
+                                   ParallelScanner scanner, SourceReader reader) throws IOException {
+        return scan(SourceTree.of(root), searchPatterns, cache, scanner, reader, null);
+    }
+
+    // With classes, each file's facts are read from its compiled class when it has an up-to-date one
+    public static SourceIndex scan(SourceTree tree, List<String> searchPatterns, AnalysisCache cache,
+                                   ParallelScanner scanner, SourceReader reader, CompiledClasses classes) throws IOException {
+        Path root = tree.getRoot();
+        Set<String> modules = new HashSet<>();
+        List<Path> javaFiles = new ArrayList<>();
+        Metrics.Phase walk = Metrics.phase("walk");
+        try {
+            tree.walk(root, modules, javaFiles);
+            Collections.sort(javaFiles);
+        } finally {
+            walk.end();
+        }
+
+        // Files keep their sorted order regardless of which worker parsed them
+        PatternMatcher matcher = PatternMatcher.compile(searchPatterns);
+        List<SourceFile> files;
+        Metrics.Phase parse = Metrics.phase("parse");
+        try {
+            files = scanner.map(javaFiles, javaFile -> parse(root, javaFile, searchPatterns, matcher, cache, reader, classes));
+        } finally {
+            parse.end();
+        }
+
+        return new SourceIndex(tree, modules, files, scanner, searchPatterns, matcher, cache, reader, classes);
+    }
+
+    // A new index in which every file at or below the changed paths is read again; files that no longer
+    // exist drop out and all other files are shared with this index
+    public SourceIndex update(Collection<Path> changedPaths) throws IOException {
+        Metrics.Phase phase = Metrics.phase("update");
+        try {
+            return updateFiles(changedPaths);
+        } finally {
+            phase.end();
+        }
+    }
+
+    private SourceIndex updateFiles(Collection<Path> changedPaths) throws IOException {
+        List<SourceFile> kept = new ArrayList<>();
+        for (SourceFile file : files) {
+            if (!isUnderAny(file.getPath(), changedPaths)) {
+                kept.add(file);
+            }
+        }
+
+        Set<Path> javaFiles = new TreeSet<>();
+        for (Path changed : changedPaths) {
+            if (changed.startsWith(root) && Files.exists(changed)) {
+                tree.walk(changed, new HashSet<>(), javaFiles);
+            }
+        }
+        List<SourceFile> updated = scanner.map(new ArrayList<>(javaFiles),
+                                               javaFile -> parse(root, javaFile, searchPatterns, matcher, cache, reader, classes));
+
+        List<SourceFile> merged = new ArrayList<>(kept);
+        merged.addAll(updated);
+        merged.sort(Comparator.comparing(SourceFile::getPath));
+
+        return new SourceIndex(tree, tree.listModules(), merged, scanner, searchPatterns, matcher, cache, reader, classes);
+    }
+
+    // The files at or below subRoot as if subRoot had been scanned, without reading them again.
+    // subRoot may be written differently from this index's root (relative, with ..); files take its form.
+    public SourceIndex subIndex(Path subRoot) throws IOException {
+        if (subRoot.equals(root)) {
+            return this;
+        }
+        Path absoluteRoot = subRoot.toAbsolutePath().normalize();
+        List<SourceFile> subFiles = new ArrayList<>();
+        for (SourceFile file : files) {
+            Path absolutePath = file.getPath().toAbsolutePath().normalize();
+            if (absolutePath.startsWith(absoluteRoot)) {
+                Path path = subRoot.resolve(absoluteRoot.relativize(absolutePath));
+                subFiles.add(locate(subRoot, path, file.getFacts()));
+            }
+        }
+        subFiles.sort(Comparator.comparing(SourceFile::getPath));
+
+        SourceTree subTree = tree.withRoot(subRoot);
+        return new SourceIndex(subTree, subTree.listModules(), subFiles, scanner, searchPatterns, matcher, cache, reader, classes);
+    }
+
+    private static boolean isUnderAny(Path path, Collection<Path> changedPaths) {
+        for (Path changed : changedPaths) {
+            if (path.startsWith(changed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static SourceFile parse(Path root, Path javaFile, List<String> searchPatterns, PatternMatcher matcher,
+                                    AnalysisCache cache, SourceReader reader, CompiledClasses classes) throws IOException {
+        FileFacts facts = classes != null ? classes.facts(javaFile, matcher.getPatterns()) : null;
+        if (facts != null) {
+            Metrics.count(Metrics.Counter.CLASS_FILES_READ, 1);
+        } else if (cache != null) {
+            facts = cache.load(javaFile, searchPatterns, reader, bytes -> SourceParser.parse(reader.text(bytes), matcher));
+        } else {
+            facts = SourceParser.parse(reader.text(reader.read(javaFile)), matcher);
+        }
+
+        return locate(root, javaFile, facts);
+    }
+
+    // Module and layer follow from where the file sits below the root
+    private static SourceFile locate(Path root, Path javaFile, FileFacts facts) {
+        Path relativePath = root.relativize(javaFile);
+        String module = null;
+        String layer = null;
+        Path layerDir = null;
+
+        // Files directly under root do not belong to any module
+        if (relativePath.getNameCount() > 1) {
+            // Shared by every file of the module instead of one copy per file
+            module = relativePath.getName(0).toString().intern();
+            for (int i = 1; i < relativePath.getNameCount() - 1; i++) {
+                int layerIndex = LAYERS.indexOf(relativePath.getName(i).toString());
+                if (layerIndex != -1) {
+                    layer = LAYERS.get(layerIndex);
+                    layerDir = root.resolve(relativePath.subpath(0, i + 1));
+                    break;
+                }
+            }
+        }
+
+        return new SourceFile(javaFile, module, layer, layerDir, facts);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public SourceTree getTree() {
+        return tree;
+    }
+
+    public CompiledClasses getCompiledClasses() {
+        return classes;
+    }
+
+    public List<String> getSearchPatterns() {
+        return searchPatterns;
+    }
+
+    public SourceReader getReader() {
+        return reader;
+    }
+
+    public ParallelScanner getScanner() {
+        return scanner;
+    }
+
+    public Set<String> getModules() {
+        return modules;
+    }
+
+    public List<SourceFile> getFiles() {
+        return files;
+    }
+
+    public List<SourceFile> getFilesInLayer(String layer) {
+        return filesByLayer.getOrDefault(layer, Collections.emptyList());
+    }
+
+    public SourceFile findByClassName(String fullClassName) {
+        return filesByClassName.get(fullClassName);
+    }
+
+    public Set<String> getClassNames() {
+        return filesByClassName.keySet();
+    }
+}
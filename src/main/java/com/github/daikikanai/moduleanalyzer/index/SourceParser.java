@@ -0,0 +1,371 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class SourceParser {
+    private static final Pattern STRING_LITERAL_PATTERN = Pattern.compile("String\\s+(\\w+)\\s*=\\s*[\"']([^\"']*)[\"']");
+    private static final Pattern FIELD_PATTERN = Pattern.compile("\\b(\\w+)\\s+(\\w+)\\s*;");
+    private static final Pattern MEMBER_CALL_PATTERN = Pattern.compile("\\b(\\w+)\\.\\w+\\s*\\(");
+    // Example: public static final String ORDERS = BASE + "/orders";
+    private static final Pattern CONSTANT_PATTERN = Pattern.compile("\\b(?:static\\s+final|final\\s+static)\\s+String\\s+(\\w+)\\s*=");
+    // Initializers spanning more lines than this are not treated as constants
+    private static final int MAX_CONSTANT_LINES = 8;
+
+    public static FileFacts parse(String content, List<String> searchPatterns) {
+        return parse(SourceText.of(content), searchPatterns);
+    }
+
+    public static FileFacts parse(SourceText text, List<String> searchPatterns) {
+        return parse(text, PatternMatcher.compile(searchPatterns));
+    }
+
+    // The matcher is compiled once per scan and shared by all files.
+    // Every line regex runs only on lines whose bytes have the shape it needs, so lines that cannot match
+    // are never decoded, and the method index is only built when a call site or a call on a field needs it.
+    public static FileFacts parse(SourceText text, PatternMatcher searchPatterns) {
+        LazyMethodIndex methods = new LazyMethodIndex(text);
+
+        Map<String, List<CallSite>> callSites = extractCallSites(text, methods, searchPatterns);
+        boolean hasCallSites = false;
+        for (List<CallSite> sites : callSites.values()) {
+            hasCallSites |= !sites.isEmpty();
+        }
+
+        // URLs are only resolved for files with call sites, so other files are never fully decoded
+        Map<String, String> stringLiterals = hasCallSites
+            ? extractStringLiterals(text.getContent())
+            : new HashMap<>();
+
+        Map<String, List<String>> fieldNamesByType = extractFieldNamesByType(text);
+        return new FileFacts(extractPackageName(text),
+                             extractImports(text),
+                             extractIdentifiers(text),
+                             stringLiterals,
+                             extractConstants(text),
+                             fieldNamesByType,
+                             extractFirstCallByReceiver(text, fieldNamesByType, methods),
+                             callSites);
+    }
+
+    private static class LazyMethodIndex {
+        private final SourceText text;
+        private MethodIndex methods;
+
+        LazyMethodIndex(SourceText text) {
+            this.text = text;
+        }
+
+        MethodIndex get() {
+            if (methods == null) {
+                methods = MethodIndex.build(text);
+            }
+            return methods;
+        }
+    }
+
+    private static String extractPackageName(SourceText text) {
+        for (int i = 0; i < text.getLineCount(); i++) {
+            String line = trimmedLineStartingWith(text, i, "package ");
+            if (line != null) {
+                return line.substring(8, line.indexOf(';')).trim();
+            }
+        }
+        return null;
+    }
+
+    private static List<String> extractImports(SourceText text) {
+        List<String> imports = new ArrayList<>();
+        for (int i = 0; i < text.getLineCount(); i++) {
+            String line = trimmedLineStartingWith(text, i, "import ");
+            if (line == null || line.startsWith("import static ")) {
+                continue;
+            }
+            int end = line.indexOf(';');
+            if (end == -1) {
+                continue;
+            }
+            String imported = line.substring(7, end).trim();
+            if (!imported.isEmpty()) {
+                imports.add(imported);
+            }
+        }
+        return imports;
+    }
+
+    // Only lines starting with the prefix are decoded and turned into strings
+    private static String trimmedLineStartingWith(SourceText text, int index, String prefix) {
+        int length = text.rawLength(index);
+        int start = 0;
+        while (start < length && text.rawCharAt(index, start) <= ' ') {
+            start++;
+        }
+        if (length - start < prefix.length()) {
+            return null;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.rawCharAt(index, start + i) != prefix.charAt(i)) {
+                return null;
+            }
+        }
+        return text.line(index).toString().trim();
+    }
+
+    // Uses the same word characters as the regex \b boundary
+    public static Set<String> extractIdentifiers(String content) {
+        Set<String> identifiers = new HashSet<>();
+        int length = content.length();
+        int start = -1;
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(i);
+            if (isWordChar(c)) {
+                if (start == -1) {
+                    start = i;
+                }
+            } else if (start != -1) {
+                addIdentifier(identifiers, content, start, i);
+                start = -1;
+            }
+        }
+        if (start != -1) {
+            addIdentifier(identifiers, content, start, length);
+        }
+        return identifiers;
+    }
+
+    // Tokenizes the raw bytes: ASCII runs become identifiers directly, and only runs containing
+    // other characters are decoded and tokenized as characters
+    private static Set<String> extractIdentifiers(SourceText text) {
+        if (!text.isByteLevel()) {
+            return extractIdentifiers(text.getContent());
+        }
+
+        Set<String> identifiers = new HashSet<>();
+        int end = text.byteEnd();
+        int start = -1;
+        boolean nonAscii = false;
+        for (int i = text.byteStart(); i <= end; i++) {
+            byte b = i < end ? text.byteAt(i) : (byte) ' ';
+            if (b < 0 || isWordChar((char) b)) {
+                if (start == -1) {
+                    start = i;
+                    nonAscii = false;
+                }
+                nonAscii |= b < 0;
+            } else if (start != -1) {
+                if (nonAscii) {
+                    identifiers.addAll(extractIdentifiers(text.decode(start, i)));
+                } else if (!Character.isDigit((char) text.byteAt(start))) {
+                    identifiers.add(text.ascii(start, i));
+                }
+                start = -1;
+            }
+        }
+        return identifiers;
+    }
+
+    private static void addIdentifier(Set<String> identifiers, String content, int start, int end) {
+        // Numeric literals are never class names
+        if (!Character.isDigit(content.charAt(start))) {
+            identifiers.add(content.substring(start, end));
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private static Map<String, String> extractStringLiterals(String content) {
+        Map<String, String> literals = new HashMap<>();
+        Matcher matcher = STRING_LITERAL_PATTERN.matcher(content);
+        while (matcher.find()) {
+            literals.putIfAbsent(matcher.group(1), matcher.group(2));
+        }
+        Metrics.count(Metrics.Counter.REGEX_EVALUATIONS, 1);
+        return literals;
+    }
+
+    // Initializer expressions of static final String fields, resolved project-wide by ConstantTable
+    private static Map<String, String> extractConstants(SourceText text) {
+        Map<String, String> constants = new LinkedHashMap<>();
+        // Every file is scanned, so files and lines without static, final and String are skipped at the byte level
+        if (!text.containsIgnoreCase("final") || !text.containsIgnoreCase("static")) {
+            return constants;
+        }
+
+        Matcher matcher = CONSTANT_PATTERN.matcher("");
+        int evaluations = 0;
+        for (int i = 0; i < text.getLineCount(); i++) {
+            if (!text.lineContainsIgnoreCase(i, "final") || !text.lineContainsIgnoreCase(i, "static")
+                || !text.lineContainsIgnoreCase(i, "string")) {
+                continue;
+            }
+            CharSequence line = text.line(i);
+            evaluations++;
+            if (!matcher.reset(line).find()) {
+                continue;
+            }
+
+            StringBuilder declaration = new StringBuilder(line.subSequence(matcher.end(), line.length()));
+            int end = semicolonOutsideLiteral(declaration);
+            for (int next = i + 1; end == -1 && next < text.getLineCount() && next - i < MAX_CONSTANT_LINES; next++) {
+                declaration.append(' ').append(text.line(next));
+                end = semicolonOutsideLiteral(declaration);
+            }
+
+            if (end != -1) {
+                constants.putIfAbsent(matcher.group(1), declaration.substring(0, end).trim());
+            }
+        }
+        Metrics.count(Metrics.Counter.REGEX_EVALUATIONS, evaluations);
+        return constants;
+    }
+
+    private static int semicolonOutsideLiteral(CharSequence source) {
+        boolean inLiteral = false;
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (inLiteral && c == '\\') {
+                i++;
+            } else if (c == '"') {
+                inLiteral = !inLiteral;
+            } else if (c == ';' && !inLiteral) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Lines with a declared type and name before a semicolon
+    private static Map<String, List<String>> extractFieldNamesByType(SourceText text) {
+        Map<String, List<String>> fields = new HashMap<>();
+        Matcher matcher = FIELD_PATTERN.matcher("");
+        int evaluations = 0;
+        for (int i = 0; i < text.getLineCount(); i++) {
+            if (!LineShape.typeAndNameBeforeSemicolon(text, i)) {
+                continue;
+            }
+            evaluations++;
+            matcher.reset(text.line(i));
+            while (matcher.find()) {
+                fields.computeIfAbsent(matcher.group(1), k -> new ArrayList<>()).add(matcher.group(2));
+            }
+        }
+        Metrics.count(Metrics.Counter.REGEX_EVALUATIONS, evaluations);
+        return fields;
+    }
+
+    // Only calls on the file's fields are looked up (the caller of a field's class), so only those are kept
+    private static Map<String, MemberCall> extractFirstCallByReceiver(SourceText text, Map<String, List<String>> fieldNamesByType,
+                                                                      LazyMethodIndex methods) {
+        Map<String, MemberCall> calls = new HashMap<>();
+        if (fieldNamesByType.isEmpty()) {
+            return calls;
+        }
+        Set<String> fieldNames = new HashSet<>();
+        fieldNamesByType.values().forEach(fieldNames::addAll);
+
+        Matcher matcher = MEMBER_CALL_PATTERN.matcher("");
+        int evaluations = 0;
+        for (int i = 0; i < text.getLineCount(); i++) {
+            if (!LineShape.memberCall(text, i)) {
+                continue;
+            }
+            evaluations++;
+            matcher.reset(text.line(i));
+            while (matcher.find()) {
+                String receiver = matcher.group(1);
+                if (!fieldNames.contains(receiver) || calls.containsKey(receiver)) {
+                    continue;
+                }
+                String methodName = methods.get().methodAt(i + 1);
+                if (!methodName.equals("unknown")) {
+                    calls.put(receiver, new MemberCall(i + 1, methodName));
+                }
+            }
+        }
+        Metrics.count(Metrics.Counter.REGEX_EVALUATIONS, evaluations);
+        return calls;
+    }
+
+    private static Map<String, List<CallSite>> extractCallSites(SourceText text, LazyMethodIndex methods,
+                                                               PatternMatcher searchPatterns) {
+        List<String> patterns = searchPatterns.getPatterns();
+        List<List<Integer>> lineNumbers = new ArrayList<>();
+        for (int p = 0; p < patterns.size(); p++) {
+            lineNumbers.add(new ArrayList<>());
+        }
+        // A line with several occurrences of a pattern is one call site
+        searchPatterns.match(text, (p, lineNumber, column) -> {
+            List<Integer> lines = lineNumbers.get(p);
+            if (lines.isEmpty() || lines.get(lines.size() - 1) != lineNumber) {
+                lines.add(lineNumber);
+            }
+        });
+
+        Map<String, List<CallSite>> callSites = new LinkedHashMap<>();
+        for (int p = 0; p < patterns.size(); p++) {
+            String searchPattern = patterns.get(p);
+            List<CallSite> sites = new ArrayList<>();
+            for (int lineNumber : lineNumbers.get(p)) {
+                String lineContent = extractLine(text, lineNumber);
+                String methodName = methods.get().methodAt(lineNumber);
+                String urlExpression = extractFirstArgument(lineContent, searchPattern);
+                sites.add(new CallSite(searchPattern, lineNumber, lineContent, methodName, urlExpression));
+            }
+            callSites.put(searchPattern, sites);
+        }
+        return callSites;
+    }
+
+    private static String extractLine(SourceText text, int lineNumber) {
+        if (lineNumber < 1) {
+            return "";
+        }
+        if (lineNumber <= text.getLineCount()) {
+            return text.line(lineNumber - 1).toString().trim();
+        }
+        return "";
+    }
+
+    private static String extractFirstArgument(String lineContent, String searchPattern) {
+        try {
+            // Find the position of the search pattern (e.g., "client.post")
+            int patternIndex = lineContent.toLowerCase().indexOf(searchPattern.toLowerCase());
+            if (patternIndex == -1) {
+                return "";
+            }
+
+            // Find the opening parenthesis after the pattern
+            int openParenIndex = lineContent.indexOf('(', patternIndex);
+            if (openParenIndex == -1) {
+                return "";
+            }
+
+            // Extract the first argument (URL)
+            int startIndex = openParenIndex + 1;
+            String afterParen = lineContent.substring(startIndex).trim();
+
+            // Find the end of the first argument
+            int commaIndex = afterParen.indexOf(',');
+            int closeParenIndex = afterParen.indexOf(')');
+
+            int endIndex;
+            if (commaIndex != -1 && (closeParenIndex == -1 || commaIndex < closeParenIndex)) {
+                endIndex = commaIndex;
+            } else if (closeParenIndex != -1) {
+                endIndex = closeParenIndex;
+            } else {
+                return "";
+            }
+
+            String firstArg = afterParen.substring(0, endIndex).trim();
+            return firstArg;
+        } catch (Exception e) {
+            return "[Error extracting argument]";
+        }
+    }
+}
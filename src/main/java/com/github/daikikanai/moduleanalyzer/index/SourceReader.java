@@ -0,0 +1,46 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class SourceReader {
+    // Mapping only pays off for large files; typical sources are read into a heap buffer
+    private static final long MAP_THRESHOLD = 256 * 1024;
+
+    private final Charset charset;
+
+    public SourceReader(Charset charset) {
+        this.charset = charset;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public ByteBuffer read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Metrics.fileRead(file, size);
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // Keep reading until the buffer is full
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    public SourceText text(ByteBuffer bytes) {
+        return SourceText.of(bytes, charset);
+    }
+}
@@ -0,0 +1,269 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Source file contents with a line index built once. For ASCII-compatible charsets the text stays
+// as bytes: pure ASCII lines are viewed in place and only lines with other characters are decoded.
+public class SourceText {
+    private final ByteBuffer bytes;
+    private final Charset charset;
+    private final int[] lineStarts;
+    private final int[] lineEnds;
+    private final BitSet nonAsciiLines;
+    private String content;
+
+    private SourceText(ByteBuffer bytes, Charset charset, String content,
+                       int[] lineStarts, int[] lineEnds, BitSet nonAsciiLines) {
+        this.bytes = bytes;
+        this.charset = charset;
+        this.content = content;
+        this.lineStarts = lineStarts;
+        this.lineEnds = lineEnds;
+        this.nonAsciiLines = nonAsciiLines;
+    }
+
+    public static SourceText of(ByteBuffer bytes, Charset charset) {
+        if (!isAsciiCompatible(charset)) {
+            return of(charset.decode(bytes.duplicate()).toString());
+        }
+
+        LineIndex lines = new LineIndex();
+        BitSet nonAsciiLines = new BitSet();
+        int limit = bytes.limit();
+        int start = bytes.position();
+        boolean nonAscii = false;
+        for (int i = start; i < limit; i++) {
+            byte b = bytes.get(i);
+            if (b == '\n') {
+                if (nonAscii) {
+                    nonAsciiLines.set(lines.count);
+                }
+                lines.add(start, i);
+                start = i + 1;
+                nonAscii = false;
+            } else if (b < 0) {
+                nonAscii = true;
+            }
+        }
+        if (nonAscii) {
+            nonAsciiLines.set(lines.count);
+        }
+        lines.add(start, limit);
+        lines.trimTrailingEmptyLines();
+
+        return new SourceText(bytes, charset, null, lines.starts(), lines.ends(), nonAsciiLines);
+    }
+
+    public static SourceText of(String content) {
+        LineIndex lines = new LineIndex();
+        int start = 0;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == '\n') {
+                lines.add(start, i);
+                start = i + 1;
+            }
+        }
+        lines.add(start, content.length());
+        lines.trimTrailingEmptyLines();
+
+        return new SourceText(null, null, content, lines.starts(), lines.ends(), null);
+    }
+
+    // Charsets in which bytes below 0x80 always encode the ASCII character itself
+    private static boolean isAsciiCompatible(Charset charset) {
+        String name = charset.name();
+        return charset.equals(StandardCharsets.UTF_8)
+            || charset.equals(StandardCharsets.US_ASCII)
+            || name.startsWith("ISO-8859-")
+            || name.startsWith("windows-125")
+            || name.startsWith("EUC-");
+    }
+
+    // Lines as content.split("\n") would return them
+    public int getLineCount() {
+        return lineStarts.length;
+    }
+
+    public CharSequence line(int index) {
+        int start = lineStarts[index];
+        int end = lineEnds[index];
+        if (bytes == null) {
+            return content.substring(start, end);
+        }
+        if (nonAsciiLines.get(index)) {
+            return decode(start, end);
+        }
+        return new AsciiSequence(bytes, start, end);
+    }
+
+    // Length of a line in raw units: bytes at byte level, characters otherwise
+    int rawLength(int index) {
+        return lineEnds[index] - lineStarts[index];
+    }
+
+    // A raw unit of a line, without decoding it. At byte level the bytes of non-ASCII characters come back
+    // as values from 0x80 up, which never equal an ASCII character, so ASCII-only checks hold on either form.
+    char rawCharAt(int index, int position) {
+        int offset = lineStarts[index] + position;
+        return bytes == null ? content.charAt(offset) : (char) (bytes.get(offset) & 0xff);
+    }
+
+    // Matches with ASCII case folding, so lines are only decoded for patterns with other characters
+    public boolean lineContainsIgnoreCase(int index, String lowerCasePattern) {
+        if (bytes == null || !isAscii(lowerCasePattern)) {
+            return line(index).toString().toLowerCase().contains(lowerCasePattern);
+        }
+        return indexOfIgnoreCase(lineStarts[index], lineEnds[index], lowerCasePattern) != -1;
+    }
+
+    // Cheap check before looking at individual lines; never decodes for ASCII patterns
+    public boolean containsIgnoreCase(String lowerCasePattern) {
+        if (bytes == null || !isAscii(lowerCasePattern)) {
+            return getContent().toLowerCase().contains(lowerCasePattern);
+        }
+        return indexOfIgnoreCase(bytes.position(), bytes.limit(), lowerCasePattern) != -1;
+    }
+
+    public String getContent() {
+        if (content == null) {
+            content = charset.decode(bytes.duplicate()).toString();
+        }
+        return content;
+    }
+
+    boolean isByteLevel() {
+        return bytes != null;
+    }
+
+    int byteStart() {
+        return bytes.position();
+    }
+
+    int byteEnd() {
+        return bytes.limit();
+    }
+
+    byte byteAt(int offset) {
+        return bytes.get(offset);
+    }
+
+    String decode(int start, int end) {
+        ByteBuffer slice = bytes.duplicate();
+        slice.limit(end).position(start);
+        return charset.decode(slice).toString();
+    }
+
+    // Only valid for ranges without bytes above 0x7f
+    String ascii(int start, int end) {
+        if (bytes.hasArray()) {
+            return new String(bytes.array(), bytes.arrayOffset() + start, end - start, StandardCharsets.ISO_8859_1);
+        }
+        return new AsciiSequence(bytes, start, end).toString();
+    }
+
+    private int indexOfIgnoreCase(int start, int end, String lowerCasePattern) {
+        int length = lowerCasePattern.length();
+        if (length == 0) {
+            return start;
+        }
+        char first = lowerCasePattern.charAt(0);
+        for (int i = start; i <= end - length; i++) {
+            if (toLowerCase(bytes.get(i)) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < length && toLowerCase(bytes.get(i + j)) == lowerCasePattern.charAt(j)) {
+                j++;
+            }
+            if (j == length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static char toLowerCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? (char) (b + ('a' - 'A')) : (char) (b & 0xff);
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class LineIndex {
+        int[] starts = new int[64];
+        int[] ends = new int[64];
+        int count;
+
+        void add(int start, int end) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+
+        // split() drops trailing empty strings, but keeps a single line for empty content
+        void trimTrailingEmptyLines() {
+            boolean emptyContent = count == 1 && starts[0] == ends[0];
+            while (!emptyContent && count > 0 && starts[count - 1] == ends[count - 1]) {
+                count--;
+            }
+        }
+
+        int[] starts() {
+            return Arrays.copyOf(starts, count);
+        }
+
+        int[] ends() {
+            return Arrays.copyOf(ends, count);
+        }
+    }
+
+    // A pure ASCII range of the buffer seen as characters, without decoding or copying
+    private static class AsciiSequence implements CharSequence {
+        private final ByteBuffer bytes;
+        private final int start;
+        private final int end;
+
+        AsciiSequence(ByteBuffer bytes, int start, int end) {
+            this.bytes = bytes;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) bytes.get(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new AsciiSequence(bytes, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[end - start];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = (char) bytes.get(start + i);
+            }
+            return new String(chars);
+        }
+    }
+}
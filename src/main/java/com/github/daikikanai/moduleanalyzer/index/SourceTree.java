@@ -0,0 +1,265 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+// The directories and Java files below a root that analysis looks at. Excluded and git-ignored directories
+// and, unless turned off, the build output next to a pom.xml or build.gradle are skipped whole instead of
+// walked file by file. Layer directories may sit at any depth below a module and files outside them are
+// indexed too, so the walk goes as deep as the tree does; only skipped directories cut it short.
+public class SourceTree {
+    public static final List<String> DEFAULT_EXCLUDES = Arrays.asList(".git", "node_modules");
+
+    public interface Visitor {
+        void directory(Path dir) throws IOException;
+
+        void javaFile(Path file);
+    }
+
+    private final Path root;
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final boolean useGitignore;
+    private final boolean skipBuildOutput;
+    private final List<PathRule> includeRules;
+    private final List<PathRule> excludeRules;
+    // .gitignore rules of the directories above the root up to the repository root, outermost first;
+    // their bases are absolute
+    private final List<PathRule> outerIgnoreRules;
+    private final Path absoluteRoot;
+
+    public SourceTree(Path root, List<String> includes, List<String> excludes, boolean useGitignore,
+                      boolean skipBuildOutput) throws IOException {
+        this.root = root;
+        this.includes = includes;
+        this.excludes = excludes;
+        this.useGitignore = useGitignore;
+        this.skipBuildOutput = skipBuildOutput;
+        this.includeRules = PathRule.parseAll(root, includes);
+        this.excludeRules = PathRule.parseAll(root, excludes);
+        this.absoluteRoot = root.toAbsolutePath().normalize();
+        this.outerIgnoreRules = useGitignore ? loadOuterIgnoreRules(absoluteRoot) : Collections.emptyList();
+    }
+
+    public static SourceTree of(Path root) throws IOException {
+        return new SourceTree(root, Collections.emptyList(), DEFAULT_EXCLUDES, false, true);
+    }
+
+    // The same filters below another root
+    public SourceTree withRoot(Path otherRoot) throws IOException {
+        return otherRoot.equals(root) ? this : new SourceTree(otherRoot, includes, excludes, useGitignore, skipBuildOutput);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    // Whether an index walked with the other filters holds the same files, so it can be shared.
+    // Patterns with a slash are relative to the root, so they only carry over to the same root.
+    public boolean sameFilters(SourceTree other) {
+        if (!includes.equals(other.includes) || !excludes.equals(other.excludes) || useGitignore != other.useGitignore
+            || skipBuildOutput != other.skipBuildOutput) {
+            return false;
+        }
+        return absoluteRoot.equals(other.absoluteRoot) || (isRootIndependent(includes) && isRootIndependent(excludes));
+    }
+
+    private static boolean isRootIndependent(List<String> patterns) {
+        for (String pattern : patterns) {
+            if (pattern.replaceAll("/+$", "").replaceFirst("^\\*\\*/", "").contains("/")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Module directories (right below the root) and the Java files at or below start
+    public void walk(Path start, Set<String> modules, Collection<Path> javaFiles) throws IOException {
+        int moduleDepth = root.getNameCount() + 1;
+        walk(start, new Visitor() {
+            @Override
+            public void directory(Path dir) {
+                if (dir.getNameCount() == moduleDepth) {
+                    modules.add(dir.getFileName().toString());
+                }
+            }
+
+            @Override
+            public void javaFile(Path file) {
+                javaFiles.add(file);
+            }
+        });
+    }
+
+    // Directories right below the root that are not skipped
+    public Set<String> listModules() throws IOException {
+        List<PathRule> ignoreRules = new ArrayList<>(outerIgnoreRules);
+        loadIgnoreRules(root, ignoreRules);
+        Set<String> modules = new HashSet<>();
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(root)) {
+            for (Path child : children) {
+                if (Files.isDirectory(child) && !isSkippedDirectory(child, ignoreRules)) {
+                    modules.add(child.getFileName().toString());
+                }
+            }
+        }
+        return modules;
+    }
+
+    // Visits start and everything below it that is not skipped; nothing when start itself lies in a skipped directory
+    public void walk(Path start, Visitor visitor) throws IOException {
+        List<PathRule> ignoreRules = new ArrayList<>(outerIgnoreRules);
+        Path relative = root.relativize(start);
+        int depth = relative.toString().isEmpty() ? 0 : relative.getNameCount();
+        Path dir = root;
+        for (int i = 0; i < depth; i++) {
+            loadIgnoreRules(dir, ignoreRules);
+            dir = dir.resolve(relative.getName(i));
+            boolean directory = Files.isDirectory(dir);
+            if (directory ? isSkippedDirectory(dir, ignoreRules) : isSkippedFile(dir, ignoreRules)) {
+                return;
+            }
+        }
+
+        // Rules of each directory apply while its subtree is walked
+        Deque<Integer> ruleCounts = new ArrayDeque<>();
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(start) && isSkippedDirectory(dir, ignoreRules)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                ruleCounts.push(ignoreRules.size());
+                loadIgnoreRules(dir, ignoreRules);
+                visitor.directory(dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                boolean regular = attrs.isRegularFile() || (attrs.isSymbolicLink() && Files.isRegularFile(file));
+                if (regular && file.toString().endsWith(".java") && !isSkippedFile(file, ignoreRules)) {
+                    visitor.javaFile(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                if (e != null) {
+                    throw e;
+                }
+                int count = ruleCounts.pop();
+                ignoreRules.subList(count, ignoreRules.size()).clear();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private boolean isSkippedDirectory(Path dir, List<PathRule> ignoreRules) {
+        return matchesAny(excludeRules, dir, true) || (skipBuildOutput && isBuildOutput(dir))
+               || isIgnored(dir, true, ignoreRules);
+    }
+
+    private boolean isSkippedFile(Path file, List<PathRule> ignoreRules) {
+        if (!includeRules.isEmpty() && !matchesAny(includeRules, file, false)) {
+            return true;
+        }
+        return matchesAny(excludeRules, file, false) || isIgnored(file, false, ignoreRules);
+    }
+
+    private static boolean matchesAny(List<PathRule> rules, Path path, boolean directory) {
+        for (PathRule rule : rules) {
+            if (rule.matches(path, directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBuildOutput(Path dir) {
+        String name = dir.getFileName().toString();
+        Path parent = dir.getParent();
+        if (parent == null) {
+            return false;
+        }
+        if (name.equals("target")) {
+            return Files.isRegularFile(parent.resolve("pom.xml"));
+        }
+        if (name.equals("build")) {
+            return Files.isRegularFile(parent.resolve("build.gradle")) || Files.isRegularFile(parent.resolve("build.gradle.kts"));
+        }
+        return false;
+    }
+
+    // As git decides: the last matching rule wins and rules of deeper .gitignore files come later
+    private boolean isIgnored(Path path, boolean directory, List<PathRule> ignoreRules) {
+        Path absolutePath = null;
+        boolean ignored = false;
+        for (int i = 0; i < ignoreRules.size(); i++) {
+            PathRule rule = ignoreRules.get(i);
+            Path target = path;
+            if (i < outerIgnoreRules.size()) {
+                if (absolutePath == null) {
+                    absolutePath = absoluteRoot.resolve(root.relativize(path));
+                }
+                target = absolutePath;
+            }
+            if (ignored == rule.isNegated() && rule.matches(target, directory)) {
+                ignored = !rule.isNegated();
+            }
+        }
+        return ignored;
+    }
+
+    private void loadIgnoreRules(Path dir, List<PathRule> ignoreRules) throws IOException {
+        if (useGitignore) {
+            readRules(dir, dir.resolve(".gitignore"), ignoreRules);
+        }
+    }
+
+    // Nothing outside a git repository; .git/info/exclude comes before every .gitignore
+    private static List<PathRule> loadOuterIgnoreRules(Path absoluteRoot) throws IOException {
+        Deque<Path> parents = new ArrayDeque<>();
+        Path gitRoot = null;
+        for (Path dir = absoluteRoot; dir != null; dir = dir.getParent()) {
+            if (!dir.equals(absoluteRoot)) {
+                parents.push(dir);
+            }
+            if (Files.exists(dir.resolve(".git"))) {
+                gitRoot = dir;
+                break;
+            }
+        }
+        if (gitRoot == null) {
+            return Collections.emptyList();
+        }
+
+        List<PathRule> rules = new ArrayList<>();
+        readRules(gitRoot, gitRoot.resolve(".git").resolve("info").resolve("exclude"), rules);
+        for (Path dir : parents) {
+            readRules(dir, dir.resolve(".gitignore"), rules);
+        }
+        return rules;
+    }
+
+    // Lines git would not understand either are left out
+    private static void readRules(Path base, Path file, List<PathRule> rules) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        for (String line : new String(Files.readAllBytes(file), StandardCharsets.UTF_8).split("\\R")) {
+            try {
+                PathRule rule = PathRule.parse(base, line);
+                if (rule != null) {
+                    rules.add(rule);
+                }
+            } catch (IllegalArgumentException e) {
+                // skipped
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.daikikanai.moduleanalyzer.listexpose;
+
+import com.github.daikikanai.moduleanalyzer.graph.Digraph;
+import com.github.daikikanai.moduleanalyzer.graph.SymbolTable;
+
+import java.util.*;
+
+// Caller class -> expose class edges of list-expose, filled from a single pass over the caller files.
+// Classes and modules are interned to ids; the views ask for names one class at a time.
+public class ExposeDependencies {
+    private final SymbolTable classes = new SymbolTable();
+    private final SymbolTable modules = new SymbolTable();
+    // Module of every class id: the caller's own module, or the module an expose class belongs to
+    private int[] moduleOfClass = new int[16];
+    private final BitSet callers = new BitSet();
+    private Digraph.Builder edges = new Digraph.Builder();
+    private Digraph dependenciesTo;
+    private Digraph dependenciesFrom;
+
+    void add(String callerModule, String callerClass, String exposeModule, String exposeClass) {
+        int caller = intern(callerClass, callerModule);
+        int expose = intern(exposeClass, exposeModule);
+        callers.set(caller);
+        edges.addEdge(caller, expose);
+    }
+
+    private int intern(String className, String module) {
+        int id = classes.intern(className);
+        if (id == moduleOfClass.length) {
+            moduleOfClass = Arrays.copyOf(moduleOfClass, id * 2);
+        }
+        moduleOfClass[id] = modules.intern(module);
+        return id;
+    }
+
+    // Classes of the module that call another module's expose classes, in name order
+    public List<String> getCallerClasses(String module) {
+        int moduleId = modules.idOf(module);
+        List<String> callerClasses = new ArrayList<>();
+        for (int caller = callers.nextSetBit(0); caller >= 0; caller = callers.nextSetBit(caller + 1)) {
+            if (moduleOfClass[caller] == moduleId) {
+                callerClasses.add(classes.nameOf(caller));
+            }
+        }
+        Collections.sort(callerClasses);
+        return callerClasses;
+    }
+
+    // Expose module -> expose classes the caller class uses, both in name order
+    public SortedMap<String, List<String>> getDependenciesTo(String callerClass) {
+        freeze();
+        return groupByModule(dependenciesTo, classes.idOf(callerClass));
+    }
+
+    // Caller module -> caller classes using the expose class, both in name order
+    public SortedMap<String, List<String>> getDependedBy(String exposeClass) {
+        freeze();
+        return groupByModule(dependenciesFrom, classes.idOf(exposeClass));
+    }
+
+    private SortedMap<String, List<String>> groupByModule(Digraph graph, int classId) {
+        SortedMap<String, List<String>> grouped = new TreeMap<>();
+        if (classId == -1) {
+            return grouped;
+        }
+        for (int edge = graph.edgeStart(classId); edge < graph.edgeEnd(classId); edge++) {
+            int other = graph.edgeTarget(edge);
+            grouped.computeIfAbsent(modules.nameOf(moduleOfClass[other]), k -> new ArrayList<>())
+                .add(classes.nameOf(other));
+        }
+        for (List<String> classNames : grouped.values()) {
+            Collections.sort(classNames);
+        }
+        return grouped;
+    }
+
+    private void freeze() {
+        if (dependenciesTo == null) {
+            dependenciesTo = edges.build(classes.size());
+            dependenciesFrom = dependenciesTo.reverse();
+            edges = null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.daikikanai.moduleanalyzer.listexpose;
+
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportRecord;
+
+import java.util.*;
+
+// The list-expose report over a scanned index, shared by the goal and the daemon
+public class ExposeReport {
+    private final ModuleDataSource dataSource;
+    private final boolean showDependency;
+    private final Map<String, List<String>> moduleExposeClasses;
+    private final Set<String> allModules;
+    private final Set<String> allExposeClasses = new HashSet<>();
+
+    public ExposeReport(SourceIndex index, boolean showDependency) {
+        this.dataSource = new ModuleDataSource(index);
+        this.showDependency = showDependency;
+        this.moduleExposeClasses = dataSource.scanModuleExposeClasses();
+        this.allModules = dataSource.scanAllModules();
+        for (List<String> classes : moduleExposeClasses.values()) {
+            allExposeClasses.addAll(classes);
+        }
+    }
+
+    public void displayText(AnalyzerLog log) {
+        ExposeDependencies dependencies = showDependency
+            ? dataSource.buildDependencies(allExposeClasses)
+            : new ExposeDependencies();
+
+        ModuleView view = new ModuleView(log);
+        view.displayModules(moduleExposeClasses, allModules, dependencies, showDependency);
+    }
+
+    // Modules and expose classes in name order, then every dependency edge as soon as it is resolved
+    public void writeRecords(RecordWriter writer) {
+        List<String> sortedModules = new ArrayList<>(allModules);
+        Collections.sort(sortedModules);
+        for (String module : sortedModules) {
+            writer.write(new ReportRecord("module").put("name", module));
+        }
+
+        for (String module : sortedModules) {
+            List<String> exposeClasses = new ArrayList<>(moduleExposeClasses.getOrDefault(module, Collections.emptyList()));
+            Collections.sort(exposeClasses);
+            for (String exposeClass : exposeClasses) {
+                writer.write(new ReportRecord("exposeClass").put("module", module).put("class", exposeClass));
+            }
+        }
+
+        if (showDependency) {
+            dataSource.forEachDependency(allExposeClasses, (callerModule, callerClass, exposeModule, exposeClass) ->
+                writer.write(new ReportRecord("dependency")
+                                 .put("callerModule", callerModule)
+                                 .put("callerClass", callerClass)
+                                 .put("exposeModule", exposeModule)
+                                 .put("exposeClass", exposeClass)));
+        }
+    }
+}
@@ -1,58 +1,47 @@
 package com.github.daikikanai.moduleanalyzer.listexpose;
-import org.apache.maven.plugin.AbstractMojo;
+
+import com.github.daikikanai.moduleanalyzer.AbstractAnalyzerMojo;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportFormat;
+import com.github.daikikanai.moduleanalyzer.report.ReportLog;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
 
 @Mojo(name = "list-expose")
-public class ListExposeMojo extends AbstractMojo {
-
-    @Parameter(property = "rootDir", required = true)
-    private String rootDir;
+public class ListExposeMojo extends AbstractAnalyzerMojo {
 
     @Parameter(property = "showDependency", defaultValue = "false")
     private boolean showDependency;
 
     public void execute() throws MojoExecutionException {
         try {
-            Path root = Paths.get(rootDir);
-
-            if (!Files.exists(root) || !Files.isDirectory(root)) {
-                throw new MojoExecutionException("Root directory does not exist: " + rootDir);
+            Path root = resolveRootDir();
+            ReportFormat format = resolveFormat();
+
+            SourceIndex index = scanIndex(root, Collections.emptyList());
+            ExposeReport report = new ExposeReport(index, showDependency);
+
+            if (format == ReportFormat.TEXT) {
+                try (ReportLog reportLog = openReportLog()) {
+                    report.displayText(reportLog);
+                }
+            } else {
+                try (RecordWriter writer = openRecordWriter("list-expose")) {
+                    report.writeRecords(writer);
+                }
             }
-
-            ModuleDataSource dataSource = new ModuleDataSource(root);
-
-            Map<String, List<String>> moduleExposeClasses = dataSource.scanModuleExposeClasses();
-            Set<String> allModules = dataSource.scanAllModules();
-
-            Set<String> allExposeClasses = new HashSet<>();
-            for (List<String> classes : moduleExposeClasses.values()) {
-                allExposeClasses.addAll(classes);
-            }
-
-            Map<String, Map<String, Set<String>>> classDependenciesTo = new HashMap<>();
-            Map<String, Map<String, Set<String>>> classDependenciesFrom = new HashMap<>();
-            Map<String, Set<String>> moduleCallerClasses = new HashMap<>();
-
-            if (showDependency) {
-                classDependenciesTo = dataSource.buildClassDependenciesTo(allExposeClasses, allModules);
-                classDependenciesFrom = dataSource.buildClassDependenciesFrom(allExposeClasses, allModules);
-                moduleCallerClasses = dataSource.buildModuleCallerClasses(allExposeClasses, allModules);
-            }
-
-            ModuleView view = new ModuleView(getLog());
-            view.displayModules(moduleExposeClasses, moduleCallerClasses,
-                               classDependenciesTo, classDependenciesFrom, showDependency);
+            reportStatistics();
 
         } catch (IOException e) {
             throw new MojoExecutionException("Error scanning modules", e);
+        } finally {
+            closeScanners();
         }
     }
 }
@@ -1,217 +1,142 @@
 package com.github.daikikanai.moduleanalyzer.listexpose;
 
+import com.github.daikikanai.moduleanalyzer.index.SourceFile;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Stream;
 
 public class ModuleDataSource {
-    private final Path root;
+    private final SourceIndex index;
 
-    public ModuleDataSource(Path root) {
-        this.root = root;
+    public ModuleDataSource(SourceIndex index) {
+        this.index = index;
     }
 
-    public Set<String> scanAllModules() throws IOException {
-        Set<String> modules = new HashSet<>();
-
-        try (Stream<Path> paths = Files.list(root)) {
-            paths.filter(Files::isDirectory)
-                 .forEach(modulePath -> {
-                     String moduleName = modulePath.getFileName().toString();
-                     modules.add(moduleName);
-                 });
-        }
-
-        return modules;
+    public Set<String> scanAllModules() {
+        return new HashSet<>(index.getModules());
     }
 
-    public Map<String, List<String>> scanModuleExposeClasses() throws IOException {
+    public Map<String, List<String>> scanModuleExposeClasses() {
         Map<String, List<String>> result = new HashMap<>();
 
-        try (Stream<Path> paths = Files.walk(root)) {
-            paths.filter(Files::isDirectory)
-                 .filter(path -> path.getFileName().toString().equals("expose"))
-                 .forEach(exposePath -> {
-                     try {
-                         String moduleName = extractModuleName(exposePath);
-                         List<String> classes = scanExposeDirectory(exposePath);
-                         if (!classes.isEmpty()) {
-                             result.put(moduleName, classes);
-                         }
-                     } catch (IOException e) {
-                         throw new RuntimeException("Error scanning expose directory: " + exposePath, e);
-                     }
-                 });
+        for (SourceFile file : index.getFilesInLayer("expose")) {
+            if (!isExposedFile(file)) {
+                continue;
+            }
+            String className = extractClassName(file);
+            if (className != null) {
+                result.computeIfAbsent(file.getModule(), k -> new ArrayList<>()).add(className);
+            }
         }
 
         return result;
     }
 
-    public Map<String, Map<String, Set<String>>> buildClassDependenciesTo(Set<String> exposeClasses, Set<String> allModules) throws IOException {
-        Map<String, Map<String, Set<String>>> dependencies = new HashMap<>();
-
-        try (Stream<Path> paths = Files.walk(root)) {
-            paths.filter(Files::isRegularFile)
-                 .filter(path -> path.toString().endsWith(".java"))
-                 .filter(path -> !path.toString().contains("/expose/"))
-                 .forEach(javaFile -> {
-                     try {
-                         String content = new String(Files.readAllBytes(javaFile));
-                         String callerModule = extractModuleName(javaFile);
-                         String callerClass = extractFullClassName(javaFile, content);
-
-                         if (callerModule != null && !callerModule.equals("unknown") && callerClass != null) {
-                             for (String exposeClass : exposeClasses) {
-                                 String exposeModule = extractModuleFromClassName(exposeClass);
-
-                                 if (!callerModule.equals(exposeModule) && isCallingClass(content, exposeClass)) {
-                                     Map<String, Set<String>> targetDeps = dependencies.computeIfAbsent(callerClass, k -> new HashMap<>());
-                                     targetDeps.computeIfAbsent(exposeModule, k -> new HashSet<>()).add(exposeClass);
-                                 }
-                             }
-                         }
-                     } catch (IOException e) {
-                         throw new RuntimeException("Error reading file: " + javaFile, e);
-                     }
-                 });
-        }
-
+    public ExposeDependencies buildDependencies(Set<String> exposeClasses) {
+        ExposeDependencies dependencies = new ExposeDependencies();
+        forEachDependency(exposeClasses, dependencies::add);
         return dependencies;
     }
 
-    public Map<String, Map<String, Set<String>>> buildClassDependenciesFrom(Set<String> exposeClasses, Set<String> allModules) throws IOException {
-        Map<String, Map<String, Set<String>>> dependenciesFrom = new HashMap<>();
-
-        try (Stream<Path> paths = Files.walk(root)) {
-            paths.filter(Files::isRegularFile)
-                 .filter(path -> path.toString().endsWith(".java"))
-                 .filter(path -> !path.toString().contains("/expose/"))
-                 .forEach(javaFile -> {
-                     try {
-                         String content = new String(Files.readAllBytes(javaFile));
-                         String callerModule = extractModuleName(javaFile);
-                         String callerClass = extractFullClassName(javaFile, content);
-
-                         if (callerModule != null && !callerModule.equals("unknown") && callerClass != null) {
-                             for (String exposeClass : exposeClasses) {
-                                 String exposeModule = extractModuleFromClassName(exposeClass);
-
-                                 if (!callerModule.equals(exposeModule) && isCallingClass(content, exposeClass)) {
-                                     Map<String, Set<String>> targetDeps = dependenciesFrom.computeIfAbsent(exposeClass, k -> new HashMap<>());
-                                     targetDeps.computeIfAbsent(callerModule, k -> new HashSet<>()).add(callerClass);
-                                 }
-                             }
-                         }
-                     } catch (IOException e) {
-                         throw new RuntimeException("Error reading file: " + javaFile, e);
-                     }
-                 });
-        }
-
-        return dependenciesFrom;
+    public interface DependencyListener {
+        void onDependency(String callerModule, String callerClass, String exposeModule, String exposeClass);
     }
 
-    public Map<String, Set<String>> buildModuleCallerClasses(Set<String> exposeClasses, Set<String> allModules) throws IOException {
-        Map<String, Set<String>> callerClasses = new HashMap<>();
-
-        for (String module : allModules) {
-            callerClasses.put(module, new HashSet<>());
+    // Resolves every caller file against an inverted index of expose simple names, so the cost
+    // grows with the identifiers in the files rather than with files x expose classes.
+    // Dependencies are reported in caller file order, expose classes sorted per caller.
+    // A simple name matches as a whole identifier anywhere in the file, whatever character follows it.
+    public void forEachDependency(Set<String> exposeClasses, DependencyListener listener) {
+        Metrics.Phase phase = Metrics.phase("dependencies");
+        try {
+            findDependencies(exposeClasses, listener);
+        } finally {
+            phase.end();
         }
+    }
 
-        try (Stream<Path> paths = Files.walk(root)) {
-            paths.filter(Files::isRegularFile)
-                 .filter(path -> path.toString().endsWith(".java"))
-                 .filter(path -> !path.toString().contains("/expose/"))
-                 .forEach(javaFile -> {
-                     try {
-                         String content = new String(Files.readAllBytes(javaFile));
-                         String callerModule = extractModuleName(javaFile);
-                         String callerClass = extractFullClassName(javaFile, content);
-
-                         if (callerModule != null && !callerModule.equals("unknown") && callerClass != null) {
-                             boolean callsOtherModule = false;
-                             for (String exposeClass : exposeClasses) {
-                                 String exposeModule = extractModuleFromClassName(exposeClass);
-                                 if (!callerModule.equals(exposeModule) && isCallingClass(content, exposeClass)) {
-                                     callsOtherModule = true;
-                                     break;
-                                 }
-                             }
-                             if (callsOtherModule) {
-                                 callerClasses.get(callerModule).add(callerClass);
-                             }
-                         }
-                     } catch (IOException e) {
-                         throw new RuntimeException("Error reading file: " + javaFile, e);
-                     }
-                 });
+    private void findDependencies(Set<String> exposeClasses, DependencyListener listener) {
+        Map<String, String> exposeModules = new HashMap<>();
+        Map<String, List<String>> exposeClassesBySimpleName = new HashMap<>();
+        for (String exposeClass : exposeClasses) {
+            exposeModules.put(exposeClass, extractModuleFromClassName(exposeClass));
+            String simpleClassName = exposeClass.substring(exposeClass.lastIndexOf('.') + 1);
+            exposeClassesBySimpleName.computeIfAbsent(simpleClassName, k -> new ArrayList<>()).add(exposeClass);
         }
 
-        return callerClasses;
-    }
-
-    private String extractModuleName(Path filePath) {
-        Path relativePath = root.relativize(filePath);
-        if (relativePath.getNameCount() > 0) {
-            return relativePath.getName(0).toString();
+        // Each chunk of caller files collects its own usages; chunks are merged in file order
+        List<ExposeUsage> usages = index.getScanner().mapUnchecked(callerFiles(), file -> {
+            Set<String> called = new TreeSet<>();
+            for (String importedClass : file.getImports()) {
+                if (exposeModules.containsKey(importedClass)) {
+                    called.add(importedClass);
+                }
+            }
+            for (String identifier : file.getIdentifiers()) {
+                List<String> candidates = exposeClassesBySimpleName.get(identifier);
+                if (candidates != null) {
+                    called.addAll(candidates);
+                }
+            }
+            // Calls within the caller's own module are not dependencies
+            called.removeIf(exposeClass -> file.getModule().equals(exposeModules.get(exposeClass)));
+            return new ExposeUsage(file.getModule(), file.getFullClassName(), called);
+        });
+
+        for (ExposeUsage usage : usages) {
+            for (String exposeClass : usage.exposeClasses) {
+                listener.onDependency(usage.callerModule, usage.callerClass, exposeModules.get(exposeClass), exposeClass);
+            }
         }
-        return "unknown";
     }
 
-    private List<String> scanExposeDirectory(Path exposePath) throws IOException {
-        List<String> classes = new ArrayList<>();
+    private static class ExposeUsage {
+        final String callerModule;
+        final String callerClass;
+        final Set<String> exposeClasses;
 
-        try (Stream<Path> files = Files.walk(exposePath)) {
-            files.filter(Files::isRegularFile)
-                 .filter(path -> path.toString().endsWith(".java"))
-                 .filter(path -> !path.toString().contains("/input/"))
-                 .filter(path -> !path.toString().contains("/output/"))
-                 .filter(path -> !path.toString().endsWith("Dto.java"))
-                 .filter(path -> !path.toString().endsWith("Input.java"))
-                 .filter(path -> !path.toString().endsWith("Output.java"))
-                 .forEach(javaFile -> {
-                     String className = extractClassName(exposePath, javaFile);
-                     if (className != null) {
-                         classes.add(className);
-                     }
-                 });
+        ExposeUsage(String callerModule, String callerClass, Set<String> exposeClasses) {
+            this.callerModule = callerModule;
+            this.callerClass = callerClass;
+            this.exposeClasses = exposeClasses;
         }
-
-        return classes;
     }
 
-    private String extractClassName(Path exposePath, Path javaFile) {
-        try {
-            String content = new String(Files.readAllBytes(javaFile));
-            String packageName = extractPackageName(content);
-
-            if (packageName == null) {
-                return null;
+    // Only files whose first layer below the module is expose are skipped, not every path containing /expose/
+    private List<SourceFile> callerFiles() {
+        List<SourceFile> files = new ArrayList<>();
+        for (SourceFile file : index.getFiles()) {
+            if (file.getModule() != null && !file.isInLayer("expose") && file.getFullClassName() != null) {
+                files.add(file);
             }
-
-            Path relativePath = exposePath.relativize(javaFile);
-            String fileName = relativePath.toString()
-                .replace(File.separator, ".")
-                .replace(".java", "");
-
-            return packageName + "." + fileName;
-        } catch (IOException e) {
-            throw new RuntimeException("Error reading file: " + javaFile, e);
         }
+        return files;
     }
 
-    private String extractPackageName(String content) {
-        String[] lines = content.split("\n");
-        for (String line : lines) {
-            line = line.trim();
-            if (line.startsWith("package ")) {
-                return line.substring(8, line.indexOf(';')).trim();
-            }
+    private boolean isExposedFile(SourceFile file) {
+        String path = file.getPath().toString();
+        return !path.contains("/input/")
+            && !path.contains("/output/")
+            && !path.endsWith("Dto.java")
+            && !path.endsWith("Input.java")
+            && !path.endsWith("Output.java");
+    }
+
+    private String extractClassName(SourceFile file) {
+        String packageName = file.getPackageName();
+        if (packageName == null) {
+            return null;
         }
-        return null;
+
+        Path relativePath = file.getLayerDir().relativize(file.getPath());
+        String fileName = relativePath.toString()
+            .replace(File.separator, ".")
+            .replace(".java", "");
+
+        return packageName + "." + fileName;
     }
 
     private String extractModuleFromClassName(String className) {
@@ -232,38 +157,4 @@ public class ModuleDataSource {
         }
         return "unknown";
     }
-
-    private String extractFullClassName(Path javaFile, String content) {
-        String packageName = extractPackageName(content);
-        if (packageName == null) {
-            return null;
-        }
-
-        String fileName = javaFile.getFileName().toString().replace(".java", "");
-        return packageName + "." + fileName;
-    }
-
-    private boolean isCallingClass(String content, String exposeClass) {
-        if (content.contains("import " + exposeClass + ";")) {
-            return true;
-        }
-
-        String simpleClassName = exposeClass.substring(exposeClass.lastIndexOf('.') + 1);
-
-        String[] patterns = {
-            simpleClassName + " ",
-            simpleClassName + ".",
-            simpleClassName + "(",
-            simpleClassName + "<",
-            simpleClassName + ">"
-        };
-
-        for (String pattern : patterns) {
-            if (content.contains(pattern)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
 }
@@ -1,27 +1,26 @@
 package com.github.daikikanai.moduleanalyzer.listexpose;
 
-import org.apache.maven.plugin.logging.Log;
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class ModuleView {
-    private final Log log;
+    private final AnalyzerLog log;
 
-    public ModuleView(Log log) {
+    public ModuleView(AnalyzerLog log) {
         this.log = log;
     }
 
     public void displayModules(
             Map<String, List<String>> moduleExposeClasses,
-            Map<String, Set<String>> moduleCallerClasses,
-            Map<String, Map<String, Set<String>>> classDependenciesTo,
-            Map<String, Map<String, Set<String>>> classDependenciesFrom,
+            Set<String> allModules,
+            ExposeDependencies dependencies,
             boolean showDependency) {
 
         Set<String> modulesToDisplay = new HashSet<>(moduleExposeClasses.keySet());
         if (showDependency) {
-            modulesToDisplay.addAll(moduleCallerClasses.keySet());
+            modulesToDisplay.addAll(allModules);
         }
 
         if (modulesToDisplay.isEmpty()) {
@@ -33,8 +32,7 @@ public class ModuleView {
         Collections.sort(sortedModules);
 
         for (String module : sortedModules) {
-            displayModule(module, moduleExposeClasses, moduleCallerClasses,
-                         classDependenciesTo, classDependenciesFrom, showDependency);
+            displayModule(module, moduleExposeClasses, dependencies, showDependency);
         }
         log.info("");
     }
@@ -42,9 +40,7 @@ public class ModuleView {
     private void displayModule(
             String module,
             Map<String, List<String>> moduleExposeClasses,
-            Map<String, Set<String>> moduleCallerClasses,
-            Map<String, Map<String, Set<String>>> classDependenciesTo,
-            Map<String, Map<String, Set<String>>> classDependenciesFrom,
+            ExposeDependencies dependencies,
             boolean showDependency) {
 
         log.info("");
@@ -53,28 +49,20 @@ public class ModuleView {
         Set<String> dependedByModules = new HashSet<>();
 
         if (showDependency) {
-            dependenciesToModules = calculateDependenciesToModules(module, moduleCallerClasses, classDependenciesTo);
-            dependedByModules = calculateDependedByModules(module, moduleExposeClasses, classDependenciesFrom);
+            dependenciesToModules = calculateDependenciesToModules(module, dependencies);
+            dependedByModules = calculateDependedByModules(module, moduleExposeClasses, dependencies);
         }
 
         displayModuleHeader(module, dependenciesToModules, dependedByModules, showDependency);
-        displayExposeClasses(module, moduleExposeClasses, classDependenciesFrom, showDependency);
-        displayCallerClasses(module, moduleCallerClasses, classDependenciesTo, showDependency);
+        displayExposeClasses(module, moduleExposeClasses, dependencies, showDependency);
+        displayCallerClasses(module, dependencies, showDependency);
     }
 
-    private Set<String> calculateDependenciesToModules(
-            String module,
-            Map<String, Set<String>> moduleCallerClasses,
-            Map<String, Map<String, Set<String>>> classDependenciesTo) {
-
+    private Set<String> calculateDependenciesToModules(String module, ExposeDependencies dependencies) {
         Set<String> dependenciesToModules = new HashSet<>();
 
-        if (moduleCallerClasses.containsKey(module)) {
-            for (String callerClass : moduleCallerClasses.get(module)) {
-                if (classDependenciesTo.containsKey(callerClass)) {
-                    dependenciesToModules.addAll(classDependenciesTo.get(callerClass).keySet());
-                }
-            }
+        for (String callerClass : dependencies.getCallerClasses(module)) {
+            dependenciesToModules.addAll(dependencies.getDependenciesTo(callerClass).keySet());
         }
 
         return dependenciesToModules;
@@ -83,16 +71,14 @@ public class ModuleView {
     private Set<String> calculateDependedByModules(
             String module,
             Map<String, List<String>> moduleExposeClasses,
-            Map<String, Map<String, Set<String>>> classDependenciesFrom) {
+            ExposeDependencies dependencies) {
 
         Set<String> dependedByModules = new HashSet<>();
 
         List<String> exposeClassList = moduleExposeClasses.get(module);
         if (exposeClassList != null) {
             for (String exposeClass : exposeClassList) {
-                if (classDependenciesFrom.containsKey(exposeClass)) {
-                    dependedByModules.addAll(classDependenciesFrom.get(exposeClass).keySet());
-                }
+                dependedByModules.addAll(dependencies.getDependedBy(exposeClass).keySet());
             }
         }
 
@@ -116,7 +102,7 @@ public class ModuleView {
     private void displayExposeClasses(
             String module,
             Map<String, List<String>> moduleExposeClasses,
-            Map<String, Map<String, Set<String>>> classDependenciesFrom,
+            ExposeDependencies dependencies,
             boolean showDependency) {
 
         List<String> exposeClasses = moduleExposeClasses.get(module);
@@ -128,8 +114,8 @@ public class ModuleView {
         for (String className : exposeClasses) {
             log.info("  - " + className);
 
-            if (showDependency && classDependenciesFrom.containsKey(className)) {
-                Map<String, Set<String>> fromModules = classDependenciesFrom.get(className);
+            if (showDependency) {
+                Map<String, List<String>> fromModules = dependencies.getDependedBy(className);
                 if (!fromModules.isEmpty()) {
                     log.info("    Depended by:");
                     displayDependencies(fromModules);
@@ -138,47 +124,30 @@ public class ModuleView {
         }
     }
 
-    private void displayCallerClasses(
-            String module,
-            Map<String, Set<String>> moduleCallerClasses,
-            Map<String, Map<String, Set<String>>> classDependenciesTo,
-            boolean showDependency) {
-
-        if (!showDependency || !moduleCallerClasses.containsKey(module)) {
+    private void displayCallerClasses(String module, ExposeDependencies dependencies, boolean showDependency) {
+        if (!showDependency) {
             return;
         }
 
-        Set<String> callerClasses = moduleCallerClasses.get(module);
-        List<String> sortedCallers = new ArrayList<>(callerClasses);
-        Collections.sort(sortedCallers);
-
-        for (String callerClass : sortedCallers) {
+        for (String callerClass : dependencies.getCallerClasses(module)) {
             log.info("  - " + callerClass);
 
-            if (classDependenciesTo.containsKey(callerClass)) {
-                Map<String, Set<String>> toModules = classDependenciesTo.get(callerClass);
-                if (!toModules.isEmpty()) {
-                    log.info("    Dependencies to:");
-                    displayDependencies(toModules);
-                }
+            Map<String, List<String>> toModules = dependencies.getDependenciesTo(callerClass);
+            if (!toModules.isEmpty()) {
+                log.info("    Dependencies to:");
+                displayDependencies(toModules);
             }
         }
     }
 
-    private void displayDependencies(Map<String, Set<String>> dependencies) {
-        List<String> sortedModules = new ArrayList<>(dependencies.keySet());
-        Collections.sort(sortedModules);
-
-        for (String targetModule : sortedModules) {
-            Set<String> classNames = dependencies.get(targetModule);
-            List<String> sortedClasses = new ArrayList<>(classNames);
-            Collections.sort(sortedClasses);
-
-            String simpleNames = sortedClasses.stream()
+    // Modules and classes come sorted by name
+    private void displayDependencies(Map<String, List<String>> dependencies) {
+        for (Map.Entry<String, List<String>> entry : dependencies.entrySet()) {
+            String simpleNames = entry.getValue().stream()
                 .map(c -> c.substring(c.lastIndexOf('.') + 1))
                 .collect(Collectors.joining(", "));
 
-            log.info("      - " + targetModule + ": " + simpleNames);
+            log.info("      - " + entry.getKey() + ": " + simpleNames);
         }
     }
 }
@@ -0,0 +1,68 @@
+package com.github.daikikanai.moduleanalyzer.listhttprequest;
+
+import java.util.*;
+
+// Immutable class chain as a parent-pointer list: appending shares the whole prefix,
+// so every path found below a class reuses the chain up to that class
+public final class ClassChain extends AbstractList<String> {
+    private final ClassChain parent;
+    private final String className;
+    private final int size;
+
+    private ClassChain(ClassChain parent, String className) {
+        this.parent = parent;
+        this.className = className;
+        this.size = parent == null ? 1 : parent.size + 1;
+    }
+
+    public static ClassChain of(String className) {
+        return new ClassChain(null, className);
+    }
+
+    public static ClassChain of(List<String> classNames) {
+        if (classNames instanceof ClassChain) {
+            return (ClassChain) classNames;
+        }
+        if (classNames.isEmpty()) {
+            throw new IllegalArgumentException("A class chain needs at least one class");
+        }
+        ClassChain chain = null;
+        for (String className : classNames) {
+            chain = chain == null ? of(className) : chain.append(className);
+        }
+        return chain;
+    }
+
+    public ClassChain append(String nextClassName) {
+        return new ClassChain(this, nextClassName);
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        ClassChain chain = this;
+        for (int steps = size - 1 - index; steps > 0; steps--) {
+            chain = chain.parent;
+        }
+        return chain.className;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Walks the parents once instead of once per element
+    @Override
+    public Iterator<String> iterator() {
+        String[] classNames = new String[size];
+        ClassChain chain = this;
+        for (int i = size - 1; i >= 0; i--) {
+            classNames[i] = chain.className;
+            chain = chain.parent;
+        }
+        return Arrays.asList(classNames).iterator();
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.daikikanai.moduleanalyzer.listhttprequest;
+
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportRecord;
+
+import java.util.*;
+
+// The list-http-request report, shared by the goal and the daemon
+public class HttpRequestReport {
+    public static final String DEFAULT_SEARCH_PATTERNS = "client.post,client.get";
+    private static final String TARGET_SUBDIR = "application";
+
+    private final Tracer tracer;
+    private final List<String> searchPatterns;
+    private final Map<String, List<Result.TracePath>> previousPaths;
+
+    public HttpRequestReport(Tracer tracer, List<String> searchPatterns,
+                             Map<String, List<Result.TracePath>> previousPaths) {
+        this.tracer = tracer;
+        this.searchPatterns = searchPatterns;
+        this.previousPaths = previousPaths;
+    }
+
+    // Comma-separated patterns, blanks ignored
+    public static List<String> parseSearchPatterns(String searchPatterns) {
+        List<String> patternList = new ArrayList<>();
+        for (String pattern : searchPatterns.split(",")) {
+            String trimmed = pattern.trim();
+            if (!trimmed.isEmpty()) {
+                patternList.add(trimmed);
+            }
+        }
+        return patternList;
+    }
+
+    public static void displayHeader(AnalyzerLog log, String rootDir, List<String> searchPatterns) {
+        log.info("Scanning modules in: " + rootDir);
+        log.info("Target subdirectory: " + TARGET_SUBDIR);
+        log.info("Searching for patterns: " + String.join(", ", searchPatterns));
+        log.info("");
+    }
+
+    public Result displayText(AnalyzerLog log) {
+        Result result = tracer.traceModulesSubDir(TARGET_SUBDIR, searchPatterns, previousPaths, new Result());
+        View view = new View(log);
+        view.displayResult(result);
+        return result;
+    }
+
+    // Paths of a class are written once it and the classes before it are traced, while later ones still run
+    public Result writeRecords(RecordWriter writer) {
+        return tracer.traceModulesSubDir(TARGET_SUBDIR, searchPatterns, previousPaths,
+                                         new Result(path -> writer.write(toRecord(path))));
+    }
+
+    private static ReportRecord toRecord(Result.TracePath path) {
+        return new ReportRecord("httpRequest")
+            .put("module", path.getModuleName())
+            .put("class", path.getMatchedClass())
+            .put("method", path.getMethodName())
+            .put("url", path.getUrl())
+            .put("line", path.getLineNumber())
+            .put("lineContent", path.getLineContent())
+            .put("chain", path.getClassChain());
+    }
+}
@@ -1,56 +1,171 @@
 package com.github.daikikanai.moduleanalyzer.listhttprequest;
 
-import org.apache.maven.plugin.AbstractMojo;
+import com.github.daikikanai.moduleanalyzer.AbstractAnalyzerMojo;
+import com.github.daikikanai.moduleanalyzer.index.ChangedFiles;
+import com.github.daikikanai.moduleanalyzer.index.SourceFile;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportFormat;
+import com.github.daikikanai.moduleanalyzer.report.ReportLog;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
+import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 
 @Mojo(name = "list-http-request")
-public class ListHttpRequestMojo extends AbstractMojo {
+public class ListHttpRequestMojo extends AbstractAnalyzerMojo {
 
-    @Parameter(property = "rootDir", required = true)
-    private String rootDir;
-
-    @Parameter(property = "searchPatterns", defaultValue = "client.post,client.get")
+    @Parameter(property = "searchPatterns", defaultValue = HttpRequestReport.DEFAULT_SEARCH_PATTERNS)
     private String searchPatterns;
 
+    // Re-trace only the application classes affected by changed files and reuse the previous result for the rest
+    @Parameter(property = "incremental", defaultValue = "false")
+    private boolean incremental;
+
+    // Files changed since the previous run are found from the snapshot; these add the files changed since
+    // this git revision (e.g. origin/main), including uncommitted and untracked files
+    @Parameter(property = "baseRef")
+    private String baseRef;
+
+    // Alternative to baseRef: a file listing one changed path per line, relative to the project directory
+    @Parameter(property = "changedFiles")
+    private File changedFiles;
+
+    @Parameter(defaultValue = "${project.basedir}", readonly = true)
+    private File baseDir;
+
     public void execute() throws MojoExecutionException {
         try {
-            Path root = Paths.get(rootDir);
+            Path root = resolveRootDir();
 
-            if (!Files.exists(root) || !Files.isDirectory(root)) {
-                throw new MojoExecutionException("Root directory does not exist: " + rootDir);
-            }
+            List<String> patternList = HttpRequestReport.parseSearchPatterns(searchPatterns);
 
-            // Parse comma-separated patterns
-            String[] patterns = searchPatterns.split(",");
-            List<String> patternList = new ArrayList<>();
-            for (String pattern : patterns) {
-                String trimmed = pattern.trim();
-                if (!trimmed.isEmpty()) {
-                    patternList.add(trimmed);
-                }
+            ReportFormat format = resolveFormat();
+
+            if (format == ReportFormat.TEXT) {
+                HttpRequestReport.displayHeader(analyzerLog(), rootDir, patternList);
             }
 
-            getLog().info("Scanning modules in: " + rootDir);
-            getLog().info("Target subdirectory: application");
-            getLog().info("Searching for patterns: " + String.join(", ", patternList));
-            getLog().info("");
+            SourceIndex index = scanIndex(root, patternList);
+            Tracer tracer = new Tracer(index, analyzerLog());
 
-            Tracer tracer = new Tracer(root, getLog());
-            Result result = tracer.traceModulesSubDir(root, "application", patternList);
+            Path snapshotFile = resolveCacheFile("http-requests.snapshot");
+            String snapshotKey = getPluginVersion() + "|" + root.toRealPath() + "|" + String.join(",", patternList)
+                                 + "|" + scanSettings();
+            Map<Path, TraceSnapshot.FileState> files = snapshotFile != null ? TraceSnapshot.fileStates(index) : null;
 
-            View view = new View(getLog());
-            view.displayResult(result);
+            // The whole tree is still scanned and its class graph built; only the trace is skipped for reused classes
+            Map<String, List<Result.TracePath>> previousPaths = Collections.emptyMap();
+            if (incremental) {
+                previousPaths = findReusablePaths(index, tracer, snapshotFile, snapshotKey, files);
+            }
+
+            HttpRequestReport report = new HttpRequestReport(tracer, patternList, previousPaths);
+            Result result;
+            if (format == ReportFormat.TEXT) {
+                try (ReportLog reportLog = openReportLog()) {
+                    result = report.displayText(reportLog);
+                }
+            } else {
+                try (RecordWriter writer = openRecordWriter("list-http-request")) {
+                    result = report.writeRecords(writer);
+                }
+            }
+            reportStatistics();
+
+            if (snapshotFile != null) {
+                try {
+                    TraceSnapshot.of(result, index, "application", files).save(snapshotFile, snapshotKey);
+                } catch (IOException e) {
+                    getLog().warn("Failed to write trace snapshot: " + snapshotFile);
+                }
+            }
 
         } catch (IOException e) {
             throw new MojoExecutionException("Error tracing modules", e);
+        } finally {
+            closeScanners();
+        }
+    }
+
+    private Map<String, List<Result.TracePath>> findReusablePaths(SourceIndex index, Tracer tracer,
+                                                                  Path snapshotFile, String snapshotKey,
+                                                                  Map<Path, TraceSnapshot.FileState> files)
+            throws IOException {
+        if (snapshotFile == null) {
+            getLog().warn("Incremental mode needs the analysis cache; running a full trace");
+            return Collections.emptyMap();
+        }
+
+        TraceSnapshot previous = TraceSnapshot.load(snapshotFile, snapshotKey);
+        if (previous == null) {
+            getLog().info("No previous trace result found; running a full trace");
+            return Collections.emptyMap();
+        }
+
+        // What changed since the previous run, and what the user declares changed (e.g. since the base revision)
+        Set<Path> changedPaths = previous.findChangedFiles(files);
+        ChangedFiles changed = resolveChangedFiles();
+        if (changed != null) {
+            changedPaths.addAll(changed.relativeTo(index.getRoot()));
+        }
+
+        Map<Path, String> classNamesByPath = new HashMap<>();
+        for (SourceFile file : index.getFiles()) {
+            if (file.getFullClassName() != null) {
+                classNamesByPath.put(index.getRoot().relativize(file.getPath()), file.getFullClassName());
+            }
+        }
+
+        // Both the class a changed file declares now and the one it declared before (e.g. when deleted)
+        Set<String> changedClasses = new HashSet<>();
+        for (Path changedPath : changedPaths) {
+            String current = classNamesByPath.get(changedPath);
+            if (current != null) {
+                changedClasses.add(current);
+            }
+            String before = previous.getClassName(changedPath);
+            if (before != null) {
+                changedClasses.add(before);
+            }
+        }
+
+        Set<String> affected = tracer.findDependentClasses(changedClasses, "application");
+        affected.addAll(previous.findAppClassesThrough(changedClasses));
+
+        Map<String, List<Result.TracePath>> reusable = new HashMap<>(previous.getPathsByAppClass());
+        reusable.keySet().removeAll(affected);
+
+        int appClasses = 0;
+        int retraced = 0;
+        for (SourceFile appFile : index.getFilesInLayer("application")) {
+            if (appFile.getFullClassName() != null) {
+                appClasses++;
+                if (!reusable.containsKey(appFile.getFullClassName())) {
+                    retraced++;
+                }
+            }
+        }
+        getLog().info("Incremental trace: " + changedPaths.size() + " changed files, "
+                      + retraced + " of " + appClasses + " application classes re-traced");
+        getLog().info("");
+
+        return reusable;
+    }
+
+    // Null when neither baseRef nor changedFiles is given
+    private ChangedFiles resolveChangedFiles() throws IOException {
+        if (changedFiles != null) {
+            return ChangedFiles.fromFile(changedFiles.toPath(), baseDir != null ? baseDir.toPath() : Paths.get(""));
+        }
+        if (baseRef != null && !baseRef.trim().isEmpty()) {
+            return ChangedFiles.fromGit(baseDir != null ? baseDir.toPath() : Paths.get(""), baseRef.trim());
         }
+        return null;
     }
 }
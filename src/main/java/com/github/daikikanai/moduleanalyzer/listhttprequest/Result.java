@@ -1,29 +1,59 @@
 package com.github.daikikanai.moduleanalyzer.listhttprequest;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 public class Result {
     private final List<TracePath> paths;
-    private final Set<String> seenMatches;
+    // Open addressing over the added paths, keyed by matched class, method and URL
+    private TracePath[] seenMatches = new TracePath[64];
+    private final Consumer<TracePath> listener;
 
     public Result() {
+        this(path -> { });
+    }
+
+    // The listener sees every new path as soon as it is added
+    public Result(Consumer<TracePath> listener) {
         this.paths = new ArrayList<>();
-        this.seenMatches = new HashSet<>();
+        this.listener = listener;
     }
 
+    // A path is kept once per class, method and URL (the same method may call different URLs).
+    // Not thread-safe: concurrent traces fill one Result per class and merge them on one thread.
     public void addPath(TracePath path) {
-        // Create unique key: className.methodName.url (to allow same method calling different URLs)
-        String key = path.getMatchedClass() + "." + path.getMethodName() + ":" + path.getUrl();
+        int mask = seenMatches.length - 1;
+        int slot = path.matchHash & mask;
+        while (seenMatches[slot] != null) {
+            if (seenMatches[slot].sameMatch(path)) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        seenMatches[slot] = path;
+        paths.add(path);
+        // Stay at most half full
+        if (paths.size() * 2 > seenMatches.length) {
+            rehash();
+        }
+        listener.accept(path);
+    }
 
-        // Only add if not already seen
-        if (!seenMatches.contains(key)) {
-            seenMatches.add(key);
-            paths.add(path);
+    private void rehash() {
+        TracePath[] table = new TracePath[seenMatches.length * 2];
+        int mask = table.length - 1;
+        for (TracePath path : paths) {
+            int slot = path.matchHash & mask;
+            while (table[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = path;
         }
+        seenMatches = table;
     }
 
     public List<TracePath> getPaths() {
-        return paths;
+        return Collections.unmodifiableList(paths);
     }
 
     public boolean hasMatches() {
@@ -31,22 +61,35 @@ public class Result {
     }
 
     public static class TracePath {
-        private final List<String> classChain;
+        private final ClassChain classChain;
         private final String matchedClass;
         private final int lineNumber;
         private final String lineContent;
         private final String methodName;
         private final String moduleName;
         private final String url;
+        private final int matchHash;
 
+        // The chain is shared, not copied; pass a ClassChain to avoid converting a list
         public TracePath(List<String> classChain, String matchedClass, int lineNumber, String lineContent, String methodName, String moduleName, String url) {
-            this.classChain = new ArrayList<>(classChain);
+            this.classChain = ClassChain.of(classChain);
             this.matchedClass = matchedClass;
             this.lineNumber = lineNumber;
             this.lineContent = lineContent;
             this.methodName = methodName;
             this.moduleName = moduleName;
             this.url = url;
+            int hash = matchedClass.hashCode();
+            hash = 31 * hash + Objects.hashCode(methodName);
+            hash = 31 * hash + Objects.hashCode(url);
+            this.matchHash = hash ^ (hash >>> 16);
+        }
+
+        boolean sameMatch(TracePath other) {
+            return matchHash == other.matchHash
+                && matchedClass.equals(other.matchedClass)
+                && Objects.equals(methodName, other.methodName)
+                && Objects.equals(url, other.url);
         }
 
         public List<String> getClassChain() {
@@ -0,0 +1,240 @@
+package com.github.daikikanai.moduleanalyzer.listhttprequest;
+
+import com.github.daikikanai.moduleanalyzer.index.SourceFile;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+// The trace paths of the last run, per application layer class, together with the class
+// declared by every file, so that deleted files can still be mapped to classes, and the
+// modification time and size the file had when it was scanned, so that files changed since
+// the last run are found whatever revision it was made at
+public class TraceSnapshot {
+    // Bump whenever the layout below changes
+    private static final int FORMAT_VERSION = 2;
+    private static final int MAGIC = 0x4d414854;
+
+    private final Map<String, List<Result.TracePath>> pathsByAppClass;
+    private final Map<Path, FileState> filesByPath;
+
+    // A scanned file, by its path relative to the root
+    public static class FileState {
+        private final String className;
+        private final long lastModified;
+        private final long size;
+
+        FileState(String className, long lastModified, long size) {
+            this.className = className;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        // Same check as the analysis cache makes before it trusts an entry
+        boolean sameAs(FileState other) {
+            return className.equals(other.className) && lastModified == other.lastModified && size == other.size;
+        }
+    }
+
+    private TraceSnapshot(Map<String, List<Result.TracePath>> pathsByAppClass, Map<Path, FileState> filesByPath) {
+        this.pathsByAppClass = pathsByAppClass;
+        this.filesByPath = filesByPath;
+    }
+
+    // The state of every file declaring a class; taken right after the scan so that it matches what was traced
+    public static Map<Path, FileState> fileStates(SourceIndex index) throws IOException {
+        Map<Path, FileState> filesByPath = new HashMap<>();
+        for (SourceFile file : index.getFiles()) {
+            if (file.getFullClassName() != null) {
+                BasicFileAttributes attributes = Files.readAttributes(file.getPath(), BasicFileAttributes.class);
+                filesByPath.put(index.getRoot().relativize(file.getPath()),
+                                new FileState(file.getFullClassName(), attributes.lastModifiedTime().toMillis(),
+                                              attributes.size()));
+            }
+        }
+        return filesByPath;
+    }
+
+    // Every traced class gets an entry, including classes without any path
+    public static TraceSnapshot of(Result result, SourceIndex index, String targetSubDir,
+                                   Map<Path, FileState> filesByPath) {
+        Map<String, List<Result.TracePath>> pathsByAppClass = new LinkedHashMap<>();
+        for (SourceFile file : index.getFilesInLayer(targetSubDir)) {
+            if (file.getFullClassName() != null) {
+                pathsByAppClass.put(file.getFullClassName(), new ArrayList<>());
+            }
+        }
+        for (Result.TracePath path : result.getPaths()) {
+            pathsByAppClass.computeIfAbsent(path.getMatchedClass(), k -> new ArrayList<>()).add(path);
+        }
+
+        return new TraceSnapshot(pathsByAppClass, filesByPath);
+    }
+
+    // Returns null when there is no snapshot or it was written for other settings
+    public static TraceSnapshot load(Path snapshotFile, String key) {
+        if (!Files.isRegularFile(snapshotFile)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !key.equals(readString(in))) {
+                return null;
+            }
+
+            Map<Path, FileState> filesByPath = new HashMap<>();
+            int fileCount = in.readInt();
+            for (int i = 0; i < fileCount; i++) {
+                Path path = Paths.get(readString(in));
+                String className = readString(in);
+                long lastModified = in.readLong();
+                filesByPath.put(path, new FileState(className, lastModified, in.readLong()));
+            }
+
+            Map<String, List<Result.TracePath>> pathsByAppClass = new LinkedHashMap<>();
+            int classCount = in.readInt();
+            for (int i = 0; i < classCount; i++) {
+                String appClass = readString(in);
+                int pathCount = in.readInt();
+                List<Result.TracePath> paths = new ArrayList<>(pathCount);
+                for (int j = 0; j < pathCount; j++) {
+                    paths.add(readPath(in));
+                }
+                pathsByAppClass.put(appClass, paths);
+            }
+
+            return new TraceSnapshot(pathsByAppClass, filesByPath);
+        } catch (IOException e) {
+            // A truncated or corrupt snapshot means a full trace
+            return null;
+        }
+    }
+
+    public void save(Path snapshotFile, String key) throws IOException {
+        Files.createDirectories(snapshotFile.getParent());
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, key);
+
+            out.writeInt(filesByPath.size());
+            for (Map.Entry<Path, FileState> file : filesByPath.entrySet()) {
+                // Stored with forward slashes so snapshots survive a change of platform
+                writeString(out, file.getKey().toString().replace(File.separatorChar, '/'));
+                writeString(out, file.getValue().className);
+                out.writeLong(file.getValue().lastModified);
+                out.writeLong(file.getValue().size);
+            }
+
+            out.writeInt(pathsByAppClass.size());
+            for (Map.Entry<String, List<Result.TracePath>> appClass : pathsByAppClass.entrySet()) {
+                writeString(out, appClass.getKey());
+                out.writeInt(appClass.getValue().size());
+                for (Result.TracePath path : appClass.getValue()) {
+                    writePath(out, path);
+                }
+            }
+        }
+
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public Map<String, List<Result.TracePath>> getPathsByAppClass() {
+        return pathsByAppClass;
+    }
+
+    public String getClassName(Path relativePath) {
+        FileState file = filesByPath.get(relativePath);
+        return file != null ? file.className : null;
+    }
+
+    // Files added, deleted or modified since the snapshot was taken, relative to the root
+    public Set<Path> findChangedFiles(Map<Path, FileState> currentFiles) {
+        Set<Path> changed = new TreeSet<>();
+        for (Map.Entry<Path, FileState> file : currentFiles.entrySet()) {
+            FileState before = filesByPath.get(file.getKey());
+            if (before == null || !before.sameAs(file.getValue())) {
+                changed.add(file.getKey());
+            }
+        }
+        for (Path path : filesByPath.keySet()) {
+            if (!currentFiles.containsKey(path)) {
+                changed.add(path);
+            }
+        }
+        return changed;
+    }
+
+    // Application classes whose previous paths pass through one of the given classes
+    public Set<String> findAppClassesThrough(Set<String> classNames) {
+        Set<String> appClasses = new HashSet<>();
+        for (Map.Entry<String, List<Result.TracePath>> appClass : pathsByAppClass.entrySet()) {
+            for (Result.TracePath path : appClass.getValue()) {
+                if (!Collections.disjoint(path.getClassChain(), classNames)) {
+                    appClasses.add(appClass.getKey());
+                    break;
+                }
+            }
+        }
+        return appClasses;
+    }
+
+    private static void writePath(DataOutputStream out, Result.TracePath path) throws IOException {
+        out.writeInt(path.getClassChain().size());
+        for (String className : path.getClassChain()) {
+            writeString(out, className);
+        }
+        writeString(out, path.getMatchedClass());
+        out.writeInt(path.getLineNumber());
+        writeNullableString(out, path.getLineContent());
+        writeNullableString(out, path.getMethodName());
+        writeNullableString(out, path.getModuleName());
+        writeNullableString(out, path.getUrl());
+    }
+
+    private static Result.TracePath readPath(DataInputStream in) throws IOException {
+        int chainLength = in.readInt();
+        ClassChain classChain = ClassChain.of(readString(in));
+        for (int i = 1; i < chainLength; i++) {
+            classChain = classChain.append(readString(in));
+        }
+        String matchedClass = readString(in);
+        int lineNumber = in.readInt();
+        String lineContent = readNullableString(in);
+        String methodName = readNullableString(in);
+        String moduleName = readNullableString(in);
+        String url = readNullableString(in);
+        return new Result.TracePath(classChain, matchedClass, lineNumber, lineContent, methodName, moduleName, url);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
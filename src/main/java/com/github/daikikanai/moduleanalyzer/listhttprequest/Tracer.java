@@ -1,43 +1,50 @@
 package com.github.daikikanai.moduleanalyzer.listhttprequest;
 
-import org.apache.maven.plugin.logging.Log;
+import com.github.daikikanai.moduleanalyzer.graph.ClassGraph;
+import com.github.daikikanai.moduleanalyzer.graph.PathFinder;
+import com.github.daikikanai.moduleanalyzer.graph.Reachability;
+import com.github.daikikanai.moduleanalyzer.index.CallSite;
+import com.github.daikikanai.moduleanalyzer.index.ConstantTable;
+import com.github.daikikanai.moduleanalyzer.index.FileFacts;
+import com.github.daikikanai.moduleanalyzer.index.MemberCall;
+import com.github.daikikanai.moduleanalyzer.index.SourceFile;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
 
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 public class Tracer {
-    private final Path root;
-    private final Log log;
-    private final Map<String, Path> classFileMap;
+    private static final Pattern LITERAL_PATTERN = Pattern.compile("^[\"']([^\"']*)[\"']$");
 
-    public Tracer(Path root, Log log) {
-        this.root = root;
+    private final SourceIndex index;
+    private final AnalyzerLog log;
+    private ClassGraph graph;
+    private ConstantTable constants;
+    // A call site is reached through many chains, its URL is resolved once (call sites compare by identity)
+    private final Map<CallSite, String> urls = new ConcurrentHashMap<>();
+
+    public Tracer(SourceIndex index, AnalyzerLog log) {
+        this.index = index;
         this.log = log;
-        this.classFileMap = new HashMap<>();
     }
 
-    public Result trace(String startClassName, String searchPattern) throws IOException {
-        // Build class file map first
-        buildClassFileMap();
-
+    public Result trace(String startClassName, String searchPattern) {
         Result result = new Result();
-        Set<String> visited = new HashSet<>();
-        List<String> currentChain = new ArrayList<>();
+        int startClass = getGraph().idOf(startClassName);
 
-        traceRecursive(startClassName, searchPattern, currentChain, visited, result, "unknown");
+        if (startClass != -1) {
+            traceRecursive(startClass, searchPattern, null, new BitSet(), result, "unknown");
+        }
 
         return result;
     }
 
-    public Result traceDirectory(Path targetDir, String searchPattern) throws IOException {
-        // Build class file map first
-        buildClassFileMap();
-
+    public Result traceDirectory(Path targetDir, String searchPattern) {
         Result result = new Result();
 
         // Find all classes in target directory
@@ -45,479 +52,314 @@ public class Tracer {
 
         // Trace each class independently
         for (String className : targetClasses) {
-            Set<String> visited = new HashSet<>();
-            List<String> currentChain = new ArrayList<>();
-            traceRecursive(className, searchPattern, currentChain, visited, result, "unknown");
+            int startClass = getGraph().idOf(className);
+            traceRecursive(startClass, searchPattern, null, new BitSet(), result, "unknown");
         }
 
         return result;
     }
 
-    public Result traceModulesSubDir(Path root, String targetSubDir, List<String> searchPatterns) throws IOException {
-        // Build class file map first
-        buildClassFileMap();
+    public Result traceModulesSubDir(String targetSubDir, List<String> searchPatterns) {
+        return traceModulesSubDir(targetSubDir, searchPatterns, Collections.emptyMap(), new Result());
+    }
 
-        Result result = new Result();
+    // Application layer classes with an entry in previousPaths are not traced again; their paths are reused.
+    // Classes are traced independently on the index's scanner, each into its own Result. A class's paths are
+    // added to result, and reach its listener, as soon as it and every class before it in file order are done,
+    // so the result is the same however many threads traced it.
+    public Result traceModulesSubDir(String targetSubDir, List<String> searchPatterns,
+                                     Map<String, List<Result.TracePath>> previousPaths, Result result) {
+        ClassGraph graph = getGraph();
+        List<SourceFile> appFiles = index.getFilesInLayer(targetSubDir);
+
+        Metrics.Phase phase = Metrics.phase("trace");
+        try {
+            Map<Integer, List<MatchInfo>> patternMatches = Collections.emptyMap();
+            Reachability reachability = null;
+            for (SourceFile appFile : appFiles) {
+                String appClassName = appFile.getFullClassName();
+                if (appClassName != null && !previousPaths.containsKey(appClassName)) {
+                    patternMatches = findPatternMatches(searchPatterns);
+                    // Which matching classes every class can reach, computed once for the whole graph
+                    BitSet matchingClasses = new BitSet(graph.size());
+                    patternMatches.keySet().forEach(matchingClasses::set);
+                    reachability = graph.reachability(matchingClasses);
+                    break;
+                }
+            }
 
-        // Find all subdirectories matching targetSubDir in all modules
-        List<Path> targetDirs = findSubDirectories(root, targetSubDir);
-
-        // First, find all classes that contain the search patterns
-        Map<String, List<MatchInfo>> patternMatches = new HashMap<>();
-
-        try (Stream<Path> paths = Files.walk(root)) {
-            paths.filter(Files::isRegularFile)
-                 .filter(path -> path.toString().endsWith(".java"))
-                 .forEach(javaFile -> {
-                     try {
-                         String content = new String(Files.readAllBytes(javaFile));
-                         String fullClassName = extractFullClassName(javaFile, content);
-                         if (fullClassName != null) {
-                             // Check for each search pattern
-                             for (String searchPattern : searchPatterns) {
-                                 List<Integer> matchingLines = findAllLineNumbers(content, searchPattern);
-                                 if (!matchingLines.isEmpty()) {
-                                     patternMatches.computeIfAbsent(fullClassName, k -> new ArrayList<>())
-                                         .add(new MatchInfo(searchPattern, matchingLines, content));
-                                 }
-                             }
-                         }
-                     } catch (IOException e) {
-                         log.warn("Failed to read file: " + javaFile);
-                     }
-                 });
+            // For each application layer class, collect the pattern matches it reaches
+            Map<Integer, List<MatchInfo>> matches = patternMatches;
+            Reachability reachable = reachability;
+            // Each worker searches with its own finder, reusing its scratch arrays from class to class
+            ThreadLocal<PathFinder> finders = ThreadLocal.withInitial(() -> new PathFinder(graph.getDigraph(), reachable));
+            // The first path of a class, method and URL wins, as when the classes are traced one after another
+            index.getScanner().<SourceFile, List<Result.TracePath>>forEachInOrderUnchecked(appFiles, appFile -> {
+                String appClassName = appFile.getFullClassName();
+                if (appClassName == null) {
+                    return Collections.emptyList();
+                }
+                List<Result.TracePath> previous = previousPaths.get(appClassName);
+                if (previous != null) {
+                    return previous;
+                }
+                Result classResult = new Result();
+                traceForwardToPatterns(graph.idOf(appClassName), matches, reachable, finders.get(), classResult,
+                                       appFile.getModule());
+                return classResult.getPaths();
+            }, paths -> {
+                for (Result.TracePath path : paths) {
+                    result.addPath(path);
+                }
+            });
+        } finally {
+            phase.end();
         }
 
-        // For each application layer class, trace backwards to find pattern matches
-        for (Path targetDir : targetDirs) {
-            String moduleName = extractModuleName(targetDir, root);
-            List<String> targetClasses = findClassesInDirectory(targetDir);
+        return result;
+    }
 
-            for (String appClassName : targetClasses) {
-                // Trace from application class to find if it reaches any pattern match
-                traceForwardToPatterns(appClassName, patternMatches, new HashSet<>(),
-                                      new ArrayList<>(), result, moduleName);
+    // Classes in targetSubDir that depend on any of the given classes, directly or transitively, or are one of them
+    public Set<String> findDependentClasses(Collection<String> classNames, String targetSubDir) {
+        ClassGraph graph = getGraph();
+        BitSet changed = new BitSet(graph.size());
+        for (String className : classNames) {
+            int classId = graph.idOf(className);
+            if (classId != -1) {
+                changed.set(classId);
             }
         }
 
+        BitSet dependents = graph.getDigraph().reverse().reachableFrom(changed);
+
+        Set<String> result = new HashSet<>();
+        for (SourceFile file : index.getFilesInLayer(targetSubDir)) {
+            String fullClassName = file.getFullClassName();
+            if (fullClassName != null && dependents.get(graph.idOf(fullClassName))) {
+                result.add(fullClassName);
+            }
+        }
         return result;
     }
 
-    private static class MatchInfo {
-        String pattern;
-        List<Integer> lineNumbers;
-        String fileContent;
-
-        MatchInfo(String pattern, List<Integer> lineNumbers, String fileContent) {
-            this.pattern = pattern;
-            this.lineNumbers = lineNumbers;
-            this.fileContent = fileContent;
+    // All classes that contain the search patterns
+    private Map<Integer, List<MatchInfo>> findPatternMatches(List<String> searchPatterns) {
+        Map<Integer, List<MatchInfo>> patternMatches = new HashMap<>();
+
+        for (SourceFile file : index.getFiles()) {
+            String fullClassName = file.getFullClassName();
+            if (fullClassName != null) {
+                int classId = graph.idOf(fullClassName);
+                // Check for each search pattern
+                for (String searchPattern : searchPatterns) {
+                    List<CallSite> callSites = file.getFacts().getCallSites(searchPattern);
+                    if (!callSites.isEmpty()) {
+                        patternMatches.computeIfAbsent(classId, k -> new ArrayList<>())
+                            .add(new MatchInfo(searchPattern, callSites, file));
+                    }
+                }
+            }
         }
+
+        return patternMatches;
     }
 
-    private void traceForwardToPatterns(String className, Map<String, List<MatchInfo>> patternMatches,
-                                       Set<String> visited, List<String> currentChain,
-                                       Result result, String moduleName) throws IOException {
-        if (visited.contains(className)) {
-            return;
+    // Worker threads of a trace share the graph and constants
+    private synchronized ClassGraph getGraph() {
+        if (graph == null) {
+            graph = ClassGraph.build(index);
         }
-        visited.add(className);
-        currentChain.add(className);
+        return graph;
+    }
 
-        Path classFile = classFileMap.get(className);
-        if (classFile == null) {
-            currentChain.remove(currentChain.size() - 1);
-            return;
+    private synchronized ConstantTable getConstants() {
+        if (constants == null) {
+            constants = ConstantTable.build(index);
         }
+        return constants;
+    }
 
-        String content = new String(Files.readAllBytes(classFile));
-
-        // Check if this class has pattern matches
-        if (patternMatches.containsKey(className)) {
-            List<MatchInfo> matches = patternMatches.get(className);
-
-            // The first element in currentChain is the application layer class
-            String appClassName = currentChain.get(0);
-
-            for (MatchInfo match : matches) {
-                for (int lineNumber : match.lineNumbers) {
-                    try {
-                        String lineContent = extractLine(match.fileContent, lineNumber);
-                        String methodName = extractMethodNameAtLine(match.fileContent, lineNumber);
-                        String urlExpression = extractFirstArgument(lineContent, match.pattern);
-                        String url = resolveUrlExpression(urlExpression, match.fileContent);
+    private static class MatchInfo {
+        String pattern;
+        List<CallSite> callSites;
+        SourceFile file;
 
-                        // Determine the application layer method name
-                        String appMethodName;
-                        if (className.equals(appClassName)) {
-                            // Direct call from application layer
-                            appMethodName = methodName;
-                        } else {
-                            // Called through dependency - trace back through the chain
-                            appMethodName = findCallingMethodInAppLayer(appClassName, currentChain);
-                        }
+        MatchInfo(String pattern, List<CallSite> callSites, SourceFile file) {
+            this.pattern = pattern;
+            this.callSites = callSites;
+            this.file = file;
+        }
+    }
 
-                        result.addPath(new Result.TracePath(currentChain, appClassName, lineNumber,
-                                      lineContent, appMethodName, moduleName, url));
-                    } catch (Exception e) {
-                        log.warn("Failed to parse line " + lineNumber + " in " + className + ": " + e.getMessage());
-                    }
+    private void traceForwardToPatterns(int appClass, Map<Integer, List<MatchInfo>> patternMatches,
+                                        Reachability reachability, PathFinder finder, Result result,
+                                        String moduleName) {
+        String appClassName = graph.nameOf(appClass);
+        ClassChain appChain = ClassChain.of(appClassName);
+        BitSet reported = new BitSet();
+
+        // Direct calls from the application layer class itself
+        int ownTarget = reachability.indexOfTarget(appClass);
+        if (ownTarget != -1) {
+            addMatches(appClass, appChain, appClassName, null, patternMatches, result, moduleName);
+            reported.set(ownTarget);
+        }
+
+        // Every match reachable through a dependency is attributed to the first dependency reaching it
+        Metrics.count(Metrics.Counter.GRAPH_NODES_VISITED, 1);
+        Metrics.count(Metrics.Counter.GRAPH_EDGES_VISITED, graph.outDegree(appClass));
+        for (int edge = graph.edgeStart(appClass); edge < graph.edgeEnd(appClass); edge++) {
+            int dependency = graph.edgeTarget(edge);
+            BitSet newTargets = (BitSet) reachability.reachableTargets(dependency).clone();
+            newTargets.andNot(reported);
+            if (newTargets.isEmpty()) {
+                continue;
+            }
+            reported.or(newTargets);
+
+            String appMethodName = findCallingMethodInAppLayer(appClassName, graph.nameOf(dependency));
+
+            // One search from the dependency finds the path to every new target
+            finder.search(dependency, newTargets);
+
+            // Consecutive paths from the same dependency usually start alike; their chains share that prefix
+            int[] previousPath = new int[0];
+            ClassChain[] previousChains = new ClassChain[0];
+            for (int target = newTargets.nextSetBit(0); target >= 0; target = newTargets.nextSetBit(target + 1)) {
+                int[] path = finder.pathTo(target);
+                ClassChain[] chains = new ClassChain[path.length];
+                ClassChain chain = appChain;
+                for (int i = 0; i < path.length; i++) {
+                    boolean shared = i < previousPath.length && previousPath[i] == path[i]
+                                     && (i == 0 || chains[i - 1] == previousChains[i - 1]);
+                    chain = shared ? previousChains[i] : chain.append(graph.nameOf(path[i]));
+                    chains[i] = chain;
                 }
+                previousPath = path;
+                previousChains = chains;
+                addMatches(reachability.targetAt(target), chain, appClassName, appMethodName,
+                           patternMatches, result, moduleName);
             }
         }
+    }
+
+    // appClassName is the first element of the chain
+    private void addMatches(int matchedClass, ClassChain chain, String appClassName, String appMethodName,
+                            Map<Integer, List<MatchInfo>> patternMatches, Result result, String moduleName) {
 
-        // Continue tracing through dependencies
-        Set<String> dependencies = extractDependencies(content);
-        for (String dependency : dependencies) {
-            if (classFileMap.containsKey(dependency)) {
-                traceForwardToPatterns(dependency, patternMatches, visited, currentChain, result, moduleName);
+        for (MatchInfo match : patternMatches.get(matchedClass)) {
+            for (CallSite callSite : match.callSites) {
+                int lineNumber = callSite.getLineNumber();
+                try {
+                    String lineContent = callSite.getLineContent();
+                    String url = resolveUrl(callSite, match.file);
+
+                    // Direct calls use the enclosing method, calls through dependencies the calling method
+                    String methodName = appMethodName != null ? appMethodName : callSite.getMethodName();
+
+                    result.addPath(new Result.TracePath(chain, appClassName, lineNumber,
+                                  lineContent, methodName, moduleName, url));
+                } catch (Exception e) {
+                    log.warn("Failed to parse line " + lineNumber + " in " + graph.nameOf(matchedClass) + ": " + e.getMessage());
+                }
             }
         }
-
-        currentChain.remove(currentChain.size() - 1);
     }
 
-    private String findCallingMethodInAppLayer(String appClassName, List<String> chain) throws IOException {
-        Path appClassFile = classFileMap.get(appClassName);
+    private String findCallingMethodInAppLayer(String appClassName, String nextClassName) {
+        SourceFile appClassFile = index.findByClassName(appClassName);
         if (appClassFile == null) {
             return "unknown";
         }
 
-        String content = new String(Files.readAllBytes(appClassFile));
-        String[] lines = content.split("\n");
+        FileFacts facts = appClassFile.getFacts();
 
         // chain is: [AppClass, IntermediateClass1, IntermediateClass2, ..., FinalClass]
         // We need to find which method in AppClass calls IntermediateClass1
-        if (chain.size() < 2) {
-            return "unknown";
-        }
-
-        String nextClassName = chain.get(1);
         String simpleNextClassName = nextClassName.substring(nextClassName.lastIndexOf('.') + 1);
 
-        // Find field of type nextClassName
-        Pattern fieldPattern = Pattern.compile("\\b" + simpleNextClassName + "\\s+(\\w+)\\s*;");
-        Set<String> fieldNames = new HashSet<>();
-        for (String line : lines) {
-            Matcher fieldMatcher = fieldPattern.matcher(line);
-            if (fieldMatcher.find()) {
-                fieldNames.add(fieldMatcher.group(1));
-            }
-        }
+        // Find fields of type nextClassName
+        List<String> fieldNames = facts.getFieldNamesByType().getOrDefault(simpleNextClassName, Collections.emptyList());
 
-        // Find method calls using those field names
-        for (int i = 0; i < lines.length; i++) {
-            String line = lines[i];
-            for (String fieldName : fieldNames) {
-                // Look for pattern: fieldName.anyMethod(
-                Pattern callPattern = Pattern.compile("\\b" + Pattern.quote(fieldName) + "\\.\\w+\\s*\\(");
-                Matcher matcher = callPattern.matcher(line);
-                if (matcher.find()) {
-                    // Found a call, now find which method contains this call
-                    String callingMethod = extractMethodNameAtLine(content, i + 1);
-                    if (!callingMethod.equals("unknown")) {
-                        return callingMethod;
-                    }
-                }
+        // The earliest fieldName.anyMethod( call inside a method wins
+        MemberCall firstCall = null;
+        for (String fieldName : fieldNames) {
+            MemberCall call = facts.getFirstCallByReceiver().get(fieldName);
+            if (call != null && (firstCall == null || call.getLineNumber() < firstCall.getLineNumber())) {
+                firstCall = call;
             }
         }
 
-        return "unknown";
+        return firstCall != null ? firstCall.getMethodName() : "unknown";
     }
 
-    private String extractModuleName(Path targetDir, Path root) {
-        // Get relative path from root
-        Path relativePath = root.relativize(targetDir);
-
-        // The first component is the module name
-        if (relativePath.getNameCount() > 0) {
-            return relativePath.getName(0).toString();
-        }
-
-        return "unknown";
-    }
-
-    private List<Path> findSubDirectories(Path root, String targetSubDir) throws IOException {
-        List<Path> matchingDirs = new ArrayList<>();
-
-        try (Stream<Path> paths = Files.walk(root, 3)) {
-            paths.filter(Files::isDirectory)
-                 .filter(path -> path.getFileName().toString().equals(targetSubDir))
-                 .forEach(matchingDirs::add);
-        }
-
-        return matchingDirs;
-    }
-
-    private List<String> findClassesInDirectory(Path targetDir) throws IOException {
+    private List<String> findClassesInDirectory(Path targetDir) {
         List<String> classes = new ArrayList<>();
 
-        try (Stream<Path> paths = Files.walk(targetDir)) {
-            paths.filter(Files::isRegularFile)
-                 .filter(path -> path.toString().endsWith(".java"))
-                 .forEach(javaFile -> {
-                     try {
-                         String content = new String(Files.readAllBytes(javaFile));
-                         String fullClassName = extractFullClassName(javaFile, content);
-                         if (fullClassName != null) {
-                             classes.add(fullClassName);
-                         }
-                     } catch (IOException e) {
-                         log.warn("Failed to read file: " + javaFile);
-                     }
-                 });
+        for (SourceFile file : index.getFiles()) {
+            String fullClassName = file.getFullClassName();
+            if (file.getPath().startsWith(targetDir) && fullClassName != null) {
+                classes.add(fullClassName);
+            }
         }
 
         return classes;
     }
 
-    private void buildClassFileMap() throws IOException {
-        try (Stream<Path> paths = Files.walk(root)) {
-            paths.filter(Files::isRegularFile)
-                 .filter(path -> path.toString().endsWith(".java"))
-                 .forEach(javaFile -> {
-                     try {
-                         String content = new String(Files.readAllBytes(javaFile));
-                         String fullClassName = extractFullClassName(javaFile, content);
-                         if (fullClassName != null) {
-                             classFileMap.put(fullClassName, javaFile);
-                         }
-                     } catch (IOException e) {
-                         log.warn("Failed to read file: " + javaFile);
-                     }
-                 });
-        }
-    }
-
-    private void traceRecursive(String className, String searchPattern,
-                                List<String> currentChain, Set<String> visited,
-                                Result result, String moduleName) throws IOException {
+    private void traceRecursive(int classId, String searchPattern,
+                                ClassChain parentChain, BitSet visited,
+                                Result result, String moduleName) {
 
-        if (visited.contains(className)) {
+        if (visited.get(classId)) {
             return;
         }
-        visited.add(className);
-        currentChain.add(className);
+        visited.set(classId);
+        Metrics.count(Metrics.Counter.GRAPH_NODES_VISITED, 1);
+        Metrics.count(Metrics.Counter.GRAPH_EDGES_VISITED, graph.outDegree(classId));
 
-        Path classFile = classFileMap.get(className);
-        if (classFile == null) {
-            currentChain.remove(currentChain.size() - 1);
-            return;
-        }
-
-        String content = new String(Files.readAllBytes(classFile));
+        String className = graph.nameOf(classId);
+        SourceFile classFile = index.findByClassName(className);
+        ClassChain currentChain = parentChain == null ? ClassChain.of(className) : parentChain.append(className);
 
         // Find all occurrences of the search pattern in this class
-        List<Integer> matchingLines = findAllLineNumbers(content, searchPattern);
-        for (int lineNumber : matchingLines) {
+        for (CallSite callSite : classFile.getFacts().getCallSites(searchPattern)) {
+            int lineNumber = callSite.getLineNumber();
+            String lineContent = callSite.getLineContent();
             try {
-                String lineContent = extractLine(content, lineNumber);
-                String methodName = extractMethodNameAtLine(content, lineNumber);
-                String urlExpression = extractFirstArgument(lineContent, searchPattern);
-                String url = resolveUrlExpression(urlExpression, content);
+                String methodName = callSite.getMethodName();
+                String url = resolveUrl(callSite, classFile);
                 result.addPath(new Result.TracePath(currentChain, className, lineNumber, lineContent, methodName, moduleName, url));
             } catch (Exception e) {
                 // Fail-safe: Log error but continue processing
                 log.warn("Failed to parse line " + lineNumber + " in " + className + ": " + e.getMessage());
-                String lineContent = extractLine(content, lineNumber);
                 String methodName = "ERROR";
                 String url = "[Parse Error: " + e.getMessage() + "]";
                 result.addPath(new Result.TracePath(currentChain, className, lineNumber, lineContent, methodName, moduleName, url));
             }
         }
 
-        // Find all classes this class depends on
-        Set<String> dependencies = extractDependencies(content);
-
-        for (String dependency : dependencies) {
-            if (classFileMap.containsKey(dependency)) {
-                traceRecursive(dependency, searchPattern, currentChain, visited, result, moduleName);
-            }
-        }
-
-        currentChain.remove(currentChain.size() - 1);
-    }
-
-    private Set<String> extractDependencies(String content) {
-        Set<String> dependencies = new HashSet<>();
-
-        // Extract from import statements
-        Pattern importPattern = Pattern.compile("import\\s+([a-zA-Z0-9_.]+);");
-        Matcher importMatcher = importPattern.matcher(content);
-        while (importMatcher.find()) {
-            String importedClass = importMatcher.group(1);
-            if (classFileMap.containsKey(importedClass)) {
-                dependencies.add(importedClass);
-            }
-        }
-
-        // Extract from field declarations and method calls
-        for (String className : classFileMap.keySet()) {
-            String simpleClassName = className.substring(className.lastIndexOf('.') + 1);
-
-            // Check if the simple class name is used in the content
-            Pattern usagePattern = Pattern.compile("\\b" + simpleClassName + "\\b");
-            Matcher usageMatcher = usagePattern.matcher(content);
-
-            if (usageMatcher.find()) {
-                // Verify it's imported or in the same package
-                if (content.contains("import " + className + ";") ||
-                    isSamePackage(content, className)) {
-                    dependencies.add(className);
-                }
-            }
-        }
-
-        return dependencies;
-    }
-
-    private boolean isSamePackage(String content, String className) {
-        String packageName = extractPackageName(content);
-        if (packageName == null) {
-            return false;
-        }
-
-        String classPackage = className.substring(0, className.lastIndexOf('.'));
-        return packageName.equals(classPackage);
-    }
-
-    private String extractFullClassName(Path javaFile, String content) {
-        String packageName = extractPackageName(content);
-        if (packageName == null) {
-            return null;
-        }
-
-        String fileName = javaFile.getFileName().toString().replace(".java", "");
-        return packageName + "." + fileName;
-    }
-
-    private String extractPackageName(String content) {
-        String[] lines = content.split("\n");
-        for (String line : lines) {
-            line = line.trim();
-            if (line.startsWith("package ")) {
-                return line.substring(8, line.indexOf(';')).trim();
-            }
-        }
-        return null;
-    }
-
-    private List<Integer> findAllLineNumbers(String content, String searchPattern) {
-        List<Integer> lineNumbers = new ArrayList<>();
-        String[] lines = content.split("\n");
-        String lowerPattern = searchPattern.toLowerCase();
-        for (int i = 0; i < lines.length; i++) {
-            if (lines[i].toLowerCase().contains(lowerPattern)) {
-                lineNumbers.add(i + 1);
-            }
-        }
-        return lineNumbers;
-    }
-
-    private int findLineNumber(String content, String searchPattern) {
-        String[] lines = content.split("\n");
-        String lowerPattern = searchPattern.toLowerCase();
-        for (int i = 0; i < lines.length; i++) {
-            if (lines[i].toLowerCase().contains(lowerPattern)) {
-                return i + 1;
-            }
-        }
-        return -1;
-    }
-
-    private String extractLine(String content, int lineNumber) {
-        if (lineNumber < 1) {
-            return "";
-        }
-        String[] lines = content.split("\n");
-        if (lineNumber <= lines.length) {
-            return lines[lineNumber - 1].trim();
-        }
-        return "";
-    }
-
-    private String extractMethodNameAtLine(String content, int targetLineNumber) {
-        String[] lines = content.split("\n");
-
-        // Search backwards from the target line to find the method declaration
-        for (int i = targetLineNumber - 1; i >= 0; i--) {
-            String line = lines[i].trim();
-
-            // Look for method pattern: (visibility) (modifiers) returnType methodName(
-            // Example: public void createOrder(
-            // Example: private static String getName(
-            Pattern methodPattern = Pattern.compile("(?:public|private|protected)\\s+(?:static\\s+)?(?:void|\\w+(?:<[^>]+>)?)\\s+(\\w+)\\s*\\(");
-            Matcher matcher = methodPattern.matcher(line);
-
-            if (matcher.find()) {
-                return matcher.group(1);
-            }
-
-            // Also try simpler pattern for methods without visibility modifier
-            Pattern simplePattern = Pattern.compile("^\\s*(?:void|\\w+)\\s+(\\w+)\\s*\\(");
-            Matcher simpleMatcher = simplePattern.matcher(line);
-
-            if (simpleMatcher.find()) {
-                String potentialMethod = simpleMatcher.group(1);
-                // Filter out keywords
-                if (!potentialMethod.equals("if") &&
-                    !potentialMethod.equals("while") &&
-                    !potentialMethod.equals("for") &&
-                    !potentialMethod.equals("switch") &&
-                    !potentialMethod.equals("catch")) {
-                    return potentialMethod;
-                }
-            }
+        // Follow all classes this class depends on
+        for (int edge = graph.edgeStart(classId); edge < graph.edgeEnd(classId); edge++) {
+            traceRecursive(graph.edgeTarget(edge), searchPattern, currentChain, visited, result, moduleName);
         }
-
-        return "unknown";
     }
 
-    private String extractFirstArgument(String lineContent, String searchPattern) {
-        try {
-            // Find the position of the search pattern (e.g., "client.post")
-            int patternIndex = lineContent.toLowerCase().indexOf(searchPattern.toLowerCase());
-            if (patternIndex == -1) {
-                return "";
-            }
-
-            // Find the opening parenthesis after the pattern
-            int openParenIndex = lineContent.indexOf('(', patternIndex);
-            if (openParenIndex == -1) {
-                return "";
-            }
-
-            // Extract the first argument (URL)
-            int startIndex = openParenIndex + 1;
-            String afterParen = lineContent.substring(startIndex).trim();
-
-            // Find the end of the first argument
-            int commaIndex = afterParen.indexOf(',');
-            int closeParenIndex = afterParen.indexOf(')');
-
-            int endIndex;
-            if (commaIndex != -1 && (closeParenIndex == -1 || commaIndex < closeParenIndex)) {
-                endIndex = commaIndex;
-            } else if (closeParenIndex != -1) {
-                endIndex = closeParenIndex;
-            } else {
-                return "";
-            }
-
-            String firstArg = afterParen.substring(0, endIndex).trim();
-            return firstArg;
-        } catch (Exception e) {
-            return "[Error extracting argument]";
+    private String resolveUrl(CallSite callSite, SourceFile file) {
+        String url = urls.get(callSite);
+        if (url == null) {
+            url = resolveUrlExpression(callSite.getUrlExpression(), file);
+            urls.putIfAbsent(callSite, url);
         }
+        return url;
     }
 
-    private String resolveUrlExpression(String expression, String fileContent) {
+    private String resolveUrlExpression(String expression, SourceFile file) {
         try {
             expression = expression.trim();
 
             // If it's a simple string literal, return it
-            Pattern literalPattern = Pattern.compile("^[\"']([^\"']*)[\"']$");
-            Matcher literalMatcher = literalPattern.matcher(expression);
+            Metrics.count(Metrics.Counter.REGEX_EVALUATIONS, 1);
+            Matcher literalMatcher = LITERAL_PATTERN.matcher(expression);
             if (literalMatcher.matches()) {
                 return literalMatcher.group(1);
             }
@@ -525,18 +367,16 @@ public class Tracer {
             // Handle concatenation (e.g., HOST + "/api/orders" + SUFFIX)
             if (expression.contains("+")) {
                 StringBuilder result = new StringBuilder();
-                String[] parts = expression.split("\\+");
-
-                for (String part : parts) {
-                    part = part.trim();
 
+                for (String part : ConstantTable.splitConcatenation(expression)) {
                     // Check if it's a string literal
-                    Matcher partLiteralMatcher = literalPattern.matcher(part);
+                    Metrics.count(Metrics.Counter.REGEX_EVALUATIONS, 1);
+                    Matcher partLiteralMatcher = LITERAL_PATTERN.matcher(part);
                     if (partLiteralMatcher.matches()) {
                         result.append(partLiteralMatcher.group(1));
                     } else {
                         // It's a variable or constant - try to resolve it
-                        String value = resolveVariable(part, fileContent);
+                        String value = resolveVariable(part, file);
                         if (value != null) {
                             result.append(value);
                         } else {
@@ -549,7 +389,7 @@ public class Tracer {
             }
 
             // Single variable/constant
-            String value = resolveVariable(expression, fileContent);
+            String value = resolveVariable(expression, file);
             if (value != null) {
                 return value;
             }
@@ -560,34 +400,14 @@ public class Tracer {
         }
     }
 
-    private String resolveVariable(String varName, String fileContent) {
-        try {
-            varName = varName.trim();
-
-            // Look for constant/field declarations
-            // Pattern: private/public static final String VARNAME = "value";
-            Pattern constantPattern = Pattern.compile(
-                "(?:private|public|protected)?\\s*(?:static)?\\s*(?:final)?\\s*String\\s+" +
-                Pattern.quote(varName) + "\\s*=\\s*[\"']([^\"']*)[\"']"
-            );
-            Matcher matcher = constantPattern.matcher(fileContent);
-            if (matcher.find()) {
-                return matcher.group(1);
-            }
-
-            // Look for simple variable assignments
-            // Pattern: String varName = "value";
-            Pattern varPattern = Pattern.compile(
-                "String\\s+" + Pattern.quote(varName) + "\\s*=\\s*[\"']([^\"']*)[\"']"
-            );
-            Matcher varMatcher = varPattern.matcher(fileContent);
-            if (varMatcher.find()) {
-                return varMatcher.group(1);
-            }
-
-            return null;
-        } catch (Exception e) {
-            return null;
+    private String resolveVariable(String varName, SourceFile file) {
+        // Variables assigned a literal in this file, collected while indexing
+        // Pattern: String varName = "value";
+        String value = file.getFacts().getStringLiterals().get(varName.trim());
+        if (value != null) {
+            return value;
         }
+        // Constants of this or another class, e.g. ApiPaths.ORDERS or BASE + "/v1"
+        return getConstants().resolve(file, varName);
     }
 }
@@ -1,13 +1,13 @@
 package com.github.daikikanai.moduleanalyzer.listhttprequest;
 
-import org.apache.maven.plugin.logging.Log;
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
 
 import java.util.*;
 
 public class View {
-    private final Log log;
+    private final AnalyzerLog log;
 
-    public View(Log log) {
+    public View(AnalyzerLog log) {
         this.log = log;
     }
 
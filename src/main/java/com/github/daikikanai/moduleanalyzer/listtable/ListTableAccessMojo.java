@@ -0,0 +1,42 @@
+package com.github.daikikanai.moduleanalyzer.listtable;
+
+import com.github.daikikanai.moduleanalyzer.AbstractAnalyzerMojo;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportFormat;
+import com.github.daikikanai.moduleanalyzer.report.ReportLog;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+@Mojo(name = "list-table-access")
+public class ListTableAccessMojo extends AbstractAnalyzerMojo {
+
+    public void execute() throws MojoExecutionException {
+        try {
+            Path root = resolveRootDir();
+
+            ReportFormat format = resolveFormat();
+
+            TableAccessReport report = new TableAccessReport(scanIndex(root, Collections.emptyList()));
+
+            if (format == ReportFormat.TEXT) {
+                try (ReportLog reportLog = openReportLog()) {
+                    report.displayText(reportLog);
+                }
+            } else {
+                try (RecordWriter writer = openRecordWriter("list-table-access")) {
+                    report.writeRecords(writer);
+                }
+            }
+            reportStatistics();
+
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error scanning modules", e);
+        } finally {
+            closeScanners();
+        }
+    }
+}
@@ -1,38 +1,42 @@
 package com.github.daikikanai.moduleanalyzer.listtable;
 
-import org.apache.maven.plugin.AbstractMojo;
+import com.github.daikikanai.moduleanalyzer.AbstractAnalyzerMojo;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportFormat;
+import com.github.daikikanai.moduleanalyzer.report.ReportLog;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
-import org.apache.maven.plugins.annotations.Parameter;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
 
 @Mojo(name = "list-table")
-public class ListTableMojo extends AbstractMojo {
-
-    @Parameter(property = "rootDir", required = true)
-    private String rootDir;
+public class ListTableMojo extends AbstractAnalyzerMojo {
 
     public void execute() throws MojoExecutionException {
         try {
-            Path root = Paths.get(rootDir);
+            Path root = resolveRootDir();
 
-            if (!Files.exists(root) || !Files.isDirectory(root)) {
-                throw new MojoExecutionException("Root directory does not exist: " + rootDir);
-            }
+            ReportFormat format = resolveFormat();
 
-            TableDataSource dataSource = new TableDataSource(root);
-            TableView view = new TableView(getLog());
+            TableReport report = new TableReport(scanIndex(root, Collections.emptyList()));
 
-            Map<String, List<TableInfo>> moduleTables = dataSource.scanModuleTables();
-            view.displayTables(moduleTables);
+            if (format == ReportFormat.TEXT) {
+                try (ReportLog reportLog = openReportLog()) {
+                    report.displayText(reportLog);
+                }
+            } else {
+                try (RecordWriter writer = openRecordWriter("list-table")) {
+                    report.writeRecords(writer);
+                }
+            }
+            reportStatistics();
 
         } catch (IOException e) {
             throw new MojoExecutionException("Error scanning modules", e);
+        } finally {
+            closeScanners();
         }
     }
 }
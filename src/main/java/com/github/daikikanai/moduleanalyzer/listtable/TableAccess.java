@@ -0,0 +1,21 @@
+package com.github.daikikanai.moduleanalyzer.listtable;
+
+import java.util.*;
+
+// A table of a module and the application classes (use cases) that reach its repository, in name order
+public class TableAccess {
+    final String module;
+    final TableInfo table;
+    final List<String> useCases = new ArrayList<>();
+    final List<String> useCaseModules = new ArrayList<>();
+
+    public TableAccess(String module, TableInfo table) {
+        this.module = module;
+        this.table = table;
+    }
+
+    void addUseCase(String module, String className) {
+        useCaseModules.add(module);
+        useCases.add(className);
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.daikikanai.moduleanalyzer.listtable;
+
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportRecord;
+
+import java.util.*;
+
+// The list-table-access report: for every table, the use cases that touch it
+public class TableAccessReport {
+    private final List<TableAccess> accesses;
+
+    public TableAccessReport(SourceIndex index) {
+        this.accesses = new TableDataSource(index).scanTableAccess();
+    }
+
+    public void displayText(AnalyzerLog log) {
+        TableAccessView view = new TableAccessView(log);
+        view.displayAccesses(accesses);
+    }
+
+    // One record per table, use cases as full class names with their modules at the same positions
+    public void writeRecords(RecordWriter writer) {
+        for (TableAccess access : accesses) {
+            writer.write(new ReportRecord("tableAccess")
+                             .put("module", access.module)
+                             .put("table", access.table.tableName)
+                             .put("repository", access.table.repositoryName)
+                             .put("useCases", access.useCases)
+                             .put("useCaseModules", access.useCaseModules));
+        }
+    }
+}
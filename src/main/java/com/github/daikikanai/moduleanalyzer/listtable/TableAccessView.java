@@ -0,0 +1,42 @@
+package com.github.daikikanai.moduleanalyzer.listtable;
+
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+
+import java.util.*;
+
+public class TableAccessView {
+    private final AnalyzerLog log;
+
+    public TableAccessView(AnalyzerLog log) {
+        this.log = log;
+    }
+
+    // Tables under their module; use cases of other modules are marked, as they cross a module boundary
+    public void displayAccesses(List<TableAccess> accesses) {
+        if (accesses.isEmpty()) {
+            log.info("No repository classes found.");
+            return;
+        }
+
+        String module = null;
+        for (TableAccess access : accesses) {
+            if (!access.module.equals(module)) {
+                module = access.module;
+                log.info("");
+                log.info("[Module: " + module + "]");
+            }
+            displayAccess(access);
+        }
+        log.info("");
+    }
+
+    private void displayAccess(TableAccess access) {
+        log.info("  - " + access.table.tableName + " (use cases: " + access.useCases.size() + ")");
+        for (int i = 0; i < access.useCases.size(); i++) {
+            String useCase = access.useCases.get(i);
+            String simpleName = useCase.substring(useCase.lastIndexOf('.') + 1);
+            String useCaseModule = access.useCaseModules.get(i);
+            log.info("      " + simpleName + (access.module.equals(useCaseModule) ? "" : " [" + useCaseModule + "]"));
+        }
+    }
+}
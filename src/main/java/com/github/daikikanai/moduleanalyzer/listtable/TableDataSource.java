@@ -1,75 +1,107 @@
 package com.github.daikikanai.moduleanalyzer.listtable;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import com.github.daikikanai.moduleanalyzer.graph.ClassGraph;
+import com.github.daikikanai.moduleanalyzer.graph.Reachability;
+import com.github.daikikanai.moduleanalyzer.index.SourceFile;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 public class TableDataSource {
-    private final Path root;
+    private static final Pattern REPOSITORY_PATTERN = Pattern.compile("(.+)Repository\\.java$");
+
+    private final SourceIndex index;
 
-    public TableDataSource(Path root) {
-        this.root = root;
+    public TableDataSource(SourceIndex index) {
+        this.index = index;
     }
 
-    public Map<String, List<TableInfo>> scanModuleTables() throws IOException {
+    public Map<String, List<TableInfo>> scanModuleTables() {
         Map<String, List<TableInfo>> result = new HashMap<>();
 
-        try (Stream<Path> paths = Files.walk(root)) {
-            paths.filter(Files::isDirectory)
-                 .filter(path -> path.getFileName().toString().equals("infra"))
-                 .forEach(infraPath -> {
-                     try {
-                         String moduleName = extractModuleName(infraPath);
-                         List<TableInfo> tables = scanInfraDirectory(infraPath);
-                         if (!tables.isEmpty()) {
-                             result.put(moduleName, tables);
-                         }
-                     } catch (IOException e) {
-                         throw new RuntimeException("Error scanning infra directory: " + infraPath, e);
-                     }
-                 });
+        Metrics.Phase phase = Metrics.phase("tables");
+        try {
+            for (SourceFile file : index.getFilesInLayer("infra")) {
+                TableInfo table = toTableInfo(file);
+                if (table != null) {
+                    result.computeIfAbsent(file.getModule(), k -> new ArrayList<>()).add(table);
+                }
+            }
+        } finally {
+            phase.end();
         }
 
         return result;
     }
 
-    private String extractModuleName(Path infraPath) {
-        Path relativePath = root.relativize(infraPath);
-        if (relativePath.getNameCount() > 0) {
-            return relativePath.getName(0).toString();
+    // Every table with the application classes that reach its repository through the class graph, ordered by
+    // module and table name. One reachability sweep over the graph answers all application classes at once.
+    public List<TableAccess> scanTableAccess() {
+        ClassGraph graph = ClassGraph.build(index);
+
+        Map<Integer, TableAccess> accessByRepository = new HashMap<>();
+        BitSet repositories = new BitSet(graph.size());
+        for (SourceFile file : index.getFilesInLayer("infra")) {
+            TableInfo table = toTableInfo(file);
+            if (table != null && file.getFullClassName() != null) {
+                int repository = graph.idOf(file.getFullClassName());
+                repositories.set(repository);
+                accessByRepository.put(repository, new TableAccess(file.getModule(), table));
+            }
+        }
+
+        Metrics.Phase phase = Metrics.phase("table-access");
+        try {
+            Reachability reachability = graph.reachability(repositories);
+            TableAccess[] accessByTarget = new TableAccess[repositories.cardinality()];
+            for (int target = 0; target < accessByTarget.length; target++) {
+                accessByTarget[target] = accessByRepository.get(reachability.targetAt(target));
+            }
+
+            List<SourceFile> useCases = new ArrayList<>();
+            for (SourceFile file : index.getFilesInLayer("application")) {
+                if (file.getFullClassName() != null) {
+                    useCases.add(file);
+                }
+            }
+            useCases.sort(Comparator.comparing(SourceFile::getFullClassName));
+            for (SourceFile useCase : useCases) {
+                BitSet reached = reachability.reachableTargets(graph.idOf(useCase.getFullClassName()));
+                for (int target = reached.nextSetBit(0); target >= 0; target = reached.nextSetBit(target + 1)) {
+                    accessByTarget[target].addUseCase(useCase.getModule(), useCase.getFullClassName());
+                }
+            }
+
+            List<TableAccess> accesses = new ArrayList<>(Arrays.asList(accessByTarget));
+            accesses.sort(Comparator.comparing((TableAccess access) -> access.module)
+                                    .thenComparing(access -> access.table.tableName));
+            return accesses;
+        } finally {
+            phase.end();
         }
-        return "unknown";
     }
 
-    private List<TableInfo> scanInfraDirectory(Path infraPath) throws IOException {
-        List<TableInfo> tables = new ArrayList<>();
-        Pattern repositoryPattern = Pattern.compile("(.+)Repository\\.java$");
-
-        try (Stream<Path> files = Files.walk(infraPath)) {
-            files.filter(Files::isRegularFile)
-                 .filter(path -> path.toString().endsWith("Repository.java"))
-                 .forEach(repoFile -> {
-                     String fileName = repoFile.getFileName().toString();
-                     Matcher matcher = repositoryPattern.matcher(fileName);
-
-                     if (matcher.matches()) {
-                         String entityName = matcher.group(1);
-                         String tableName = toSnakeCase(entityName);
-                         String repositoryName = fileName.replace(".java", "");
-
-                         tables.add(new TableInfo(tableName, repositoryName));
-                     }
-                 });
+    private TableInfo toTableInfo(SourceFile file) {
+        String fileName = file.getFileName();
+        Matcher matcher = REPOSITORY_PATTERN.matcher(fileName);
+        Metrics.count(Metrics.Counter.REGEX_EVALUATIONS, 1);
+
+        if (!matcher.matches()) {
+            return null;
         }
 
-        return tables;
+        String entityName = matcher.group(1);
+        String tableName = toSnakeCase(entityName);
+        String repositoryName = fileName.replace(".java", "");
+
+        return new TableInfo(tableName, repositoryName);
     }
 
     private String toSnakeCase(String camelCase) {
+        Metrics.count(Metrics.Counter.REGEX_EVALUATIONS, 1);
         return camelCase.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
     }
 }
@@ -0,0 +1,38 @@
+package com.github.daikikanai.moduleanalyzer.listtable;
+
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportRecord;
+
+import java.util.*;
+
+// The list-table report over a scanned index, shared by the goal and the daemon
+public class TableReport {
+    private final Map<String, List<TableInfo>> moduleTables;
+
+    public TableReport(SourceIndex index) {
+        this.moduleTables = new TableDataSource(index).scanModuleTables();
+    }
+
+    public void displayText(AnalyzerLog log) {
+        TableView view = new TableView(log);
+        view.displayTables(moduleTables);
+    }
+
+    public void writeRecords(RecordWriter writer) {
+        List<String> sortedModules = new ArrayList<>(moduleTables.keySet());
+        Collections.sort(sortedModules);
+
+        for (String module : sortedModules) {
+            List<TableInfo> tables = new ArrayList<>(moduleTables.get(module));
+            tables.sort(Comparator.comparing(t -> t.tableName));
+            for (TableInfo table : tables) {
+                writer.write(new ReportRecord("table")
+                                 .put("module", module)
+                                 .put("table", table.tableName)
+                                 .put("repository", table.repositoryName));
+            }
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package com.github.daikikanai.moduleanalyzer.listtable;
 
-import org.apache.maven.plugin.logging.Log;
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
 
 import java.util.*;
 
 public class TableView {
-    private final Log log;
+    private final AnalyzerLog log;
 
-    public TableView(Log log) {
+    public TableView(AnalyzerLog log) {
         this.log = log;
     }
 
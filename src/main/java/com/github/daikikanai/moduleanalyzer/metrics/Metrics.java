@@ -0,0 +1,181 @@
+package com.github.daikikanai.moduleanalyzer.metrics;
+
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Run statistics for -Dmetrics. Collection is off unless start() was called; then every count()
+// is a single read of the current run. Phases are also emitted as JFR events whenever a recording
+// with them enabled is running, independent of -Dmetrics.
+public class Metrics {
+
+    public enum Counter {
+        FILES_READ("Files read", "filesRead"),
+        BYTES_READ("Bytes read", "bytesRead"),
+        FILES_REREAD("Files re-read", "filesReread"),
+        CACHE_HITS("Cache hits", "cacheHits"),
+        CACHE_MISSES("Cache misses", "cacheMisses"),
+        REGEX_EVALUATIONS("Regex evaluations", "regexEvaluations"),
+        CLASS_FILES_READ("Classes from bytecode", "classFilesRead"),
+        GRAPH_NODES_VISITED("Graph nodes visited", "graphNodesVisited"),
+        GRAPH_EDGES_VISITED("Graph edges visited", "graphEdgesVisited");
+
+        private final String label;
+        private final String key;
+
+        Counter(String label, String key) {
+            this.label = label;
+            this.key = key;
+        }
+    }
+
+    private static volatile Metrics current;
+
+    private final String goal;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    private final Set<Path> readFiles = ConcurrentHashMap.newKeySet();
+    // Phase name -> {calls, nanos}, in the order phases first finished
+    private final Map<String, long[]> phases = new LinkedHashMap<>();
+
+    private Metrics(String goal) {
+        this.goal = goal;
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    // Starts a new run, discarding the statistics of any previous one in this JVM
+    public static Metrics start(String goal) {
+        current = new Metrics(goal);
+        return current;
+    }
+
+    // Null when metrics are off
+    public static Metrics stop() {
+        Metrics metrics = current;
+        current = null;
+        return metrics;
+    }
+
+    public static void count(Counter counter, long amount) {
+        Metrics metrics = current;
+        if (metrics != null) {
+            metrics.counters[counter.ordinal()].add(amount);
+        }
+    }
+
+    public static void fileRead(Path file, long bytes) {
+        Metrics metrics = current;
+        if (metrics != null) {
+            metrics.counters[Counter.FILES_READ.ordinal()].increment();
+            metrics.counters[Counter.BYTES_READ.ordinal()].add(bytes);
+            if (!metrics.readFiles.add(file.toAbsolutePath().normalize())) {
+                metrics.counters[Counter.FILES_REREAD.ordinal()].increment();
+            }
+        }
+    }
+
+    // Metrics.Phase phase = Metrics.phase("trace"); try { ... } finally { phase.end(); }
+    public static Phase phase(String name) {
+        return new Phase(name);
+    }
+
+    public static class Phase {
+        private final String name;
+        private final PhaseEvent event = new PhaseEvent();
+        private final long start;
+
+        private Phase(String name) {
+            this.name = name;
+            event.begin();
+            start = System.nanoTime();
+        }
+
+        public void end() {
+            long elapsed = System.nanoTime() - start;
+            if (event.shouldCommit()) {
+                event.phase = name;
+                event.commit();
+            }
+            Metrics metrics = current;
+            if (metrics != null) {
+                metrics.addPhase(name, elapsed);
+            }
+        }
+    }
+
+    private synchronized void addPhase(String name, long nanos) {
+        long[] total = phases.computeIfAbsent(name, k -> new long[2]);
+        total[0]++;
+        total[1] += nanos;
+    }
+
+    public long get(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    public synchronized void report(AnalyzerLog log) {
+        log.info("");
+        log.info("Metrics (" + goal + ", " + formatMillis(System.nanoTime() - startNanos) + " ms total)");
+        log.info(String.format("  %-24s %12s %8s", "Phase", "Time (ms)", "Calls"));
+        for (Map.Entry<String, long[]> phase : phases.entrySet()) {
+            log.info(String.format("  %-24s %12s %8d", phase.getKey(), formatMillis(phase.getValue()[1]), phase.getValue()[0]));
+        }
+        log.info(String.format("  %-24s %12s", "Counter", "Value"));
+        for (Counter counter : Counter.values()) {
+            log.info(String.format("  %-24s %12d", counter.label, get(counter)));
+        }
+
+        MetricsEvent event = new MetricsEvent();
+        if (event.shouldCommit()) {
+            event.goal = goal;
+            event.filesRead = get(Counter.FILES_READ);
+            event.bytesRead = get(Counter.BYTES_READ);
+            event.filesReread = get(Counter.FILES_REREAD);
+            event.cacheHits = get(Counter.CACHE_HITS);
+            event.cacheMisses = get(Counter.CACHE_MISSES);
+            event.regexEvaluations = get(Counter.REGEX_EVALUATIONS);
+            event.classFilesRead = get(Counter.CLASS_FILES_READ);
+            event.graphNodesVisited = get(Counter.GRAPH_NODES_VISITED);
+            event.graphEdgesVisited = get(Counter.GRAPH_EDGES_VISITED);
+            event.commit();
+        }
+    }
+
+    public synchronized void writeJson(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("{\"goal\":\"" + goal + "\",\"totalMillis\":" + formatMillis(System.nanoTime() - startNanos));
+            out.write(",\"phases\":[");
+            boolean first = true;
+            for (Map.Entry<String, long[]> phase : phases.entrySet()) {
+                out.write(first ? "\n" : ",\n");
+                first = false;
+                out.write("{\"name\":\"" + phase.getKey() + "\",\"millis\":" + formatMillis(phase.getValue()[1])
+                          + ",\"calls\":" + phase.getValue()[0] + "}");
+            }
+            out.write("\n],\"counters\":{");
+            first = true;
+            for (Counter counter : Counter.values()) {
+                out.write(first ? "\n" : ",\n");
+                first = false;
+                out.write("\"" + counter.key + "\":" + get(counter));
+            }
+            out.write("\n}}\n");
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
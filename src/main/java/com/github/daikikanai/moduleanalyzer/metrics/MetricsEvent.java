@@ -0,0 +1,45 @@
+package com.github.daikikanai.moduleanalyzer.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.github.daikikanai.moduleanalyzer.Metrics")
+@Label("Analysis Metrics")
+@Description("Counters of a module-analyzer run with -Dmetrics")
+@Category("Module Analyzer")
+class MetricsEvent extends Event {
+    @Label("Goal")
+    String goal;
+
+    @Label("Files Read")
+    long filesRead;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Files Re-read")
+    long filesReread;
+
+    @Label("Cache Hits")
+    long cacheHits;
+
+    @Label("Cache Misses")
+    long cacheMisses;
+
+    @Label("Regex Evaluations")
+    long regexEvaluations;
+
+    @Label("Classes From Bytecode")
+    long classFilesRead;
+
+    @Label("Graph Nodes Visited")
+    long graphNodesVisited;
+
+    @Label("Graph Edges Visited")
+    long graphEdgesVisited;
+}
@@ -0,0 +1,16 @@
+package com.github.daikikanai.moduleanalyzer.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.github.daikikanai.moduleanalyzer.Phase")
+@Label("Analysis Phase")
+@Description("One phase of a module-analyzer goal, e.g. walk, parse, graph or trace")
+@Category("Module Analyzer")
+class PhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+}
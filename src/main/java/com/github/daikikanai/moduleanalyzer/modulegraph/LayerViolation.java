@@ -0,0 +1,16 @@
+package com.github.daikikanai.moduleanalyzer.modulegraph;
+
+// A dependency from a module to a module of a higher layer
+public class LayerViolation {
+    public final String fromModule;
+    public final String toModule;
+    public final int fromLayer;
+    public final int toLayer;
+
+    public LayerViolation(String fromModule, String toModule, int fromLayer, int toLayer) {
+        this.fromModule = fromModule;
+        this.toModule = toModule;
+        this.fromLayer = fromLayer;
+        this.toLayer = toLayer;
+    }
+}
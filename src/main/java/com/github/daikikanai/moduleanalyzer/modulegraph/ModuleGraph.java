@@ -0,0 +1,157 @@
+package com.github.daikikanai.moduleanalyzer.modulegraph;
+
+import com.github.daikikanai.moduleanalyzer.graph.Digraph;
+import com.github.daikikanai.moduleanalyzer.graph.StronglyConnectedComponents;
+import com.github.daikikanai.moduleanalyzer.graph.SymbolTable;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.listexpose.ModuleDataSource;
+import com.github.daikikanai.moduleanalyzer.metrics.Metrics;
+
+import java.util.*;
+
+// Module dependency matrix: row i has bit j set when a class of module i uses an expose class of module j.
+// Module ids are assigned in name order, so iterating a row lists modules by name.
+public class ModuleGraph {
+    private final SymbolTable modules;
+    private final BitSet[] dependencies;
+    private final BitSet[] dependents;
+    private final BitSet[] closure;
+    private final List<List<Integer>> cycles;
+
+    private ModuleGraph(SymbolTable modules, BitSet[] dependencies) {
+        int n = modules.size();
+        this.modules = modules;
+        this.dependencies = dependencies;
+
+        this.dependents = new BitSet[n];
+        for (int module = 0; module < n; module++) {
+            dependents[module] = new BitSet(n);
+        }
+        Digraph.Builder edges = new Digraph.Builder();
+        for (int from = 0; from < n; from++) {
+            BitSet row = dependencies[from];
+            for (int to = row.nextSetBit(0); to >= 0; to = row.nextSetBit(to + 1)) {
+                dependents[to].set(from);
+                edges.addEdge(from, to);
+            }
+        }
+
+        // Warshall over bit rows: n^2 word-wide ors at most
+        this.closure = new BitSet[n];
+        for (int module = 0; module < n; module++) {
+            closure[module] = (BitSet) dependencies[module].clone();
+        }
+        for (int via = 0; via < n; via++) {
+            for (int from = 0; from < n; from++) {
+                if (closure[from].get(via)) {
+                    closure[from].or(closure[via]);
+                }
+            }
+        }
+
+        // Every strongly connected component with more than one module is a cycle
+        this.cycles = new ArrayList<>();
+        for (List<Integer> component : new StronglyConnectedComponents(edges.build(n)).components()) {
+            if (component.size() > 1) {
+                cycles.add(component);
+            }
+        }
+        cycles.sort(Comparator.comparing(component -> component.get(0)));
+    }
+
+    public static ModuleGraph build(SourceIndex index) {
+        ModuleDataSource dataSource = new ModuleDataSource(index);
+        Set<String> exposeClasses = new HashSet<>();
+        for (List<String> classes : dataSource.scanModuleExposeClasses().values()) {
+            exposeClasses.addAll(classes);
+        }
+
+        Map<String, Set<String>> moduleDependencies = new HashMap<>();
+        dataSource.forEachDependency(exposeClasses, (callerModule, callerClass, exposeModule, exposeClass) ->
+            moduleDependencies.computeIfAbsent(callerModule, k -> new HashSet<>()).add(exposeModule));
+
+        Metrics.Phase phase = Metrics.phase("module-graph");
+        try {
+            Set<String> names = new HashSet<>(dataSource.scanAllModules());
+            for (Map.Entry<String, Set<String>> entry : moduleDependencies.entrySet()) {
+                names.add(entry.getKey());
+                names.addAll(entry.getValue());
+            }
+            SymbolTable modules = SymbolTable.sorted(names);
+
+            BitSet[] dependencies = new BitSet[modules.size()];
+            for (int module = 0; module < dependencies.length; module++) {
+                dependencies[module] = new BitSet(modules.size());
+            }
+            for (Map.Entry<String, Set<String>> entry : moduleDependencies.entrySet()) {
+                BitSet row = dependencies[modules.idOf(entry.getKey())];
+                for (String exposeModule : entry.getValue()) {
+                    row.set(modules.idOf(exposeModule));
+                }
+            }
+
+            return new ModuleGraph(modules, dependencies);
+        } finally {
+            phase.end();
+        }
+    }
+
+    public int size() {
+        return modules.size();
+    }
+
+    public String nameOf(int module) {
+        return modules.nameOf(module);
+    }
+
+    public int idOf(String module) {
+        return modules.idOf(module);
+    }
+
+    public int dependencyCount() {
+        int count = 0;
+        for (BitSet row : dependencies) {
+            count += row.cardinality();
+        }
+        return count;
+    }
+
+    // The returned sets must not be modified
+    public BitSet dependenciesOf(int module) {
+        return dependencies[module];
+    }
+
+    public BitSet dependentsOf(int module) {
+        return dependents[module];
+    }
+
+    // Every module reachable from the module; includes the module itself when it is on a cycle
+    public BitSet transitiveDependenciesOf(int module) {
+        return closure[module];
+    }
+
+    public boolean dependsOn(int from, int to) {
+        return dependencies[from].get(to);
+    }
+
+    // Modules of every cycle in id order, cycles ordered by their first module
+    public List<List<Integer>> getCycles() {
+        return cycles;
+    }
+
+    public List<String> names(BitSet moduleIds) {
+        List<String> names = new ArrayList<>();
+        for (int module = moduleIds.nextSetBit(0); module >= 0; module = moduleIds.nextSetBit(module + 1)) {
+            names.add(modules.nameOf(module));
+        }
+        return names;
+    }
+
+    public List<String> names(List<Integer> moduleIds) {
+        List<String> names = new ArrayList<>();
+        for (int module : moduleIds) {
+            names.add(modules.nameOf(module));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.daikikanai.moduleanalyzer.modulegraph;
+
+import com.github.daikikanai.moduleanalyzer.AbstractAnalyzerMojo;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportFormat;
+import com.github.daikikanai.moduleanalyzer.report.ReportLog;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+@Mojo(name = "module-graph")
+public class ModuleGraphMojo extends AbstractAnalyzerMojo {
+
+    // Layers from top to bottom, modules of a layer separated by commas: "web;order,user;shared"
+    @Parameter(property = "layers")
+    private String layers;
+
+    @Parameter(property = "failOnCycle", defaultValue = "true")
+    private boolean failOnCycle;
+
+    @Parameter(property = "failOnLayerViolation", defaultValue = "true")
+    private boolean failOnLayerViolation;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        ModuleGraphReport report;
+        try {
+            Path root = resolveRootDir();
+            ReportFormat format = resolveFormat();
+            ModuleLayers moduleLayers = parseLayers();
+
+            SourceIndex index = scanIndex(root, Collections.emptyList());
+            for (String module : moduleLayers.getModules()) {
+                if (!index.getModules().contains(module)) {
+                    getLog().warn("Module in layers not found: " + module);
+                }
+            }
+            report = new ModuleGraphReport(index, moduleLayers);
+
+            if (format == ReportFormat.TEXT) {
+                try (ReportLog reportLog = openReportLog()) {
+                    report.displayText(reportLog);
+                }
+            } else {
+                try (RecordWriter writer = openRecordWriter("module-graph")) {
+                    report.writeRecords(writer);
+                }
+            }
+            reportStatistics();
+
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error scanning modules", e);
+        } finally {
+            closeScanners();
+        }
+
+        List<String> failures = new ArrayList<>();
+        if (failOnCycle && !report.getCycles().isEmpty()) {
+            failures.add(report.getCycles().size() + " module dependency cycle(s)");
+        }
+        if (failOnLayerViolation && !report.getLayerViolations().isEmpty()) {
+            failures.add(report.getLayerViolations().size() + " layer violation(s)");
+        }
+        if (!failures.isEmpty()) {
+            throw new MojoFailureException("Module graph check failed: " + String.join(", ", failures));
+        }
+    }
+
+    private ModuleLayers parseLayers() throws MojoExecutionException {
+        try {
+            return ModuleLayers.parse(layers);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.daikikanai.moduleanalyzer.modulegraph;
+
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+import com.github.daikikanai.moduleanalyzer.report.RecordWriter;
+import com.github.daikikanai.moduleanalyzer.report.ReportRecord;
+
+import java.util.*;
+
+// The module-graph report over a scanned index
+public class ModuleGraphReport {
+    private final ModuleGraph graph;
+    private final List<LayerViolation> violations;
+
+    public ModuleGraphReport(SourceIndex index, ModuleLayers layers) {
+        this.graph = ModuleGraph.build(index);
+        this.violations = findLayerViolations(graph, layers);
+    }
+
+    // Direct dependencies only; a transitive path through unlisted modules is not a violation
+    private static List<LayerViolation> findLayerViolations(ModuleGraph graph, ModuleLayers layers) {
+        List<LayerViolation> violations = new ArrayList<>();
+        if (layers.isEmpty()) {
+            return violations;
+        }
+        for (int from = 0; from < graph.size(); from++) {
+            BitSet row = graph.dependenciesOf(from);
+            for (int to = row.nextSetBit(0); to >= 0; to = row.nextSetBit(to + 1)) {
+                String fromModule = graph.nameOf(from);
+                String toModule = graph.nameOf(to);
+                if (!layers.allows(fromModule, toModule)) {
+                    violations.add(new LayerViolation(fromModule, toModule,
+                                                      layers.layerOf(fromModule), layers.layerOf(toModule)));
+                }
+            }
+        }
+        return violations;
+    }
+
+    public ModuleGraph getGraph() {
+        return graph;
+    }
+
+    public List<List<String>> getCycles() {
+        List<List<String>> cycles = new ArrayList<>();
+        for (List<Integer> cycle : graph.getCycles()) {
+            cycles.add(graph.names(cycle));
+        }
+        return cycles;
+    }
+
+    public List<LayerViolation> getLayerViolations() {
+        return violations;
+    }
+
+    public void displayText(AnalyzerLog log) {
+        ModuleGraphView view = new ModuleGraphView(log);
+        view.displayGraph(graph, getCycles(), violations);
+    }
+
+    // Every module in name order, then cycles and layer violations
+    public void writeRecords(RecordWriter writer) {
+        for (int module = 0; module < graph.size(); module++) {
+            BitSet transitive = (BitSet) graph.transitiveDependenciesOf(module).clone();
+            transitive.clear(module);
+            writer.write(new ReportRecord("module")
+                             .put("name", graph.nameOf(module))
+                             .put("dependencies", graph.names(graph.dependenciesOf(module)))
+                             .put("transitiveDependencies", graph.names(transitive))
+                             .put("dependedBy", graph.names(graph.dependentsOf(module))));
+        }
+
+        for (List<String> cycle : getCycles()) {
+            writer.write(new ReportRecord("cycle").put("modules", cycle));
+        }
+
+        for (LayerViolation violation : violations) {
+            writer.write(new ReportRecord("layerViolation")
+                             .put("from", violation.fromModule)
+                             .put("to", violation.toModule)
+                             .put("fromLayer", violation.fromLayer + 1)
+                             .put("toLayer", violation.toLayer + 1));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.daikikanai.moduleanalyzer.modulegraph;
+
+import com.github.daikikanai.moduleanalyzer.report.AnalyzerLog;
+
+import java.util.*;
+
+public class ModuleGraphView {
+    private final AnalyzerLog log;
+
+    public ModuleGraphView(AnalyzerLog log) {
+        this.log = log;
+    }
+
+    public void displayGraph(ModuleGraph graph, List<List<String>> cycles, List<LayerViolation> violations) {
+        if (graph.size() == 0) {
+            log.info("No modules to display.");
+            return;
+        }
+
+        log.info("");
+        log.info("Module graph: " + graph.size() + " modules, " + graph.dependencyCount() + " dependencies");
+
+        for (int module = 0; module < graph.size(); module++) {
+            displayModule(graph, module);
+        }
+
+        log.info("");
+        displayCycles(cycles);
+        displayLayerViolations(violations);
+        log.info("");
+    }
+
+    private void displayModule(ModuleGraph graph, int module) {
+        log.info("");
+        log.info("[Module: " + graph.nameOf(module) + "]");
+
+        BitSet transitive = (BitSet) graph.transitiveDependenciesOf(module).clone();
+        transitive.clear(module);
+
+        displayModules("Dependencies to", graph.names(graph.dependenciesOf(module)));
+        displayModules("Transitive dependencies to", graph.names(transitive));
+        displayModules("Depended by", graph.names(graph.dependentsOf(module)));
+    }
+
+    private void displayModules(String label, List<String> modules) {
+        if (!modules.isEmpty()) {
+            log.info("  " + label + ": " + String.join(", ", modules));
+        }
+    }
+
+    private void displayCycles(List<List<String>> cycles) {
+        if (cycles.isEmpty()) {
+            log.info("Cycles: none");
+            return;
+        }
+        log.info("Cycles: " + cycles.size());
+        for (List<String> cycle : cycles) {
+            log.info("  - " + String.join(", ", cycle));
+        }
+    }
+
+    private void displayLayerViolations(List<LayerViolation> violations) {
+        if (violations.isEmpty()) {
+            log.info("Layer violations: none");
+            return;
+        }
+        log.info("Layer violations: " + violations.size());
+        for (LayerViolation violation : violations) {
+            log.info("  - " + violation.fromModule + " (layer " + (violation.fromLayer + 1) + ") -> "
+                     + violation.toModule + " (layer " + (violation.toLayer + 1) + ")");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.daikikanai.moduleanalyzer.modulegraph;
+
+import java.util.*;
+
+// Allowed direction of module dependencies, written top layer first: "web;order,user;shared".
+// A module may use modules of its own layer and of the layers below it; modules not listed are unrestricted.
+public class ModuleLayers {
+    private final List<List<String>> layers;
+    private final Map<String, Integer> layerOfModule;
+
+    private ModuleLayers(List<List<String>> layers, Map<String, Integer> layerOfModule) {
+        this.layers = layers;
+        this.layerOfModule = layerOfModule;
+    }
+
+    public static ModuleLayers parse(String spec) {
+        List<List<String>> layers = new ArrayList<>();
+        Map<String, Integer> layerOfModule = new HashMap<>();
+        if (spec != null) {
+            for (String layer : spec.split(";")) {
+                List<String> modules = new ArrayList<>();
+                for (String module : layer.split(",")) {
+                    String trimmed = module.trim();
+                    if (trimmed.isEmpty()) {
+                        continue;
+                    }
+                    if (layerOfModule.containsKey(trimmed)) {
+                        throw new IllegalArgumentException("Module listed in more than one layer: " + trimmed);
+                    }
+                    layerOfModule.put(trimmed, layers.size());
+                    modules.add(trimmed);
+                }
+                if (!modules.isEmpty()) {
+                    layers.add(modules);
+                }
+            }
+        }
+        return new ModuleLayers(layers, layerOfModule);
+    }
+
+    public boolean isEmpty() {
+        return layers.isEmpty();
+    }
+
+    public Set<String> getModules() {
+        return layerOfModule.keySet();
+    }
+
+    // 0 for the top layer, -1 when the module is not listed
+    public int layerOf(String module) {
+        Integer layer = layerOfModule.get(module);
+        return layer != null ? layer : -1;
+    }
+
+    public boolean allows(String from, String to) {
+        int fromLayer = layerOf(from);
+        int toLayer = layerOf(to);
+        return fromLayer == -1 || toLayer == -1 || fromLayer <= toLayer;
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.daikikanai.moduleanalyzer.reactor;
+
+import com.github.daikikanai.moduleanalyzer.AbstractAnalyzerMojo;
+import com.github.daikikanai.moduleanalyzer.listhttprequest.HttpRequestReport;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+// Runs once per reactor build: collects the rootDir of every execution of this plugin in the reactor,
+// scans each outermost root once and leaves the indexes in the session for the per-project executions
+@Mojo(name = "aggregate", aggregator = true, threadSafe = true)
+public class AggregateMojo extends AbstractAnalyzerMojo {
+
+    @Parameter(defaultValue = "${plugin.groupId}", readonly = true)
+    private String pluginGroupId;
+
+    @Parameter(defaultValue = "${plugin.artifactId}", readonly = true)
+    private String pluginArtifactId;
+
+    public void execute() throws MojoExecutionException {
+        Map<Path, Set<String>> patternsByRoot = collectRoots();
+        if (rootDir != null && !rootDir.trim().isEmpty()) {
+            addRoot(patternsByRoot, rootDir, null);
+        }
+        if (patternsByRoot.isEmpty()) {
+            getLog().info("No rootDir configured for module-analyzer in this reactor");
+            return;
+        }
+
+        // Roots inside another root are served from the enclosing root's index
+        Map<Path, Set<String>> outermost = new TreeMap<>();
+        for (Map.Entry<Path, Set<String>> entry : patternsByRoot.entrySet()) {
+            Path root = entry.getKey();
+            Path enclosing = root;
+            for (Path other : patternsByRoot.keySet()) {
+                if (root.startsWith(other) && enclosing.startsWith(other)) {
+                    enclosing = other;
+                }
+            }
+            outermost.computeIfAbsent(enclosing, k -> new LinkedHashSet<>()).addAll(entry.getValue());
+        }
+
+        try {
+            for (Map.Entry<Path, Set<String>> entry : outermost.entrySet()) {
+                Path root = entry.getKey();
+                if (!Files.isDirectory(root)) {
+                    getLog().warn("Root directory does not exist: " + root);
+                    continue;
+                }
+                int files = scanIndex(root, new ArrayList<>(entry.getValue())).getFiles().size();
+                getLog().info("Analyzed " + root + ": " + files + " files, shared with "
+                              + countRootsUnder(patternsByRoot.keySet(), root) + " root(s) in the reactor");
+            }
+            reportStatistics();
+
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error scanning modules", e);
+        } finally {
+            closeScanners();
+        }
+    }
+
+    // rootDir and searchPatterns of every execution of this plugin; an execution's own configuration
+    // overrides the plugin's. Every root is scanned for the default search patterns as well.
+    private Map<Path, Set<String>> collectRoots() {
+        Map<Path, Set<String>> patternsByRoot = new TreeMap<>();
+        for (MavenProject project : session.getProjects()) {
+            Plugin plugin = project.getPlugin(pluginGroupId + ":" + pluginArtifactId);
+            if (plugin == null) {
+                continue;
+            }
+            Xpp3Dom pluginConfiguration = (Xpp3Dom) plugin.getConfiguration();
+            addRoot(patternsByRoot, value(pluginConfiguration, "rootDir"), value(pluginConfiguration, "searchPatterns"));
+            for (PluginExecution execution : plugin.getExecutions()) {
+                Xpp3Dom configuration = (Xpp3Dom) execution.getConfiguration();
+                String executionRoot = value(configuration, "rootDir");
+                String executionPatterns = value(configuration, "searchPatterns");
+                addRoot(patternsByRoot,
+                        executionRoot != null ? executionRoot : value(pluginConfiguration, "rootDir"),
+                        executionPatterns != null ? executionPatterns : value(pluginConfiguration, "searchPatterns"));
+            }
+        }
+        return patternsByRoot;
+    }
+
+    private void addRoot(Map<Path, Set<String>> patternsByRoot, String root, String searchPatterns) {
+        if (root == null || root.trim().isEmpty()) {
+            return;
+        }
+        Set<String> patterns = patternsByRoot.computeIfAbsent(Paths.get(root.trim()).toAbsolutePath().normalize(),
+                                                              k -> new LinkedHashSet<>());
+        patterns.addAll(HttpRequestReport.parseSearchPatterns(HttpRequestReport.DEFAULT_SEARCH_PATTERNS));
+        if (searchPatterns != null) {
+            patterns.addAll(HttpRequestReport.parseSearchPatterns(searchPatterns));
+        }
+    }
+
+    private static String value(Xpp3Dom configuration, String name) {
+        Xpp3Dom child = configuration != null ? configuration.getChild(name) : null;
+        return child != null ? child.getValue() : null;
+    }
+
+    private static int countRootsUnder(Set<Path> roots, Path root) {
+        int count = 0;
+        for (Path other : roots) {
+            if (other.startsWith(root)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.daikikanai.moduleanalyzer.reactor;
+
+import com.github.daikikanai.moduleanalyzer.bytecode.CompiledClasses;
+import com.github.daikikanai.moduleanalyzer.index.SourceIndex;
+import com.github.daikikanai.moduleanalyzer.index.SourceTree;
+import org.apache.maven.execution.MavenSession;
+import org.eclipse.aether.SessionData;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Indexes scanned during one build, shared by every execution of the plugin in the reactor.
+// Kept in the repository session data, which lives exactly as long as the build.
+public class SharedAnalysis {
+    private static final String KEY = SharedAnalysis.class.getName();
+
+    public interface IndexScan {
+        SourceIndex scan() throws IOException;
+    }
+
+    private final List<SourceIndex> indexes = new ArrayList<>();
+    // One lock per root, so executions of parallel (-T) builds scan a root once but different roots concurrently
+    private final Map<Path, Object> locks = new ConcurrentHashMap<>();
+
+    // Null when another copy of the plugin (a different class realm) already owns the session entry
+    public static SharedAnalysis of(MavenSession session) {
+        SessionData data = session.getRepositorySession().getData();
+        if (data.get(KEY) == null) {
+            data.set(KEY, null, new SharedAnalysis());
+        }
+        Object shared = data.get(KEY);
+        return shared instanceof SharedAnalysis ? (SharedAnalysis) shared : null;
+    }
+
+    // An index of the tree parsed for at least the given patterns: taken from an index of the same or an
+    // enclosing root walked with the same filters and read from the same classes when there is one, scanned otherwise
+    public SourceIndex obtain(SourceTree tree, CompiledClasses classes, List<String> searchPatterns,
+                              IndexScan scan) throws IOException {
+        Path root = tree.getRoot();
+        Object lock = locks.computeIfAbsent(normalize(root), k -> new Object());
+        synchronized (lock) {
+            SourceIndex index = find(tree, classes, searchPatterns);
+            if (index == null) {
+                index = scan.scan();
+                add(index);
+            }
+            return index;
+        }
+    }
+
+    private SourceIndex find(SourceTree tree, CompiledClasses classes, List<String> searchPatterns) throws IOException {
+        Path root = tree.getRoot();
+        Path key = normalize(root);
+        SourceIndex enclosing = null;
+        synchronized (indexes) {
+            for (SourceIndex index : indexes) {
+                if (!index.getSearchPatterns().containsAll(searchPatterns) || !index.getTree().sameFilters(tree)
+                    || !Objects.equals(index.getCompiledClasses(), classes)) {
+                    continue;
+                }
+                Path indexRoot = normalize(index.getRoot());
+                if (indexRoot.equals(key) && index.getRoot().equals(root)) {
+                    return index;
+                }
+                if (key.startsWith(indexRoot) && (enclosing == null || indexRoot.startsWith(normalize(enclosing.getRoot())))) {
+                    enclosing = index;
+                }
+            }
+        }
+        if (enclosing == null) {
+            return null;
+        }
+
+        SourceIndex index = enclosing.subIndex(root);
+        add(index);
+        return index;
+    }
+
+    private void add(SourceIndex index) {
+        synchronized (indexes) {
+            indexes.add(index);
+        }
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
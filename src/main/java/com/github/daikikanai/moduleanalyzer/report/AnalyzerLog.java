@@ -0,0 +1,11 @@
+package com.github.daikikanai.moduleanalyzer.report;
+
+// Where reports, views and the tracer write: report lines to info, problems to warn.
+// The goals write to the Maven build log, the command line to the console.
+public interface AnalyzerLog {
+    void info(CharSequence content);
+
+    void warn(CharSequence content);
+
+    void warn(CharSequence content, Throwable error);
+}
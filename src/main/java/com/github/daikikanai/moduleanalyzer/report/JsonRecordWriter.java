@@ -0,0 +1,34 @@
+package com.github.daikikanai.moduleanalyzer.report;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// {"goal":"...","records":[...]} written one record at a time
+public class JsonRecordWriter extends RecordWriter {
+    private final String goal;
+    private boolean first = true;
+
+    JsonRecordWriter(Writer out, boolean ownsOutput, String goal) {
+        super(out, ownsOutput);
+        this.goal = goal;
+    }
+
+    @Override
+    protected void begin() throws IOException {
+        out.write("{\"goal\":");
+        ReportRecord.writeString(out, goal);
+        out.write(",\"records\":[");
+    }
+
+    @Override
+    protected void writeRecord(ReportRecord record) throws IOException {
+        out.write(first ? "\n" : ",\n");
+        first = false;
+        record.writeJson(out);
+    }
+
+    @Override
+    protected void end() throws IOException {
+        out.write("\n]}\n");
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.daikikanai.moduleanalyzer.report;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// One JSON object per line
+public class NdjsonRecordWriter extends RecordWriter {
+
+    NdjsonRecordWriter(Writer out, boolean ownsOutput) {
+        super(out, ownsOutput);
+    }
+
+    @Override
+    protected void writeRecord(ReportRecord record) throws IOException {
+        record.writeJson(out);
+        out.write('\n');
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.daikikanai.moduleanalyzer.report;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Streams records as they are produced. Like PrintWriter, write() never throws:
+// the first I/O error stops further output and is rethrown by close().
+public abstract class RecordWriter implements Closeable {
+    // Flushed regularly so consumers can read while the analysis is still running
+    private static final int FLUSH_INTERVAL = 256;
+
+    protected final Writer out;
+    private final boolean ownsOutput;
+    private int unflushed;
+    private IOException error;
+
+    protected RecordWriter(Writer out, boolean ownsOutput) {
+        this.out = out;
+        this.ownsOutput = ownsOutput;
+    }
+
+    // Writes to outputFile, or to standard output when it is null (the command line, where nothing else goes there)
+    public static RecordWriter open(ReportFormat format, String goal, Path outputFile) throws IOException {
+        Writer out;
+        if (outputFile != null) {
+            if (outputFile.getParent() != null) {
+                Files.createDirectories(outputFile.getParent());
+            }
+            out = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8);
+        } else {
+            out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        }
+        return open(format, goal, out, outputFile != null);
+    }
+
+    // Closes out on close() only when ownsOutput is set
+    public static RecordWriter open(ReportFormat format, String goal, Writer out, boolean ownsOutput) throws IOException {
+        RecordWriter writer;
+        switch (format) {
+            case JSON:
+                writer = new JsonRecordWriter(out, ownsOutput, goal);
+                break;
+            case NDJSON:
+                writer = new NdjsonRecordWriter(out, ownsOutput);
+                break;
+            default:
+                throw new IllegalArgumentException("No record writer for format " + format);
+        }
+        writer.begin();
+        return writer;
+    }
+
+    public void write(ReportRecord record) {
+        if (error != null) {
+            return;
+        }
+        try {
+            writeRecord(record);
+            if (++unflushed >= FLUSH_INTERVAL) {
+                out.flush();
+                unflushed = 0;
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (error == null) {
+                end();
+                out.flush();
+            }
+        } finally {
+            if (ownsOutput) {
+                out.close();
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    protected void begin() throws IOException {
+    }
+
+    protected abstract void writeRecord(ReportRecord record) throws IOException;
+
+    protected void end() throws IOException {
+    }
+}
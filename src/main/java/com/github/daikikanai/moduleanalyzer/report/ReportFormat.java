@@ -0,0 +1,20 @@
+package com.github.daikikanai.moduleanalyzer.report;
+
+import java.util.Locale;
+
+public enum ReportFormat {
+    TEXT,
+    JSON,
+    NDJSON;
+
+    public static ReportFormat parse(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return TEXT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format: " + value + " (expected json, ndjson or text)");
+        }
+    }
+}
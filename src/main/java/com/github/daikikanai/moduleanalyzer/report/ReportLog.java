@@ -0,0 +1,72 @@
+package com.github.daikikanai.moduleanalyzer.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Lets the text views write their info lines to a file; warnings still go to the build log
+public class ReportLog implements AnalyzerLog, Closeable {
+    private final AnalyzerLog delegate;
+    private final Writer out;
+    private IOException error;
+
+    private ReportLog(AnalyzerLog delegate, Writer out) {
+        this.delegate = delegate;
+        this.out = out;
+    }
+
+    // Without an output file the report stays in the build log
+    public static ReportLog open(AnalyzerLog delegate, Path outputFile) throws IOException {
+        if (outputFile == null) {
+            return new ReportLog(delegate, null);
+        }
+        if (outputFile.getParent() != null) {
+            Files.createDirectories(outputFile.getParent());
+        }
+        return new ReportLog(delegate, Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8));
+    }
+
+    // Info lines go to out, which is closed with the log
+    public static ReportLog to(AnalyzerLog delegate, Writer out) {
+        return new ReportLog(delegate, out);
+    }
+
+    @Override
+    public void info(CharSequence content) {
+        if (out == null) {
+            delegate.info(content);
+            return;
+        }
+        if (error != null) {
+            return;
+        }
+        try {
+            out.append(content).append('\n');
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    @Override
+    public void warn(CharSequence content) {
+        delegate.warn(content);
+    }
+
+    @Override
+    public void warn(CharSequence content, Throwable error) {
+        delegate.warn(content, error);
+    }
+}
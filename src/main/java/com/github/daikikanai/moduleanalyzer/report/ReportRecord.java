@@ -0,0 +1,95 @@
+package com.github.daikikanai.moduleanalyzer.report;
+
+import java.io.IOException;
+import java.util.*;
+
+// One output record; fields keep their insertion order
+public class ReportRecord {
+    private final Map<String, Object> fields = new LinkedHashMap<>();
+
+    public ReportRecord(String type) {
+        fields.put("type", type);
+    }
+
+    public ReportRecord put(String name, String value) {
+        fields.put(name, value);
+        return this;
+    }
+
+    public ReportRecord put(String name, int value) {
+        fields.put(name, value);
+        return this;
+    }
+
+    public ReportRecord put(String name, Collection<String> values) {
+        fields.put(name, values);
+        return this;
+    }
+
+    void writeJson(Appendable out) throws IOException {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            writeString(out, field.getKey());
+            out.append(':');
+            writeValue(out, field.getValue());
+        }
+        out.append('}');
+    }
+
+    private static void writeValue(Appendable out, Object value) throws IOException {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof Integer) {
+            out.append(value.toString());
+        } else if (value instanceof Collection) {
+            out.append('[');
+            boolean first = true;
+            for (Object element : (Collection<?>) value) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                writeValue(out, element);
+            }
+            out.append(']');
+        } else {
+            writeString(out, value.toString());
+        }
+    }
+
+    static void writeString(Appendable out, String value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.daikikanai.moduleanalyzer.bytecode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassFileTest {
+
+    static class Fixture extends ArrayList<String> {
+        static final String BASE = "/api";
+        static final String ORDERS = BASE + "/orders";
+        static final int LIMIT = 10;
+        private final Map<String, List<Integer>> counts = new HashMap<>();
+
+        String path(String id) {
+            String orders = ORDERS;
+            return orders + "/" + id;
+        }
+    }
+
+    @Test
+    void readsNamesWithDots() throws IOException {
+        ClassFile classFile = read(Fixture.class);
+
+        assertEquals(ClassFileTest.class.getName() + "$Fixture", classFile.getName());
+        assertEquals("java.util.ArrayList", classFile.getSuperName());
+    }
+
+    @Test
+    void keepsStringConstantValuesOnly() throws IOException {
+        ClassFile classFile = read(Fixture.class);
+
+        assertEquals("/api/orders", field(classFile, "ORDERS").constantValue);
+        assertNull(field(classFile, "LIMIT").constantValue);
+        assertNull(field(classFile, "counts").constantValue);
+        assertEquals("Ljava/util/Map;", field(classFile, "counts").descriptor);
+    }
+
+    @Test
+    void readsGenericSignatures() throws IOException {
+        ClassFile classFile = read(Fixture.class);
+
+        assertTrue(classFile.getSignatures().contains("Ljava/util/Map<Ljava/lang/String;Ljava/util/List<Ljava/lang/Integer;>;>;"));
+        assertTrue(classFile.getSignatures().contains("Ljava/util/ArrayList<Ljava/lang/String;>;"));
+    }
+
+    @Test
+    void readsCodeLinesAndLocalNames() throws IOException {
+        ClassFile.Method method = method(read(Fixture.class), "path");
+
+        assertEquals("(Ljava/lang/String;)Ljava/lang/String;", method.descriptor);
+        assertTrue(method.code.length > 0);
+        assertTrue(method.lineAt(0) > 0);
+        assertEquals("id", method.localName(1, 0));
+        assertEquals("this", method.localName(0, 0));
+    }
+
+    @Test
+    void resolvesConstantPoolEntries() throws IOException {
+        ClassFile classFile = read(Fixture.class);
+
+        Set<String> classes = new HashSet<>();
+        Set<String> strings = new HashSet<>();
+        for (int index = 1; index < classFile.constantCount(); index++) {
+            if (classFile.tagAt(index) == ClassFile.CONSTANT_CLASS) {
+                classes.add(classFile.classNameAt(index));
+            } else if (classFile.tagAt(index) == ClassFile.CONSTANT_STRING) {
+                strings.add(classFile.stringAt(index));
+            }
+        }
+
+        assertTrue(classes.contains("java.util.HashMap"));
+        assertTrue(strings.contains("/api/orders"));
+    }
+
+    @Test
+    void rejectsBytesThatAreNoClassFile() {
+        assertThrows(IllegalArgumentException.class, () -> ClassFile.read(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}));
+    }
+
+    private static ClassFile read(Class<?> type) throws IOException {
+        String resource = type.getName().substring(type.getName().lastIndexOf('.') + 1) + ".class";
+        try (InputStream in = type.getResourceAsStream(resource)) {
+            return ClassFile.read(in.readAllBytes());
+        }
+    }
+
+    private static ClassFile.Field field(ClassFile classFile, String name) {
+        for (ClassFile.Field field : classFile.getFields()) {
+            if (field.name.equals(name)) {
+                return field;
+            }
+        }
+        throw new AssertionError("No field " + name);
+    }
+
+    private static ClassFile.Method method(ClassFile classFile, String name) {
+        for (ClassFile.Method method : classFile.getMethods()) {
+            if (method.name.equals(name)) {
+                return method;
+            }
+        }
+        throw new AssertionError("No method " + name);
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.daikikanai.moduleanalyzer.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathFinderTest {
+    // 0 -> 1 <-> 2 -> 4, 0 -> 3 -> 5
+    private static final Digraph GRAPH = new Digraph(new int[][]{{1, 3}, {2}, {1, 4}, {5}, {}, {}});
+
+    @Test
+    void findsPathsInEdgeOrder() {
+        // 0 -> 1 -> 3 and 0 -> 2 -> 3: the path through 1 comes first
+        Digraph graph = new Digraph(new int[][]{{1, 2}, {3}, {3}, {}, {}});
+        Reachability reachability = new Reachability(graph, targets(3, 4));
+        PathFinder finder = new PathFinder(graph, reachability);
+
+        finder.search(0, wanted(reachability, 3, 4));
+
+        assertArrayEquals(new int[]{0, 1, 3}, finder.pathTo(reachability.indexOfTarget(3)));
+        assertArrayEquals(new int[0], finder.pathTo(reachability.indexOfTarget(4)));
+    }
+
+    @Test
+    void skipsBranchesThatReachNoWantedTarget() {
+        // 0 -> 1 -> 4 and 0 -> 2 -> 3 -> 5: looking for 5 only never enters 1
+        Digraph graph = new Digraph(new int[][]{{1, 2}, {4}, {3}, {5}, {}, {}});
+        Reachability reachability = new Reachability(graph, targets(4, 5));
+        PathFinder finder = new PathFinder(graph, reachability);
+
+        finder.search(0, wanted(reachability, 5));
+
+        assertArrayEquals(new int[]{0, 2, 3, 5}, finder.pathTo(reachability.indexOfTarget(5)));
+        assertArrayEquals(new int[0], finder.pathTo(reachability.indexOfTarget(4)));
+    }
+
+    @Test
+    void followsPathsThroughCycles() {
+        Reachability reachability = new Reachability(GRAPH, targets(4, 5));
+        PathFinder finder = new PathFinder(GRAPH, reachability);
+
+        finder.search(2, wanted(reachability, 4));
+
+        assertArrayEquals(new int[]{2, 4}, finder.pathTo(reachability.indexOfTarget(4)));
+    }
+
+    @Test
+    void finderCanBeReusedForAnotherSource() {
+        Reachability reachability = new Reachability(GRAPH, targets(4, 5));
+        PathFinder finder = new PathFinder(GRAPH, reachability);
+
+        finder.search(0, wanted(reachability, 4, 5));
+        assertArrayEquals(new int[]{0, 3, 5}, finder.pathTo(reachability.indexOfTarget(5)));
+
+        finder.search(1, wanted(reachability, 4, 5));
+        assertArrayEquals(new int[]{1, 2, 4}, finder.pathTo(reachability.indexOfTarget(4)));
+        assertArrayEquals(new int[0], finder.pathTo(reachability.indexOfTarget(5)));
+    }
+
+    private static BitSet targets(int... nodes) {
+        BitSet targets = new BitSet();
+        for (int node : nodes) {
+            targets.set(node);
+        }
+        return targets;
+    }
+
+    // Target indexes of the nodes
+    private static BitSet wanted(Reachability reachability, int... nodes) {
+        BitSet wanted = new BitSet();
+        for (int node : nodes) {
+            wanted.set(reachability.indexOfTarget(node));
+        }
+        return wanted;
+    }
+}
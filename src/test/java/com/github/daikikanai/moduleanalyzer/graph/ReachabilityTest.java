@@ -0,0 +1,66 @@
+package com.github.daikikanai.moduleanalyzer.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReachabilityTest {
+    // 0 -> 1 <-> 2 -> 4, 0 -> 3 -> 5, 6 alone; targets 4, 5 and 6
+    private static final Digraph GRAPH = new Digraph(new int[][]{{1, 3}, {2}, {1, 4}, {5}, {}, {}, {}});
+
+    @Test
+    void findsTheTargetsEveryNodeReaches() {
+        Reachability reachability = new Reachability(GRAPH, targets(4, 5, 6));
+
+        assertEquals(Arrays.asList(4, 5), targetNodes(reachability, 0));
+        assertEquals(Collections.singletonList(4), targetNodes(reachability, 1));
+        assertEquals(Collections.singletonList(4), targetNodes(reachability, 2));
+        assertEquals(Collections.singletonList(5), targetNodes(reachability, 3));
+        assertEquals(Collections.emptyList(), targetNodes(new Reachability(GRAPH, targets(4)), 3));
+    }
+
+    @Test
+    void targetReachesItself() {
+        Reachability reachability = new Reachability(GRAPH, targets(4, 5, 6));
+
+        assertEquals(Collections.singletonList(6), targetNodes(reachability, 6));
+        assertTrue(reachability.canReach(4, reachability.indexOfTarget(4)));
+        assertFalse(reachability.canReach(4, reachability.indexOfTarget(5)));
+    }
+
+    @Test
+    void indexesTargetsDenselyInNodeOrder() {
+        Reachability reachability = new Reachability(GRAPH, targets(4, 5, 6));
+
+        assertEquals(0, reachability.indexOfTarget(4));
+        assertEquals(2, reachability.indexOfTarget(6));
+        assertEquals(-1, reachability.indexOfTarget(0));
+        assertEquals(5, reachability.targetAt(1));
+    }
+
+    @Test
+    void nodesOfACycleShareTheirTargets() {
+        Reachability reachability = new Reachability(GRAPH, targets(4));
+
+        assertSame(reachability.reachableTargets(1), reachability.reachableTargets(2));
+    }
+
+    private static BitSet targets(int... nodes) {
+        BitSet targets = new BitSet();
+        for (int node : nodes) {
+            targets.set(node);
+        }
+        return targets;
+    }
+
+    private static List<Integer> targetNodes(Reachability reachability, int node) {
+        List<Integer> nodes = new ArrayList<>();
+        BitSet reachable = reachability.reachableTargets(node);
+        for (int target = reachable.nextSetBit(0); target >= 0; target = reachable.nextSetBit(target + 1)) {
+            nodes.add(reachability.targetAt(target));
+        }
+        return nodes;
+    }
+}
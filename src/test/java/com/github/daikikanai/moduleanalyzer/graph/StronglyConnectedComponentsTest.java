@@ -0,0 +1,72 @@
+package com.github.daikikanai.moduleanalyzer.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StronglyConnectedComponentsTest {
+
+    @Test
+    void groupsEveryCycleIntoOneComponent() {
+        // 0 -> 1 -> 2 -> 0, 2 -> 3 <-> 4, 5 alone
+        Digraph graph = new Digraph(new int[][]{{1}, {2}, {0, 3}, {4}, {3}, {}});
+
+        StronglyConnectedComponents components = new StronglyConnectedComponents(graph);
+
+        assertEquals(3, components.count());
+        assertEquals(new HashSet<>(Arrays.asList(
+                         Arrays.asList(0, 1, 2), Arrays.asList(3, 4), Collections.singletonList(5))),
+                     new HashSet<>(components.components()));
+    }
+
+    @Test
+    void numbersComponentsSoEdgesPointToLowerNumbers() {
+        // Two cycles chained through a third: {0, 1} -> {2, 3} -> {4, 5}, plus 0 -> 4
+        Digraph graph = new Digraph(new int[][]{{1, 4}, {0, 2}, {3}, {2, 4}, {5}, {4}});
+
+        StronglyConnectedComponents components = new StronglyConnectedComponents(graph);
+
+        assertEquals(3, components.count());
+        for (int node = 0; node < graph.size(); node++) {
+            for (int edge = graph.edgeStart(node); edge < graph.edgeEnd(node); edge++) {
+                assertTrue(components.componentOf(node) >= components.componentOf(graph.edgeTarget(edge)));
+            }
+        }
+        assertTrue(components.componentOf(0) > components.componentOf(2));
+        assertTrue(components.componentOf(2) > components.componentOf(4));
+    }
+
+    @Test
+    void selfLoopIsItsOwnComponent() {
+        Digraph graph = new Digraph(new int[][]{{0, 1}, {}});
+
+        StronglyConnectedComponents components = new StronglyConnectedComponents(graph);
+
+        assertEquals(2, components.count());
+        assertNotEquals(components.componentOf(0), components.componentOf(1));
+    }
+
+    @Test
+    void handlesCyclesDeeperThanTheCallStack() {
+        // A ring of 200k nodes would overflow a recursive search
+        int size = 200_000;
+        Digraph.Builder builder = new Digraph.Builder();
+        for (int node = 0; node < size; node++) {
+            builder.addEdge(node, (node + 1) % size);
+        }
+
+        StronglyConnectedComponents components = new StronglyConnectedComponents(builder.build(size));
+
+        assertEquals(1, components.count());
+    }
+
+    @Test
+    void emptyGraphHasNoComponents() {
+        StronglyConnectedComponents components = new StronglyConnectedComponents(new Digraph(new int[0][]));
+
+        assertEquals(0, components.count());
+        assertEquals(Collections.emptyList(), components.components());
+    }
+}
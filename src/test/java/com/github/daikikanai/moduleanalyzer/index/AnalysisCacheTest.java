@@ -0,0 +1,154 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisCacheTest {
+    private static final List<String> PATTERNS = Collections.singletonList("client.get");
+    private static final String SOURCE = "package com.example.order;\n\nclass OrderCommand {\n}\n";
+
+    @TempDir
+    Path dir;
+
+    private Path root;
+    private Path cacheFile;
+    private Path source;
+    private int parses;
+
+    @BeforeEach
+    void writeSource() throws IOException {
+        root = dir.resolve("modules");
+        cacheFile = dir.resolve("cache/index.cache");
+        source = root.resolve("order/application/OrderCommand.java");
+        Files.createDirectories(source.getParent());
+        write(source, SOURCE, 1_000_000L);
+    }
+
+    @Test
+    void reusesFactsOfUnchangedFilesAcrossRuns() throws IOException {
+        AnalysisCache first = AnalysisCache.load(cacheFile, "1.0", StandardCharsets.UTF_8);
+        assertEquals("com.example.order", load(first, PATTERNS).getPackageName());
+        assertEquals(1, first.getMisses());
+        first.save(root);
+
+        AnalysisCache second = AnalysisCache.load(cacheFile, "1.0", StandardCharsets.UTF_8);
+        assertEquals("com.example.order", load(second, PATTERNS).getPackageName());
+        assertEquals(1, second.getHits());
+        assertEquals(0, second.getMisses());
+        assertEquals(1, parses);
+    }
+
+    @Test
+    void parsesAgainWhenTheContentChanges() throws IOException {
+        saveCache("1.0");
+
+        write(source, SOURCE.replace("order", "user"), 2_000_000L);
+        AnalysisCache cache = AnalysisCache.load(cacheFile, "1.0", StandardCharsets.UTF_8);
+
+        assertEquals("com.example.user", load(cache, PATTERNS).getPackageName());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void keepsFactsOfTouchedButUnchangedFiles() throws IOException {
+        saveCache("1.0");
+
+        write(source, SOURCE, 2_000_000L);
+        AnalysisCache cache = AnalysisCache.load(cacheFile, "1.0", StandardCharsets.UTF_8);
+        load(cache, PATTERNS);
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, parses);
+    }
+
+    @Test
+    void sameSizeChangeIsCaughtByTheContent() throws IOException {
+        saveCache("1.0");
+
+        write(source, SOURCE.replace("order", "ORDER"), 2_000_000L);
+        AnalysisCache cache = AnalysisCache.load(cacheFile, "1.0", StandardCharsets.UTF_8);
+
+        assertEquals("com.example.ORDER", load(cache, PATTERNS).getPackageName());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void startsEmptyForAnotherPluginVersionOrEncoding() throws IOException {
+        saveCache("1.0");
+
+        AnalysisCache otherVersion = AnalysisCache.load(cacheFile, "1.1", StandardCharsets.UTF_8);
+        load(otherVersion, PATTERNS);
+        assertEquals(1, otherVersion.getMisses());
+
+        AnalysisCache otherEncoding = AnalysisCache.load(cacheFile, "1.0", StandardCharsets.ISO_8859_1);
+        load(otherEncoding, PATTERNS);
+        assertEquals(1, otherEncoding.getMisses());
+    }
+
+    @Test
+    void parsesAgainForSearchPatternsTheEntryLacks() throws IOException {
+        saveCache("1.0");
+
+        AnalysisCache cache = AnalysisCache.load(cacheFile, "1.0", StandardCharsets.UTF_8);
+        load(cache, Arrays.asList("client.get", "client.post"));
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, parses);
+    }
+
+    @Test
+    void dropsEntriesOfDeletedFilesUnderTheRoot() throws IOException {
+        saveCache("1.0");
+
+        Files.delete(source);
+        AnalysisCache pruning = AnalysisCache.load(cacheFile, "1.0", StandardCharsets.UTF_8);
+        pruning.save(root);
+
+        write(source, SOURCE, 1_000_000L);
+        AnalysisCache cache = AnalysisCache.load(cacheFile, "1.0", StandardCharsets.UTF_8);
+        load(cache, PATTERNS);
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void rebuildsACorruptCache() throws IOException {
+        saveCache("1.0");
+
+        byte[] bytes = Files.readAllBytes(cacheFile);
+        Files.write(cacheFile, Arrays.copyOf(bytes, bytes.length / 2));
+        AnalysisCache cache = AnalysisCache.load(cacheFile, "1.0", StandardCharsets.UTF_8);
+
+        assertEquals("com.example.order", load(cache, PATTERNS).getPackageName());
+        assertEquals(1, cache.getMisses());
+    }
+
+    private void saveCache(String pluginVersion) throws IOException {
+        AnalysisCache cache = AnalysisCache.load(cacheFile, pluginVersion, StandardCharsets.UTF_8);
+        load(cache, PATTERNS);
+        cache.save(root);
+    }
+
+    private FileFacts load(AnalysisCache cache, List<String> patterns) throws IOException {
+        SourceReader reader = new SourceReader(StandardCharsets.UTF_8);
+        return cache.load(source, patterns, reader, bytes -> {
+            parses++;
+            return SourceParser.parse(reader.text(bytes), patterns);
+        });
+    }
+
+    // Fixed modification times, so changes do not depend on the file system's timestamp resolution
+    private static void write(Path file, String content, long lastModified) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathRuleTest {
+    private static final Path BASE = Paths.get("root");
+
+    @Test
+    void patternWithoutSlashMatchesNameAtAnyDepth() {
+        PathRule rule = PathRule.parse(BASE, "*Generated.java");
+
+        assertTrue(rule.matches(path("OrderGenerated.java"), false));
+        assertTrue(rule.matches(path("order/infra/OrderGenerated.java"), false));
+        assertFalse(rule.matches(path("order/infra/OrderGenerated.java.bak"), false));
+    }
+
+    @Test
+    void patternWithSlashMatchesPathBelowBase() {
+        PathRule rule = PathRule.parse(BASE, "order/*.java");
+
+        assertTrue(rule.matches(path("order/Order.java"), false));
+        assertFalse(rule.matches(path("order/infra/Order.java"), false));
+        assertFalse(rule.matches(path("user/order/Order.java"), false));
+    }
+
+    @Test
+    void leadingSlashAnchorsAName() {
+        PathRule rule = PathRule.parse(BASE, "/generated");
+
+        assertTrue(rule.matches(path("generated"), true));
+        assertFalse(rule.matches(path("order/generated"), true));
+    }
+
+    @Test
+    void trailingSlashMatchesDirectoriesOnly() {
+        PathRule rule = PathRule.parse(BASE, "generated/");
+
+        assertTrue(rule.matches(path("order/generated"), true));
+        assertFalse(rule.matches(path("order/generated"), false));
+    }
+
+    @Test
+    void doubleStarMatchesAnyNumberOfDirectories() {
+        PathRule inside = PathRule.parse(BASE, "order/**/dto");
+        assertTrue(inside.matches(path("order/dto"), true));
+        assertTrue(inside.matches(path("order/application/api/dto"), true));
+        assertFalse(inside.matches(path("user/dto"), true));
+
+        PathRule leading = PathRule.parse(BASE, "**/dto");
+        assertTrue(leading.matches(path("dto"), true));
+        assertTrue(leading.matches(path("order/application/dto"), true));
+    }
+
+    @Test
+    void bracesAreLiteral() {
+        PathRule rule = PathRule.parse(BASE, "{a,b}.java");
+
+        assertTrue(rule.matches(path("{a,b}.java"), false));
+        assertFalse(rule.matches(path("a.java"), false));
+    }
+
+    @Test
+    void skipsBlankLinesAndComments() {
+        assertNull(PathRule.parse(BASE, ""));
+        assertNull(PathRule.parse(BASE, "   "));
+        assertNull(PathRule.parse(BASE, "# generated sources"));
+        assertNull(PathRule.parse(BASE, "/"));
+    }
+
+    @Test
+    void leadingExclamationMarkNegatesUnlessEscaped() {
+        PathRule negated = PathRule.parse(BASE, "!Keep.java");
+        assertTrue(negated.isNegated());
+        assertTrue(negated.matches(path("order/Keep.java"), false));
+
+        PathRule escaped = PathRule.parse(BASE, "\\!Keep.java");
+        assertFalse(escaped.isNegated());
+        assertTrue(escaped.matches(path("!Keep.java"), false));
+
+        PathRule hash = PathRule.parse(BASE, "\\#Keep.java");
+        assertTrue(hash.matches(path("#Keep.java"), false));
+    }
+
+    @Test
+    void trailingSpacesAreDroppedUnlessEscaped() {
+        assertTrue(PathRule.parse(BASE, "Order.java  ").matches(path("Order.java"), false));
+        PathRule escaped = PathRule.parse(BASE, "Order\\ ");
+        assertTrue(escaped.matches(path("Order "), false));
+        assertFalse(escaped.matches(path("Order"), false));
+    }
+
+    private static Path path(String relative) {
+        return BASE.resolve(relative);
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatternMatcherTest {
+
+    @Test
+    void findsOverlappingPatternsInOnePass() {
+        PatternMatcher matcher = PatternMatcher.compile(Arrays.asList("client.get", "get", "client.getall"));
+
+        List<String> expected = Arrays.asList("client.get@1:1", "client.getall@1:1", "get@1:8");
+        assertEquals(expected, matches(matcher, "client.getAll();"));
+        assertEquals(expected, matches(matcher, bytes("client.getAll();")));
+    }
+
+    @Test
+    void reportsEveryOccurrenceOfAPatternThatOverlapsItself() {
+        PatternMatcher matcher = PatternMatcher.compile(Collections.singletonList("aa"));
+
+        assertEquals(Arrays.asList("aa@1:1", "aa@1:2", "aa@1:3"), matches(matcher, bytes("aaaa")));
+    }
+
+    @Test
+    void ignoresAsciiCaseOfPatternsAndText() {
+        PatternMatcher matcher = PatternMatcher.compile(Collections.singletonList("Client.POST"));
+
+        List<String> expected = Arrays.asList("Client.POST@1:1", "Client.POST@2:5");
+        assertEquals(expected, matches(matcher, "CLIENT.post(a);\n    client.Post(b);"));
+        assertEquals(expected, matches(matcher, bytes("CLIENT.post(a);\n    client.Post(b);")));
+    }
+
+    @Test
+    void matchesPatternsWithOtherCharactersLineByLine() {
+        PatternMatcher matcher = PatternMatcher.compile(Arrays.asList("クライアント.post", "client.get"));
+
+        String text = "client.get(x);\n  クライアント.POST(y);";
+        List<String> expected = Arrays.asList("client.get@1:1", "クライアント.post@2:3");
+        assertEquals(expected, matches(matcher, text));
+        assertEquals(expected, matches(matcher, bytes(text)));
+    }
+
+    @Test
+    void doesNotMatchAcrossLines() {
+        PatternMatcher matcher = PatternMatcher.compile(Collections.singletonList("client.get"));
+
+        assertEquals(Collections.emptyList(), matches(matcher, bytes("client.\nget()")));
+    }
+
+    @Test
+    void countsColumnsInBytesAtByteLevelAndInCharactersOtherwise() {
+        PatternMatcher matcher = PatternMatcher.compile(Collections.singletonList("client.get"));
+
+        String text = "\n// あ client.get()";
+        assertEquals(Collections.singletonList("client.get@2:6"), matches(matcher, text));
+        assertEquals(Collections.singletonList("client.get@2:8"), matches(matcher, bytes(text)));
+    }
+
+    @Test
+    void dropsDuplicatePatterns() {
+        PatternMatcher matcher = PatternMatcher.compile(Arrays.asList("client.get", "client.get", "get"));
+
+        assertEquals(Arrays.asList("client.get", "get"), matcher.getPatterns());
+        assertEquals(Arrays.asList("client.get@1:1", "get@1:8"), matches(matcher, "client.get()"));
+    }
+
+    private static SourceText bytes(String content) {
+        SourceText text = SourceText.of(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+        assertTrue(text.isByteLevel());
+        return text;
+    }
+
+    private static List<String> matches(PatternMatcher matcher, String content) {
+        SourceText text = SourceText.of(content);
+        assertFalse(text.isByteLevel());
+        return matches(matcher, text);
+    }
+
+    // pattern@line:column, sorted
+    private static List<String> matches(PatternMatcher matcher, SourceText text) {
+        List<String> matches = new ArrayList<>();
+        matcher.match(text, (pattern, lineNumber, column) ->
+            matches.add(matcher.getPatterns().get(pattern) + "@" + lineNumber + ":" + column));
+        Collections.sort(matches);
+        return matches;
+    }
+}
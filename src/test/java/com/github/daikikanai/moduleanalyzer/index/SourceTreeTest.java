@@ -0,0 +1,134 @@
+package com.github.daikikanai.moduleanalyzer.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceTreeTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void skipsDefaultExcludesAndBuildOutput() throws IOException {
+        write("order/application/OrderCommand.java");
+        write("order/node_modules/Vendored.java");
+        write("order/.git/Hidden.java");
+        write("order/pom.xml");
+        write("order/target/generated-sources/Generated.java");
+        // Not next to a pom.xml, so not build output
+        write("user/target/UserTarget.java");
+
+        SourceTree tree = SourceTree.of(root);
+
+        assertEquals(Arrays.asList("order/application/OrderCommand.java", "user/target/UserTarget.java"), javaFiles(tree));
+    }
+
+    @Test
+    void keepsBuildOutputWhenNotSkipped() throws IOException {
+        write("order/pom.xml");
+        write("order/target/generated-sources/Generated.java");
+        write("user/build.gradle.kts");
+        write("user/build/generated/UserGenerated.java");
+
+        SourceTree skipping = new SourceTree(root, Collections.emptyList(), SourceTree.DEFAULT_EXCLUDES, false, true);
+        SourceTree keeping = new SourceTree(root, Collections.emptyList(), SourceTree.DEFAULT_EXCLUDES, false, false);
+
+        assertEquals(Collections.emptyList(), javaFiles(skipping));
+        assertEquals(Arrays.asList("order/target/generated-sources/Generated.java", "user/build/generated/UserGenerated.java"),
+                     javaFiles(keeping));
+    }
+
+    @Test
+    void appliesIncludeAndExcludeGlobs() throws IOException {
+        write("order/application/OrderCommand.java");
+        write("order/application/OrderCommandTest.java");
+        write("order/infra/OrderRepository.java");
+        write("user/application/SignupCommand.java");
+
+        SourceTree tree = new SourceTree(root, Arrays.asList("order/**"), Arrays.asList("*Test.java", "infra/"), false, true);
+
+        assertEquals(Collections.singletonList("order/application/OrderCommand.java"), javaFiles(tree));
+    }
+
+    @Test
+    void excludedModulesAreNotListed() throws IOException {
+        write("order/application/OrderCommand.java");
+        write("legacy/application/OldCommand.java");
+
+        SourceTree tree = new SourceTree(root, Collections.emptyList(), Arrays.asList("/legacy"), false, true);
+
+        assertEquals(new HashSet<>(Collections.singletonList("order")), tree.listModules());
+        Set<String> modules = new HashSet<>();
+        tree.walk(root, modules, new ArrayList<>());
+        assertEquals(new HashSet<>(Collections.singletonList("order")), modules);
+    }
+
+    @Test
+    void deeperGitignoreRulesOverrideOuterOnes() throws IOException {
+        write("order/application/OrderCommand.java");
+        write("order/application/OrderGenerated.java");
+        write("order/application/KeepGenerated.java");
+        write("order/generated/Other.java");
+        Files.write(root.resolve(".gitignore"), "*Generated.java\ngenerated/\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(root.resolve("order/application/.gitignore"), "!KeepGenerated.java\n".getBytes(StandardCharsets.UTF_8));
+
+        SourceTree ignoring = new SourceTree(root, Collections.emptyList(), SourceTree.DEFAULT_EXCLUDES, true, true);
+        SourceTree notIgnoring = SourceTree.of(root);
+
+        assertEquals(Arrays.asList("order/application/KeepGenerated.java", "order/application/OrderCommand.java"),
+                     javaFiles(ignoring));
+        assertEquals(4, javaFiles(notIgnoring).size());
+    }
+
+    @Test
+    void walkingBelowASkippedDirectoryFindsNothing() throws IOException {
+        write("order/infra/OrderRepository.java");
+
+        SourceTree tree = new SourceTree(root, Collections.emptyList(), Arrays.asList("infra/"), false, true);
+        List<Path> javaFiles = new ArrayList<>();
+        tree.walk(root.resolve("order/infra"), new HashSet<>(), javaFiles);
+
+        assertEquals(Collections.emptyList(), javaFiles);
+    }
+
+    @Test
+    void sharesFiltersAcrossRootsOnlyWithoutSlashPatterns() throws IOException {
+        Path other = root.resolve("other");
+        Files.createDirectories(other);
+
+        SourceTree byName = new SourceTree(root, Collections.emptyList(), Arrays.asList("generated/"), false, true);
+        assertTrue(byName.sameFilters(byName.withRoot(other)));
+
+        SourceTree byPath = new SourceTree(root, Collections.emptyList(), Arrays.asList("order/generated"), false, true);
+        assertFalse(byPath.sameFilters(byPath.withRoot(other)));
+
+        SourceTree keepingBuildOutput = new SourceTree(root, Collections.emptyList(), Arrays.asList("generated/"), false, false);
+        assertFalse(byName.sameFilters(keepingBuildOutput));
+    }
+
+    private void write(String relative) throws IOException {
+        Path file = root.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[0]);
+    }
+
+    // Relative to the root with forward slashes, sorted
+    private List<String> javaFiles(SourceTree tree) throws IOException {
+        List<Path> files = new ArrayList<>();
+        tree.walk(root, new HashSet<>(), files);
+        List<String> names = new ArrayList<>();
+        for (Path file : files) {
+            names.add(root.relativize(file).toString().replace('\\', '/'));
+        }
+        Collections.sort(names);
+        return names;
+    }
+}